@@ -0,0 +1,217 @@
+package framework.action;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import framework.config.Config;
+
+/**
+ * 라우트별 요청 수락 여부를 결정하는 클래스
+ * 동시 실행 한도(고정 또는 지연시간 기반 적응형)와 토큰버킷 방식의 초당 요청수 한도를 넘는 요청은 대기시키지 않고 바로 거절한다.
+ * application.properties 의 admission.* 값으로 설정하며, 키 뒤에 .라우트 를 붙여 라우트별로 다르게 설정할 수 있다.
+ */
+final class AdmissionController {
+	private static final Log logger = LogFactory.getLog(AdmissionController.class);
+	private final Map<String, RouteLimiter> limiterMap = new ConcurrentHashMap<String, RouteLimiter>();
+
+	/**
+	 * admission.enabled=true 로 설정되어 있으면 객체를 생성하여 리턴한다.
+	 * @return AdmissionController 객체, 사용하지 않으면 null
+	 */
+	static AdmissionController create() {
+		boolean enabled = false;
+		try {
+			enabled = Config.getInstance().getBoolean("admission.enabled", Boolean.FALSE);
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+		if (enabled) {
+			return new AdmissionController();
+		}
+		return null;
+	}
+
+	/**
+	 * 요청 수락을 시도한다.
+	 * @param routePath 라우트
+	 * @return 수락되면 처리가 끝난 후 반환해야 하는 Permit 객체, 거절되면 거절 사유가 담긴 Permit 객체
+	 */
+	Permit tryAcquire(String routePath) {
+		RouteLimiter limiter = limiterMap.get(routePath);
+		if (limiter == null) {
+			RouteLimiter newLimiter = new RouteLimiter(routePath);
+			limiter = limiterMap.putIfAbsent(routePath, newLimiter);
+			if (limiter == null) {
+				limiter = newLimiter;
+			}
+		}
+		return limiter.tryAcquire();
+	}
+
+	/**
+	 * 요청 처리 허가
+	 */
+	static final class Permit {
+		private final RouteLimiter limiter;
+		private final long startTime;
+		private final int retryAfter;
+		private final AtomicBoolean released = new AtomicBoolean(false);
+
+		private Permit(RouteLimiter limiter, long startTime, int retryAfter) {
+			this.limiter = limiter;
+			this.startTime = startTime;
+			this.retryAfter = retryAfter;
+		}
+
+		/**
+		 * 수락 여부를 리턴한다.
+		 * @return 수락 여부
+		 */
+		boolean isAccepted() {
+			return limiter != null;
+		}
+
+		/**
+		 * 거절된 경우 클라이언트가 다시 시도할 때까지 기다려야 하는 시간(초)을 리턴한다.
+		 * @return Retry-After 헤더 값(초)
+		 */
+		int getRetryAfter() {
+			return retryAfter;
+		}
+
+		/**
+		 * 처리가 끝났음을 알리고 허가를 반환한다. 여러번 호출해도 한번만 반환된다.
+		 */
+		void release() {
+			if (limiter != null && released.compareAndSet(false, true)) {
+				limiter.release(System.nanoTime() - startTime);
+			}
+		}
+	}
+
+	/*
+	 * 라우트별 동시 실행 한도와 토큰버킷
+	 * 적응형 한도는 장기 평균 지연시간과 현재 지연시간의 비율(gradient)로 한도를 줄이거나 늘린다.
+	 *   newLimit = limit * min(1, max(0.5, longRtt * tolerance / rtt)) + sqrt(limit)
+	 */
+	private static final class RouteLimiter {
+		private static final double TOLERANCE = 1.5;
+		private static final double SMOOTHING = 0.2;
+		private final AtomicInteger inflight = new AtomicInteger(0);
+		private final ReentrantLock lock = new ReentrantLock();
+		private final boolean adaptive;
+		private final int minLimit;
+		private final int maxLimit;
+		private final int retryAfter;
+		private final double rate;
+		private final double burst;
+		private volatile double limit;
+		private double longRtt = 0;
+		private double tokens;
+		private long lastRefill;
+
+		RouteLimiter(String routePath) {
+			adaptive = getBoolean("admission.adaptive", routePath, false);
+			maxLimit = getInt("admission.maxConcurrency", routePath, adaptive ? 1000 : 0);
+			minLimit = Math.max(1, getInt("admission.minConcurrency", routePath, 10));
+			retryAfter = Math.max(1, getInt("admission.retryAfter", routePath, 1));
+			rate = getInt("admission.rate", routePath, 0);
+			burst = Math.max(1, getInt("admission.burst", routePath, (int) Math.max(1, rate)));
+			limit = adaptive ? Math.max(minLimit, Math.min(maxLimit, getInt("admission.initialConcurrency", routePath, 20))) : maxLimit;
+			tokens = burst;
+			lastRefill = System.nanoTime();
+		}
+
+		Permit tryAcquire() {
+			// 동시 실행 한도로 거절되는 요청이 초당 요청수 한도의 토큰을 소모하지 않도록 동시 실행 한도를 먼저 확인한다.
+			if (limit > 0) {
+				if (inflight.incrementAndGet() > (int) limit) {
+					inflight.decrementAndGet();
+					return new Permit(null, 0, retryAfter);
+				}
+			} else {
+				inflight.incrementAndGet();
+			}
+			if (rate > 0) {
+				long waitNanos = takeToken();
+				if (waitNanos > 0) {
+					inflight.decrementAndGet();
+					return new Permit(null, 0, (int) Math.max(1, Math.ceil(waitNanos / 1e9)));
+				}
+			}
+			return new Permit(this, System.nanoTime(), 0);
+		}
+
+		void release(long rttNanos) {
+			int current = inflight.getAndDecrement();
+			if (!adaptive || rttNanos <= 0) {
+				return;
+			}
+			if (!lock.tryLock()) {
+				return;
+			}
+			try {
+				if (longRtt == 0) {
+					longRtt = rttNanos;
+				} else {
+					longRtt = longRtt * 0.99 + rttNanos * 0.01;
+				}
+				// 부하가 빠진 상태의 표본은 한도를 늘리는 근거로 삼지 않는다.
+				if (current < limit / 2) {
+					return;
+				}
+				double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rttNanos));
+				double newLimit = limit * gradient + Math.sqrt(limit);
+				newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+				limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/*
+		 * 토큰을 하나 꺼낸다. 토큰이 없으면 다음 토큰이 생길 때까지의 시간(나노초)을 리턴한다.
+		 */
+		private long takeToken() {
+			lock.lock();
+			try {
+				long now = System.nanoTime();
+				tokens = Math.min(burst, tokens + (now - lastRefill) * rate / 1e9);
+				lastRefill = now;
+				if (tokens >= 1) {
+					tokens -= 1;
+					return 0;
+				}
+				return (long) ((1 - tokens) * 1e9 / rate);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private static int getInt(String key, String routePath, int defaultValue) {
+			try {
+				Config config = Config.getInstance();
+				return config.getInt(key + "." + routePath, config.getInt(key, defaultValue));
+			} catch (Throwable e) {
+				logger.error("", e);
+				return defaultValue;
+			}
+		}
+
+		private static boolean getBoolean(String key, String routePath, boolean defaultValue) {
+			try {
+				Config config = Config.getInstance();
+				return config.getBoolean(key + "." + routePath, config.getBoolean(key, defaultValue));
+			} catch (Throwable e) {
+				logger.error("", e);
+				return defaultValue;
+			}
+		}
+	}
+}
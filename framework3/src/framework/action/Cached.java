@@ -0,0 +1,48 @@
+package framework.action;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 액션메소드에 적용하며, GET/HEAD 요청의 응답(헤더와 본문)을 캐시에 저장하여 같은 요청에는 액션을 실행하지 않고 저장된 응답을 보낸다.
+ * 응답에는 본문의 해쉬값으로 ETag 헤더를 붙이고, If-None-Match 헤더가 일치하면 304 로 응답한다.
+ * 캐시가 없을 때 동시에 들어온 같은 요청은 한번만 액션을 실행하고 결과를 공유한다.
+ * 상태코드가 200 이 아니거나 쿠키를 설정하는 응답, 비동기로 처리된 응답은 저장하지 않는다.
+ * 저장된 응답을 보낼 때도 컨트롤러의 @Before 메소드(로그인, 권한 확인 등)는 실행되지만, 캐시키에는 사용자 정보가 포함되지 않으므로
+ * 사용자마다 내용이 다른 응답은 varyBySession 으로 사용자를 구분하는 세션 속성을 지정해야 한다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cached {
+	/**
+	 * 캐시시간(초단위)
+	 * @return 캐시시간
+	 */
+	int ttl() default 60;
+
+	/**
+	 * 캐시키에 포함할 요청파라미터 이름, 지정하지 않으면 모든 요청파라미터를 포함한다.
+	 * @return 요청파라미터 이름 배열
+	 */
+	String[] varyBy() default {};
+
+	/**
+	 * 캐시키에 포함할 세션 속성 이름
+	 * @return 세션 속성 이름 배열
+	 */
+	String[] varyBySession() default {};
+
+	/**
+	 * 캐시키에 포함할 요청 헤더 이름, 응답의 Vary 헤더로도 설정된다.
+	 * @return 요청 헤더 이름 배열
+	 */
+	String[] varyByHeader() default {};
+
+	/**
+	 * framework.cache.Cache 대신 서버 메모리의 로컬 캐시에 저장할지 여부
+	 * @return 로컬 캐시 사용여부
+	 */
+	boolean local() default false;
+}
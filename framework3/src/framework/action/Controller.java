@@ -1,5 +1,6 @@
 package framework.action;
 
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
@@ -12,8 +13,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.regex.Pattern;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -25,6 +39,8 @@ import org.apache.commons.logging.LogFactory;
 
 import framework.config.Config;
 import framework.db.DB;
+import framework.util.DaemonExecutors;
+import framework.util.DeadlineUtil;
 import framework.util.StringUtil;
 
 /**
@@ -36,6 +52,10 @@ import framework.util.StringUtil;
 public abstract class Controller {
 	private static final String FLASH_SCOPE_OBJECT_KEY = "___FLASH_SCOPE_OBJECT___";
 	private final Map<String, DB> dbMap = new HashMap<String, DB>();
+	private CompletableFuture<Void> asyncFuture = null;
+	private CompletableFuture<?> actionFuture = null;
+	private volatile boolean asyncStarted = false;
+	private volatile String dispatchPath = null;
 
 	/**
 	 * Controller의 로거객체
@@ -53,22 +73,22 @@ public abstract class Controller {
 	protected HttpServletRequest request = null;
 
 	/**
-	 * 요청파라미터의 값을 담는 해시맵
+	 * 요청파라미터의 값을 담는 해시맵, 처음 사용할 때 값이 채워진다.
 	 */
 	protected Params params = null;
 
 	/**
-	 * 쿠키값을 담는 해시맵
+	 * 쿠키값을 담는 해시맵, 처음 사용할 때 값이 채워진다.
 	 */
 	protected Params cookies = null;
 
 	/**
-	 * 헤더값을 담는 해시맵
+	 * 헤더값을 담는 해시맵, 처음 사용할 때 값이 채워진다.
 	 */
 	protected Params headers = null;
 
 	/**
-	 * 클라이언트의 세션 객체
+	 * 클라이언트의 세션 객체, 값을 저장하기 전까지는 실제 세션을 생성하지 않는다.
 	 */
 	protected HttpSession session = null;
 
@@ -100,6 +120,7 @@ public abstract class Controller {
 	/**
 	 * 클라이언트에서 서비스를 호출할 때 요청 url에 설정된 값을 참고하여 해당 메소드를 실행한다.
 	 * 정의되지 않은 메소드를 호출할 경우 로그에 오류메시지가 기록되며 메소드 실행을 마친 후 데이터베이스 컨넥을 자동으로 닫아준다.
+	 * 액션메소드가 CompletionStage(CompletableFuture 등)를 리턴하거나 async() 를 호출하면 비동기로 처리하며, 작업이 끝난 후 컨넥션을 닫고 응답을 완료한다.
 	 * @param servlet 서블릿 객체
 	 * @param request 클라이언트에서 요청된 Request객체
 	 * @param response 클라이언트로 응답할 Response객체
@@ -108,17 +129,7 @@ public abstract class Controller {
 	 */
 	public void execute(HttpServlet servlet, HttpServletRequest request, HttpServletResponse response, Method method) throws Throwable {
 		try {
-			this.application = servlet.getServletContext();
-			this.request = request;
-			this.params = Params.getParams(request);
-			this.cookies = Params.getParamsFromCookie(request);
-			this.headers = Params.getParamsFromHeader(request);
-			this.session = request.getSession();
-			this.flash = new HashMap<String, Object>();
-			this.response = response;
-			this.out = response.getWriter();
-			this.action = method;
-			this.actionName = getClass().getName() + "." + method.getName();
+			init(servlet, request, response, method);
 			long currTime = 0;
 			flashRestore();
 			beforeFilter();
@@ -129,8 +140,9 @@ public abstract class Controller {
 				logger.debug(this.cookies.toString());
 				logger.debug(this.params.toString());
 			}
+			Object result = null;
 			try {
-				method.invoke(this, (Object[]) null);
+				result = method.invoke(this, (Object[]) null);
 			} catch (InvocationTargetException e) {
 				if (e.getCause() instanceof ActionStopException) {
 					throw e.getCause();
@@ -138,12 +150,86 @@ public abstract class Controller {
 					catchFilter(e.getCause());
 				}
 			}
+			CompletionStage<?> stage = (result instanceof CompletionStage) ? (CompletionStage<?>) result : asyncFuture;
+			if (stage != null) {
+				actionFuture = stage.toCompletableFuture();
+				if (request.isAsyncSupported()) {
+					asyncStarted = true;
+					startAsync(stage.toCompletableFuture());
+					return;
+				}
+				awaitAsync(stage.toCompletableFuture());
+			}
 			if (logger.isDebugEnabled()) {
 				logger.debug("End | duration : " + (System.nanoTime() - currTime) + " ns");
 			}
 			afterFilter();
 		} catch (ActionStopException e) {
 			logger.info("Stop Action!");
+		} finally {
+			if (!asyncStarted) {
+				try {
+					finallyFilter();
+				} catch (Throwable te) {
+					logger.error("", te);
+				}
+				flashSave();
+				destroyWhenDone();
+			}
+		}
+	}
+
+	/**
+	 * 작업을 별도의 쓰레드에서 비동기로 실행한다.
+	 * 액션메소드에서 호출하면 컨테이너 쓰레드를 반환하고, 작업이 끝나면 @After, @Finally 메소드를 실행한 후 응답을 완료한다.
+	 * 작업중 예외가 발생하면 @Catch 메소드가 실행되며, 요청 처리 기한(deadlines.properties)은 작업 쓰레드의 DeadlineUtil(쿼리 타임아웃, HTTP 타임아웃)로 적용되고
+	 * 기한이 지날 때까지 시작하지 못한 작업은 실행하지 않는다.
+	 * 작업이 응답객체를 사용하는 동안 응답이 완료되지 않도록 @After, @Finally 메소드 실행과 응답 완료는 항상 작업이 끝난 후에 한다.
+	 * <br>
+	 * ex) 외부 API 응답을 기다리는 경우 : async(new Runnable() { public void run() { ... } })
+	 * @param task 실행할 작업
+	 * @return 작업의 완료를 나타내는 CompletableFuture 객체
+	 */
+	protected CompletableFuture<Void> async(final Runnable task) {
+		final long expireTime = DeadlineUtil.isActive() ? System.currentTimeMillis() + DeadlineUtil.remainingMillis() : 0;
+		asyncFuture = CompletableFuture.runAsync(new Runnable() {
+			@Override
+			public void run() {
+				if (expireTime > 0) {
+					long remaining = expireTime - System.currentTimeMillis();
+					if (remaining <= 0) {
+						throw new DeadlineUtil.DeadlineExceededException("처리 기한이 지나 비동기 작업을 실행하지 않았습니다.");
+					}
+					DeadlineUtil.start(remaining);
+				}
+				try {
+					task.run();
+				} finally {
+					DeadlineUtil.clear();
+				}
+			}
+		}, AsyncExecutorHolder.executor);
+		return asyncFuture;
+	}
+
+	/**
+	 * 액션메소드는 실행하지 않고 @Before 메소드만 실행한다.
+	 * 캐시된 응답(@Cached)을 보내기 전에 로그인, 권한 확인 등의 @Before 메소드를 거치도록 할 때 사용하며, @Finally 메소드 실행과 컨넥션 정리는 execute 와 같다.
+	 * @param servlet 서블릿 객체
+	 * @param request 클라이언트에서 요청된 Request객체
+	 * @param response 클라이언트로 응답할 Response객체
+	 * @param method 메소드
+	 * @return @Before 메소드가 액션진행을 중단하지 않았으면 true
+	 * @throws Throwable 예외 객체
+	 */
+	boolean executeBefore(HttpServlet servlet, HttpServletRequest request, HttpServletResponse response, Method method) throws Throwable {
+		try {
+			init(servlet, request, response, method);
+			beforeFilter();
+			return true;
+		} catch (ActionStopException e) {
+			logger.info("Stop Action!");
+			return false;
 		} finally {
 			try {
 				finallyFilter();
@@ -155,6 +241,45 @@ public abstract class Controller {
 		}
 	}
 
+	/**
+	 * 액션이 비동기 처리로 전환되어 응답 완료를 Controller 가 담당하는지 여부를 리턴한다.
+	 * @return 비동기 처리 여부
+	 */
+	boolean isAsyncStarted() {
+		return asyncStarted;
+	}
+
+	/**
+	 * 비동기 처리중 render 로 지정한 JSP페이지가 있는지 여부를 리턴한다.
+	 * @return JSP페이지 디스패치 대기 여부
+	 */
+	boolean isDispatchPending() {
+		return dispatchPath != null;
+	}
+
+	/**
+	 * 비동기 처리를 끝낸다. render 로 지정한 JSP페이지가 있으면 컨테이너 쓰레드에서 실행되도록 디스패치하고, 없으면 응답을 완료한다.
+	 * 포워드와 같이 디스패치 전에 버퍼에 남은 출력은 지운다.
+	 * @param asyncContext 비동기 컨텍스트
+	 * @param dispatch false 이면 디스패치하지 않고 응답을 완료한다.
+	 */
+	void completeAsync(AsyncContext asyncContext, boolean dispatch) {
+		String path = dispatchPath;
+		dispatchPath = null;
+		try {
+			if (dispatch && path != null) {
+				if (!asyncContext.getResponse().isCommitted()) {
+					asyncContext.getResponse().resetBuffer();
+				}
+				asyncContext.dispatch(application, path);
+			} else {
+				asyncContext.complete();
+			}
+		} catch (IllegalStateException e) {
+			logger.error("", e);
+		}
+	}
+
 	/**
 	 * 액션진행을 중단한다.
 	 */
@@ -165,6 +290,9 @@ public abstract class Controller {
 	/**
 	 * 요청을 JSP페이지로 포워드(Forward) 한다.
 	 * 작성된 JSP페이지는 views.properties에 등록한다.
+	 * 비동기 처리중(가상 쓰레드 디스패치 모드, async() 작업)에는 컨테이너 쓰레드가 아닌 곳에서 포워드할 수 없으므로 JSP페이지를 기억해 두었다가,
+	 * @After, @Finally 메소드 실행과 DB 컨넥션 정리가 끝난 후 응답을 완료하는 대신 AsyncContext.dispatch 로 JSP페이지를 실행한다.
+	 * 이 경우 JSP페이지에서는 DB 컨넥션을 사용할 수 없다.
 	 * <br>
 	 * ex) 키가 search-jsp 인 JSP페이지로 포워딩 할 경우 : render("search-jsp")
 	 * @param key views.properties 파일에 등록된 JSP 페이지의 키
@@ -173,6 +301,16 @@ public abstract class Controller {
 		try {
 			ResourceBundle viewsBundle = (ResourceBundle) application.getAttribute("views-mapping");
 			String url = ((String) viewsBundle.getObject(key)).trim();
+			if (action.isAnnotationPresent(ReleaseBeforeRender.class) || getClass().isAnnotationPresent(ReleaseBeforeRender.class)) {
+				releaseDB();
+			}
+			if (request.isAsyncStarted()) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("☆☆☆ " + getIpAddr(request) + " 로 부터 \"" + request.getMethod() + " " + request.getRequestURI() + "\" 요청이 \"" + url + "\" 로 dispatch 됩니다");
+				}
+				dispatchPath = response.encodeURL(url);
+				return;
+			}
 			if (logger.isDebugEnabled()) {
 				logger.debug("☆☆☆ " + getIpAddr(request) + " 로 부터 \"" + request.getMethod() + " " + request.getRequestURI() + "\" 요청이 \"" + url + "\" 로 forward 되었습니다");
 			}
@@ -206,13 +344,26 @@ public abstract class Controller {
 		}
 	}
 
+	/**
+	 * 지금까지 사용한 데이타베이스 컨넥션을 반환한다.
+	 * 외부 API 호출처럼 오래 걸리는 작업 전에 호출하면 컨넥션 점유시간을 줄일 수 있다.
+	 * 커밋하지 않은 작업은 롤백되며, 반환 후 DB 객체를 다시 사용하면 새로운 컨넥션을 획득한다.
+	 */
+	protected void releaseDB() {
+		for (DB db : dbMap.values()) {
+			if (db != null && db.isConnected()) {
+				db.release();
+			}
+		}
+	}
+
 	/**
 	 * 데이타베이스 객체를 리턴한다.
 	 * <br>
 	 * application.properties에 datasource가 등록되어 있으면 JNDI에 등록되어있는 데이타소스에서 컨넥션을 생성한다.
 	 * datasource가 등록되어 있지 않는 경우 연결정보를 바탕으로 jdbc 컨넥션을 생성한다.
 	 * 업무명이 default에 해당하는 설정파일 정보를 이용하여 컨넥션을 생성한다.
-	 * 생성된 컨넥션의 autoCommit 속성은 false 로 셋팅된다.
+	 * 컨넥션은 첫번째 문장을 실행할 때 획득하며, 생성된 컨넥션의 autoCommit 속성은 false 로 셋팅된다.
 	 * @return DB 객체
 	 */
 	protected DB getDB() {
@@ -225,7 +376,7 @@ public abstract class Controller {
 	 * application.properties에 jndiName이 등록되어 있으면 JNDI에 등록되어있는 데이타소스에서 컨넥션을 생성한다.
 	 * jndiName이 등록되어 있지 않는 경우 연결정보를 바탕으로 db 컨넥션을 생성한다.
 	 * 파라미터로 넘겨진 업무명에 해당하는 설정파일 정보를 이용하여 컨넥션을 생성한다.
-	 * 생성된 컨넥션의 autoCommit 속성은 false 로 셋팅된다.
+	 * 컨넥션은 첫번째 문장을 실행할 때 획득하며, 생성된 컨넥션의 autoCommit 속성은 false 로 셋팅된다.
 	 * @param serviceName 서비스명(업무명)
 	 * @return DB 객체
 	 */
@@ -320,6 +471,173 @@ public abstract class Controller {
 		private static final long serialVersionUID = -4449840322691459821L;
 	}
 
+	/*
+	 * 요청을 처리하는데 필요한 객체를 설정
+	 */
+	private void init(HttpServlet servlet, HttpServletRequest request, HttpServletResponse response, Method method) throws IOException {
+		this.application = servlet.getServletContext();
+		this.request = request;
+		this.params = Params.getLazyParams(request);
+		this.cookies = Params.getLazyParamsFromCookie(request);
+		this.headers = Params.getLazyParamsFromHeader(request);
+		this.session = new LazySession(request);
+		this.flash = new HashMap<String, Object>();
+		this.response = response;
+		this.out = response.getWriter();
+		this.action = method;
+		this.actionName = getClass().getName() + "." + method.getName();
+	}
+
+	/*
+	 * async() 로 실행하는 작업의 쓰레드풀, application.properties 의 async.threads(기본값 100)로 크기를 설정한다.
+	 */
+	private static final class AsyncExecutorHolder {
+		private static final ExecutorService executor = DaemonExecutors.create("framework-async", "async.threads", 100);
+	}
+
+	/*
+	 * 비동기 처리를 시작하고, 작업이 끝나면 후처리 후 응답을 완료
+	 * 작업이 실행중인 응답을 다른 쓰레드에서 완료하지 않도록 컨테이너의 비동기 타임아웃은 사용하지 않으며, 처리 기한은 작업 쓰레드의 DeadlineUtil 로 적용한다.
+	 * 컨테이너가 오류를 알리면 리스너가 응답을 완료하지 않을 경우 컨테이너가 응답을 완료하므로, 리스너 쓰레드에서 작업이 끝날 때까지 기다린 후 완료한다.
+	 */
+	private void startAsync(final CompletableFuture<?> future) {
+		final AsyncContext asyncContext = request.isAsyncStarted() ? request.getAsyncContext() : request.startAsync(request, response);
+		asyncContext.setTimeout(0);
+		final CompletableFuture<?> pending = (asyncFuture != null && asyncFuture != future) ? CompletableFuture.allOf(future, asyncFuture) : future;
+		final AtomicBoolean completed = new AtomicBoolean(false);
+		final CountDownLatch completeLatch = new CountDownLatch(1);
+		asyncContext.addListener(new AsyncListener() {
+			@Override
+			public void onComplete(AsyncEvent event) {
+			}
+
+			@Override
+			public void onTimeout(AsyncEvent event) {
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				if (completed.compareAndSet(false, true)) {
+					logger.error("", event.getThrowable());
+					awaitQuietly(pending);
+					completeAsync(asyncContext, getAsyncError(future), false, completeLatch);
+				} else {
+					try {
+						completeLatch.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+			}
+		});
+		pending.whenComplete(new BiConsumer<Object, Throwable>() {
+			@Override
+			public void accept(Object value, Throwable e) {
+				if (completed.compareAndSet(false, true)) {
+					completeAsync(asyncContext, getAsyncError(future), true, completeLatch);
+				}
+			}
+		});
+	}
+
+	/*
+	 * 비동기 작업 완료 후 @After 또는 @Catch, @Finally 메소드를 실행하고 응답을 완료(또는 JSP페이지로 디스패치)
+	 */
+	private void completeAsync(AsyncContext asyncContext, Throwable error, boolean dispatch, CountDownLatch completeLatch) {
+		try {
+			if (error == null) {
+				afterFilter();
+			} else {
+				Throwable cause = unwrapAsyncException(error);
+				if (!(cause instanceof ActionStopException)) {
+					catchFilter(cause);
+				}
+			}
+		} catch (ActionStopException e) {
+			logger.info("Stop Action!");
+		} catch (Throwable e) {
+			logger.error("", e);
+			if (!response.isCommitted()) {
+				try {
+					response.sendError(e instanceof TimeoutException || e instanceof DeadlineUtil.DeadlineExceededException ? 503 : 500);
+				} catch (Throwable se) {
+					logger.error("", se);
+				}
+			}
+		} finally {
+			try {
+				finallyFilter();
+			} catch (Throwable te) {
+				logger.error("", te);
+			}
+			flashSave();
+			destroyWhenDone();
+			try {
+				completeAsync(asyncContext, dispatch);
+			} finally {
+				completeLatch.countDown();
+			}
+		}
+	}
+
+	/*
+	 * 작업이 끝날 때까지 기다린다. 작업의 예외는 getAsyncError 로 확인한다.
+	 */
+	private void awaitQuietly(CompletableFuture<?> future) {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Throwable e) {
+			// 작업의 예외는 getAsyncError 에서 처리한다.
+		}
+	}
+
+	/*
+	 * 완료된 작업의 예외를 리턴한다. 정상 완료되었으면 null 을 리턴한다.
+	 */
+	private Throwable getAsyncError(CompletableFuture<?> future) {
+		try {
+			future.getNow(null);
+			return null;
+		} catch (Throwable e) {
+			return e;
+		}
+	}
+
+	/*
+	 * 비동기 처리를 지원하지 않는 필터가 적용된 경우 컨테이너 쓰레드에서 작업이 끝날 때까지 대기
+	 */
+	private void awaitAsync(CompletableFuture<?> future) throws Throwable {
+		try {
+			if (DeadlineUtil.isActive()) {
+				future.get(Math.max(1, DeadlineUtil.remainingMillis()), TimeUnit.MILLISECONDS);
+			} else {
+				future.get();
+			}
+		} catch (TimeoutException e) {
+			catchFilter(new TimeoutException("비동기 액션의 처리시간이 초과되었습니다."));
+		} catch (ExecutionException e) {
+			Throwable cause = unwrapAsyncException(e);
+			if (cause instanceof ActionStopException) {
+				throw cause;
+			}
+			catchFilter(cause);
+		}
+	}
+
+	private Throwable unwrapAsyncException(Throwable e) {
+		Throwable cause = e;
+		while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+			cause = cause.getCause();
+		}
+		return cause;
+	}
+
 	/*
 	 * 플래시객체를 세션에 저장
 	 */
@@ -554,6 +872,30 @@ public abstract class Controller {
 		return methods;
 	}
 
+	/*
+	 * 비동기 작업이 실제로 끝난 후에 DB 컨넥션을 정리한다.
+	 * CompletableFuture 는 cancel 해도 실행중인 작업을 멈추지 않으므로, 시간 초과로 응답을 먼저 완료했더라도 작업이 사용하는 컨넥션은 작업이 끝날 때 닫는다.
+	 */
+	private void destroyWhenDone() {
+		CompletableFuture<?> pending = null;
+		if (actionFuture != null && !actionFuture.isDone()) {
+			pending = actionFuture;
+		}
+		if (asyncFuture != null && asyncFuture != actionFuture && !asyncFuture.isDone()) {
+			pending = (pending == null) ? asyncFuture : CompletableFuture.allOf(pending, asyncFuture);
+		}
+		if (pending == null) {
+			destroy();
+			return;
+		}
+		pending.whenComplete(new BiConsumer<Object, Throwable>() {
+			@Override
+			public void accept(Object value, Throwable e) {
+				destroy();
+			}
+		});
+	}
+
 	/*
 	 * DB 컨넥션 정리
 	 */
@@ -2,9 +2,20 @@ package framework.action;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -16,6 +27,10 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import framework.cache.Cache;
+import framework.config.Config;
+import framework.db.MybatisDB;
+import framework.util.DeadlineUtil;
+import framework.util.ExportUtil;
 import framework.util.StringUtil;
 
 /**
@@ -27,10 +42,14 @@ public class DispatcherServlet extends HttpServlet {
 	private static final long serialVersionUID = -6478697606075642071L;
 	private static final Log logger = LogFactory.getLog(DispatcherServlet.class);
 	private static final String[] DEFAULT_SERVLET_NAMES = new String[] { "default", "WorkerServlet", "ResourceServlet", "FileServlet", "resin-file", "SimpleFileServlet", "_ah_default" };
+	private final Map<String, Semaphore> routeLimiterMap = new ConcurrentHashMap<String, Semaphore>();
+	private ExecutorService virtualThreadExecutor = null;
+	private AdmissionController admissionController = null;
+	private ResponseCache responseCache = null;
 
 	/**
 	 * 서블릿 객체를 초기화 한다.
-	 * web.xml에 초기화 파라미터로 등록되어 있는 routes-mapping, views-mapping 값을 찾아 리소스 번들을 생성하는 역할을 한다.
+	 * web.xml에 초기화 파라미터로 등록되어 있는 routes-mapping, views-mapping, deadlines-mapping(선택) 값을 찾아 리소스 번들을 생성하는 역할을 한다.
 	 * @param config ServletConfig 객체
 	 */
 	@Override
@@ -60,11 +79,48 @@ public class DispatcherServlet extends HttpServlet {
 			// views 번들 설정
 			ResourceBundle viewsBundle = ResourceBundle.getBundle(config.getInitParameter("views-mapping"));
 			getServletContext().setAttribute("views-mapping", viewsBundle);
+			// deadlines 번들 설정
+			String deadlinesMapping = config.getInitParameter("deadlines-mapping");
+			if (deadlinesMapping != null) {
+				ResourceBundle deadlinesBundle = ResourceBundle.getBundle(deadlinesMapping);
+				getServletContext().setAttribute("deadlines-mapping", deadlinesBundle);
+			}
 		} catch (MissingResourceException e) {
 			throw new ServletException(e);
 		}
 		// Cache
 		Cache.init();
+		// Mybatis
+		MybatisDB.init();
+		// 백그라운드 내보내기 작업 재개
+		try {
+			ExportUtil.init();
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+		// 요청 수락 제어
+		admissionController = AdmissionController.create();
+		// 액션 응답 캐시
+		responseCache = ResponseCache.create();
+		// 가상 쓰레드 디스패치 모드
+		if ("true".equalsIgnoreCase(config.getInitParameter("virtual-threads"))) {
+			virtualThreadExecutor = newVirtualThreadExecutor();
+			if (virtualThreadExecutor != null) {
+				logger.info("가상 쓰레드에서 액션을 실행합니다.");
+			}
+		}
+	}
+
+	/**
+	 * 서블릿 객체를 정리한다.
+	 */
+	@Override
+	public void destroy() {
+		if (virtualThreadExecutor != null) {
+			virtualThreadExecutor.shutdown();
+			virtualThreadExecutor = null;
+		}
+		super.destroy();
 	}
 
 	/**
@@ -121,8 +177,9 @@ public class DispatcherServlet extends HttpServlet {
 		try {
 			Controller controller = null;
 			Method action = null;
+			String routePath = null;
 			try {
-				String routePath = getRoutePath(request);
+				routePath = getRoutePath(request);
 				String[] controllerAction = getControllerAction(routePath);
 				String controllerName = controllerAction[0];
 				String actionName = controllerAction[1];
@@ -142,15 +199,30 @@ public class DispatcherServlet extends HttpServlet {
 				}
 				return;
 			}
-			long currTime = 0;
-			if (logger.isDebugEnabled()) {
-				currTime = System.nanoTime();
-				logger.debug("★★★ " + getIpAddr(request) + " 로 부터 \"" + request.getMethod() + " " + request.getRequestURI() + "\" 요청이 시작되었습니다");
-				logger.debug("ContentLength : " + request.getContentLength() + " bytes");
+			AdmissionController.Permit permit = null;
+			if (admissionController != null) {
+				permit = admissionController.tryAcquire(routePath);
+				if (!permit.isAccepted()) {
+					reject(request, response, routePath, permit.getRetryAfter());
+					return;
+				}
 			}
-			controller.execute(this, request, response, action);
-			if (logger.isDebugEnabled()) {
-				logger.debug("☆☆☆ " + getIpAddr(request) + " 로 부터 \"" + request.getMethod() + " " + request.getRequestURI() + "\" 요청이 종료되었습니다 | duration : " + (System.nanoTime() - currTime) + " ns\n");
+			boolean releaseOnComplete = false;
+			try {
+				if (virtualThreadExecutor != null && request.isAsyncSupported()) {
+					executeOnVirtualThread(controller, action, routePath, request, response);
+					releaseOnComplete = (permit != null);
+				} else {
+					executeAction(controller, action, routePath, request, response);
+					releaseOnComplete = (permit != null && controller.isAsyncStarted());
+				}
+				if (releaseOnComplete) {
+					releaseOnComplete = releaseOnComplete(request, permit);
+				}
+			} finally {
+				if (permit != null && !releaseOnComplete) {
+					permit.release();
+				}
 			}
 		} catch (Throwable e) {
 			logger.error("", e);
@@ -158,6 +230,196 @@ public class DispatcherServlet extends HttpServlet {
 		}
 	}
 
+	private void executeAction(Controller controller, Method action, String routePath, HttpServletRequest request, HttpServletResponse response) throws Throwable {
+		long currTime = 0;
+		if (logger.isDebugEnabled()) {
+			currTime = System.nanoTime();
+			logger.debug("★★★ " + getIpAddr(request) + " 로 부터 \"" + request.getMethod() + " " + request.getRequestURI() + "\" 요청이 시작되었습니다");
+			logger.debug("ContentLength : " + request.getContentLength() + " bytes");
+		}
+		DeadlineUtil.start(getDeadline(routePath));
+		try {
+			Cached cached = action.getAnnotation(Cached.class);
+			if (cached != null && ResponseCache.isCacheable(request)) {
+				responseCache.execute(this, controller, action, cached, routePath, request, response);
+			} else {
+				controller.execute(this, request, response, action);
+			}
+		} finally {
+			DeadlineUtil.clear();
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("☆☆☆ " + getIpAddr(request) + " 로 부터 \"" + request.getMethod() + " " + request.getRequestURI() + "\" 요청이 종료되었습니다 | duration : " + (System.nanoTime() - currTime) + " ns\n");
+		}
+	}
+
+	/*
+	 * 비동기 처리를 시작하고 가상 쓰레드에서 액션을 실행한다.
+	 * 라우트별 동시 실행 한도를 넘으면 처리 기한까지 대기하며, 기한 내에 실행하지 못하면 503 으로 응답한다.
+	 * 액션이 실행중인 응답을 다른 쓰레드에서 완료하지 않도록 컨테이너의 비동기 타임아웃은 사용하지 않으며, 응답은 액션 쓰레드가 끝날 때 완료한다.
+	 * 처리 기한은 동기 방식과 같이 액션 쓰레드의 DeadlineUtil(쿼리 타임아웃, HTTP 타임아웃)로 적용된다.
+	 * 컨테이너가 오류를 알려도 액션 쓰레드가 끝날 때까지 기다린 후 응답을 완료하며, 액션에서 render 한 JSP페이지는 forward 대신 AsyncContext.dispatch 로 실행한다.
+	 */
+	private void executeOnVirtualThread(final Controller controller, final Method action, final String routePath, final HttpServletRequest request, final HttpServletResponse response) {
+		final long deadline = getDeadline(routePath);
+		final AsyncContext asyncContext = request.startAsync(request, response);
+		asyncContext.setTimeout(0);
+		final AtomicBoolean completed = new AtomicBoolean(false);
+		final CountDownLatch actionLatch = new CountDownLatch(1);
+		asyncContext.addListener(new AsyncListener() {
+			@Override
+			public void onComplete(AsyncEvent event) {
+			}
+
+			@Override
+			public void onTimeout(AsyncEvent event) {
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				// 리스너가 완료하지 않으면 컨테이너가 응답을 완료하므로 액션 쓰레드가 끝날 때까지 기다린다.
+				try {
+					actionLatch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				if (!controller.isAsyncStarted() && completed.compareAndSet(false, true)) {
+					logger.error("", event.getThrowable());
+					controller.completeAsync(asyncContext, false);
+				}
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+			}
+		});
+		virtualThreadExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				Semaphore limiter = getRouteLimiter(routePath);
+				boolean acquired = false;
+				try {
+					if (deadline > 0) {
+						acquired = limiter.tryAcquire(deadline, TimeUnit.MILLISECONDS);
+					} else {
+						limiter.acquire();
+						acquired = true;
+					}
+					if (!acquired) {
+						logger.info("동시 실행 한도를 초과하여 요청을 처리하지 못했습니다. : " + routePath);
+						sendError(response, 503);
+						return;
+					}
+					executeAction(controller, action, routePath, request, response);
+				} catch (Throwable e) {
+					logger.error("", e);
+					sendError(response, 500);
+				} finally {
+					if (acquired) {
+						limiter.release();
+					}
+					try {
+						if (!controller.isAsyncStarted() && completed.compareAndSet(false, true)) {
+							controller.completeAsync(asyncContext, true);
+						}
+					} finally {
+						actionLatch.countDown();
+					}
+				}
+			}
+		});
+	}
+
+	/*
+	 * 비동기 처리가 끝날 때 허가를 반환하도록 리스너를 등록한다.
+	 * 최초 디스패치가 끝나기 전에는 complete 가 호출되어도 완료 이벤트가 디스패치 이후로 지연되므로 리스너를 놓치지 않는다.
+	 */
+	private boolean releaseOnComplete(HttpServletRequest request, final AdmissionController.Permit permit) {
+		try {
+			request.getAsyncContext().addListener(new AsyncListener() {
+				@Override
+				public void onComplete(AsyncEvent event) {
+					permit.release();
+				}
+
+				@Override
+				public void onTimeout(AsyncEvent event) {
+				}
+
+				@Override
+				public void onError(AsyncEvent event) {
+					permit.release();
+				}
+
+				@Override
+				public void onStartAsync(AsyncEvent event) {
+				}
+			});
+			return true;
+		} catch (IllegalStateException e) {
+			return false;
+		}
+	}
+
+	/*
+	 * 수락되지 않은 요청을 Retry-After 헤더와 함께 503 으로 바로 거절한다.
+	 */
+	private void reject(HttpServletRequest request, HttpServletResponse response, String routePath, int retryAfter) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("☆☆☆ " + getIpAddr(request) + " 로 부터 \"" + request.getMethod() + " " + request.getRequestURI() + "\" 요청이 거절되었습니다 | route : " + routePath + ", Retry-After : " + retryAfter);
+		}
+		response.setHeader("Retry-After", String.valueOf(retryAfter));
+		sendError(response, 503);
+	}
+
+	/*
+	 * 라우트별 동시 실행 한도
+	 * application.properties 의 virtualthread.maxConcurrency.라우트 또는 virtualthread.maxConcurrency 값을 사용하며, 0 이하이면 제한하지 않는다.
+	 */
+	private Semaphore getRouteLimiter(String routePath) {
+		Semaphore limiter = routeLimiterMap.get(routePath);
+		if (limiter == null) {
+			int limit = 0;
+			try {
+				Config config = Config.getInstance();
+				limit = config.getInt("virtualthread.maxConcurrency." + routePath, config.getInt("virtualthread.maxConcurrency", 0));
+			} catch (Throwable e) {
+				logger.error("", e);
+			}
+			Semaphore newLimiter = new Semaphore(limit > 0 ? limit : Integer.MAX_VALUE);
+			limiter = routeLimiterMap.putIfAbsent(routePath, newLimiter);
+			if (limiter == null) {
+				limiter = newLimiter;
+			}
+		}
+		return limiter;
+	}
+
+	/*
+	 * Java 21 이상에서만 제공되는 Executors.newVirtualThreadPerTaskExecutor() 를 리플렉션으로 호출
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (NoSuchMethodException e) {
+			logger.info("가상 쓰레드를 지원하지 않는 JVM 이므로 컨테이너 쓰레드에서 액션을 실행합니다.");
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+		return null;
+	}
+
+	private void sendError(HttpServletResponse response, int statusCode) {
+		if (!response.isCommitted()) {
+			try {
+				response.sendError(statusCode);
+			} catch (Throwable e) {
+				logger.error("", e);
+			}
+		}
+	}
+
 	private String getRoutePath(HttpServletRequest request) {
 		String path = request.getServletPath() + StringUtil.nullToBlankString(request.getPathInfo());
 		String normalizePath = path.replaceAll("/+", "/");
@@ -175,6 +437,28 @@ public class DispatcherServlet extends HttpServlet {
 		}
 	}
 
+	private long getDeadline(String routePath) {
+		ResourceBundle deadlinesBundle = (ResourceBundle) getServletContext().getAttribute("deadlines-mapping");
+		if (deadlinesBundle == null) {
+			return 0;
+		}
+		String value = null;
+		if (deadlinesBundle.containsKey(routePath)) {
+			value = deadlinesBundle.getString(routePath);
+		} else if (deadlinesBundle.containsKey("default")) {
+			value = deadlinesBundle.getString("default");
+		}
+		if (value == null) {
+			return 0;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			logger.error("", e);
+			return 0;
+		}
+	}
+
 	private boolean isActionMethod(Method method) {
 		if (method.isAnnotationPresent(Before.class)) {
 			return false;
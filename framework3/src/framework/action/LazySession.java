@@ -0,0 +1,130 @@
+package framework.action;
+
+import java.util.Collections;
+import java.util.Enumeration;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+
+/**
+ * 실제 세션을 필요할 때까지 생성하지 않는 세션 래퍼 클래스
+ * 조회 메소드는 이미 존재하는 세션이 있을 때만 위임하고, 값을 저장하거나 세션 정보가 필요한 메소드를 호출할 때 세션을 생성한다.
+ */
+@SuppressWarnings("deprecation")
+final class LazySession implements HttpSession {
+	private final HttpServletRequest request;
+
+	LazySession(HttpServletRequest request) {
+		this.request = request;
+	}
+
+	@Override
+	public long getCreationTime() {
+		return create().getCreationTime();
+	}
+
+	@Override
+	public String getId() {
+		return create().getId();
+	}
+
+	@Override
+	public long getLastAccessedTime() {
+		return create().getLastAccessedTime();
+	}
+
+	@Override
+	public ServletContext getServletContext() {
+		return request.getServletContext();
+	}
+
+	@Override
+	public void setMaxInactiveInterval(int interval) {
+		create().setMaxInactiveInterval(interval);
+	}
+
+	@Override
+	public int getMaxInactiveInterval() {
+		return create().getMaxInactiveInterval();
+	}
+
+	@Override
+	public javax.servlet.http.HttpSessionContext getSessionContext() {
+		return create().getSessionContext();
+	}
+
+	@Override
+	public Object getAttribute(String name) {
+		HttpSession session = existing();
+		return session == null ? null : session.getAttribute(name);
+	}
+
+	@Override
+	public Object getValue(String name) {
+		return getAttribute(name);
+	}
+
+	@Override
+	public Enumeration<String> getAttributeNames() {
+		HttpSession session = existing();
+		if (session == null) {
+			return Collections.enumeration(Collections.<String> emptyList());
+		}
+		return session.getAttributeNames();
+	}
+
+	@Override
+	public String[] getValueNames() {
+		HttpSession session = existing();
+		return session == null ? new String[0] : session.getValueNames();
+	}
+
+	@Override
+	public void setAttribute(String name, Object value) {
+		if (value == null) {
+			removeAttribute(name);
+			return;
+		}
+		create().setAttribute(name, value);
+	}
+
+	@Override
+	public void putValue(String name, Object value) {
+		setAttribute(name, value);
+	}
+
+	@Override
+	public void removeAttribute(String name) {
+		HttpSession session = existing();
+		if (session != null) {
+			session.removeAttribute(name);
+		}
+	}
+
+	@Override
+	public void removeValue(String name) {
+		removeAttribute(name);
+	}
+
+	@Override
+	public void invalidate() {
+		HttpSession session = existing();
+		if (session != null) {
+			session.invalidate();
+		}
+	}
+
+	@Override
+	public boolean isNew() {
+		return create().isNew();
+	}
+
+	private HttpSession existing() {
+		return request.getSession(false);
+	}
+
+	private HttpSession create() {
+		return request.getSession(true);
+	}
+}
@@ -4,10 +4,14 @@ import java.io.File;
 import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
@@ -27,6 +31,14 @@ public class Params extends HashMap<String, String[]> {
 	private static final long serialVersionUID = 7143941735208780214L;
 	private final List<FileItem> fileItems = new ArrayList<FileItem>();
 	private String name = null;
+	private transient Loader loader = null;
+
+	/*
+	 * 값을 처음 사용할 때 채우기 위한 로더
+	 */
+	interface Loader {
+		void load(Params params);
+	}
 
 	/***
 	 * Params 생성자
@@ -37,6 +49,11 @@ public class Params extends HashMap<String, String[]> {
 		this.name = name;
 	}
 
+	private Params(String name, Loader loader) {
+		this(name);
+		this.loader = loader;
+	}
+
 	/**
 	 * 요청객체의 파라미터 이름과 값을 저장한 해시테이블을 생성한다.
 	 * <br>
@@ -46,6 +63,53 @@ public class Params extends HashMap<String, String[]> {
 	 */
 	public static Params getParams(HttpServletRequest request) {
 		Params params = new Params("Params");
+		loadParams(params, request);
+		return params;
+	}
+
+	/**
+	 * 요청객체의 파라미터 이름과 값을 처음 사용할 때 채우는 해시테이블을 생성한다.
+	 * @param request HTTP 클라이언트 요청객체
+	 * @return 요청Params 객체
+	 */
+	static Params getLazyParams(final HttpServletRequest request) {
+		return new Params("Params", new Loader() {
+			@Override
+			public void load(Params params) {
+				loadParams(params, request);
+			}
+		});
+	}
+
+	/**
+	 * 요청객체의 쿠키 이름과 값을 처음 사용할 때 채우는 해시테이블을 생성한다.
+	 * @param request HTTP 클라이언트 요청객체
+	 * @return 쿠키Params 객체
+	 */
+	static Params getLazyParamsFromCookie(final HttpServletRequest request) {
+		return new Params("Cookie", new Loader() {
+			@Override
+			public void load(Params params) {
+				loadParamsFromCookie(params, request);
+			}
+		});
+	}
+
+	/**
+	 * 요청객체의 헤더 이름과 값을 처음 사용할 때 채우는 해시테이블을 생성한다.
+	 * @param request HTTP 클라이언트 요청객체
+	 * @return 헤더Params 객체
+	 */
+	static Params getLazyParamsFromHeader(final HttpServletRequest request) {
+		return new Params("Header", new Loader() {
+			@Override
+			public void load(Params params) {
+				loadParamsFromHeader(params, request);
+			}
+		});
+	}
+
+	private static void loadParams(Params params, HttpServletRequest request) {
 		for (Object obj : request.getParameterMap().keySet()) {
 			String key = (String) obj;
 			params.put(key, request.getParameterValues(key));
@@ -83,7 +147,6 @@ public class Params extends HashMap<String, String[]> {
 				throw new RuntimeException(e);
 			}
 		}
-		return params;
 	}
 
 	/**
@@ -95,13 +158,17 @@ public class Params extends HashMap<String, String[]> {
 	 */
 	public static Params getParamsFromCookie(HttpServletRequest request) {
 		Params cookieParams = new Params("Cookie");
+		loadParamsFromCookie(cookieParams, request);
+		return cookieParams;
+	}
+
+	private static void loadParamsFromCookie(Params cookieParams, HttpServletRequest request) {
 		Cookie[] cookies = request.getCookies();
 		if (cookies != null) {
 			for (Cookie cookie : cookies) {
 				cookieParams.put(cookie.getName(), new String[] { StringUtil.nullToBlankString(cookie.getValue()) });
 			}
 		}
-		return cookieParams;
 	}
 
 	/**
@@ -113,12 +180,16 @@ public class Params extends HashMap<String, String[]> {
 	 */
 	public static Params getParamsFromHeader(HttpServletRequest request) {
 		Params headerParams = new Params("Header");
+		loadParamsFromHeader(headerParams, request);
+		return headerParams;
+	}
+
+	private static void loadParamsFromHeader(Params headerParams, HttpServletRequest request) {
 		Enumeration<?> headerNames = request.getHeaderNames();
 		while (headerNames.hasMoreElements()) {
 			String headerName = (String) headerNames.nextElement();
 			headerParams.put(headerName.toLowerCase(), new String[] { StringUtil.nullToBlankString(request.getHeader(headerName)) });
 		}
-		return headerParams;
 	}
 
 	/**
@@ -137,6 +208,7 @@ public class Params extends HashMap<String, String[]> {
 	 * @return key에 매핑되어 있는 값 또는 기본 값
 	 */
 	public String[] getArray(String key, String[] defaultValue) {
+		load();
 		String[] value = super.get(key);
 		if (value == null) {
 			return defaultValue;
@@ -360,6 +432,7 @@ public class Params extends HashMap<String, String[]> {
 	 * @return key에 매핑되어 있는 값 또는 기본 값
 	 */
 	public String getRawString(String key, String defaultValue) {
+		load();
 		String[] value = super.get(key);
 		if (value == null || value.length == 0 || StringUtil.isEmpty(value[0])) {
 			return defaultValue;
@@ -437,6 +510,7 @@ public class Params extends HashMap<String, String[]> {
 	 * @return 파일아이템 리스트 객체
 	 */
 	public List<FileItem> getFileItems() {
+		load();
 		List<FileItem> list = new ArrayList<FileItem>();
 		list.addAll(fileItems);
 		return list;
@@ -452,6 +526,102 @@ public class Params extends HashMap<String, String[]> {
 		return put(key, new String[] { value });
 	}
 
+	@Override
+	public int size() {
+		load();
+		return super.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		load();
+		return super.isEmpty();
+	}
+
+	@Override
+	public String[] get(Object key) {
+		load();
+		return super.get(key);
+	}
+
+	@Override
+	public String[] getOrDefault(Object key, String[] defaultValue) {
+		load();
+		return super.getOrDefault(key, defaultValue);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		load();
+		return super.containsKey(key);
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		load();
+		return super.containsValue(value);
+	}
+
+	@Override
+	public String[] put(String key, String[] value) {
+		load();
+		return super.put(key, value);
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends String[]> m) {
+		load();
+		super.putAll(m);
+	}
+
+	@Override
+	public String[] putIfAbsent(String key, String[] value) {
+		load();
+		return super.putIfAbsent(key, value);
+	}
+
+	@Override
+	public String[] remove(Object key) {
+		load();
+		return super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		loader = null;
+		super.clear();
+	}
+
+	@Override
+	public Set<String> keySet() {
+		load();
+		return super.keySet();
+	}
+
+	@Override
+	public Collection<String[]> values() {
+		load();
+		return super.values();
+	}
+
+	@Override
+	public Set<Entry<String, String[]>> entrySet() {
+		load();
+		return super.entrySet();
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super String[]> action) {
+		load();
+		super.forEach(action);
+	}
+
+	@Override
+	public Object clone() {
+		load();
+		return super.clone();
+	}
+
 	/**
 	 * Param 객체가 가지고 있는 값들을 화면 출력을 위해 문자열로 변환한다.
 	 * @return 화면에 출력하기 위해 변환된 문자열
@@ -634,6 +804,17 @@ public class Params extends HashMap<String, String[]> {
 		return str.replaceAll("\\\\", "\\\\\\\\").replaceAll("\"", "\\\\").replaceAll("\r\n", "\\\\n").replaceAll("\n", "\\\\n");
 	}
 
+	/**
+	 * 지연 생성된 객체이면 처음 사용할 때 값을 채운다.
+	 */
+	private void load() {
+		if (loader != null) {
+			Loader l = loader;
+			loader = null;
+			l.load(this);
+		}
+	}
+
 	/**
 	 * Multipart 파일업로드시 파일 아이템을 리스트에 추가한다.
 	 * @param item 파일을 담고 있는 객체
@@ -0,0 +1,15 @@
+package framework.action;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 액션메소드 또는 컨트롤러 클래스에 적용하며, render() 로 JSP페이지에 포워드 하기 전에 데이타베이스 컨넥션을 반환한다.
+ * 커밋하지 않은 작업은 롤백되므로 render() 호출 전에 커밋하여야 한다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface ReleaseBeforeRender {
+}
@@ -0,0 +1,650 @@
+package framework.action;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.servlet.http.HttpSession;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import framework.cache.Cache;
+import framework.config.Config;
+import framework.util.CryptUtil;
+import framework.util.DeadlineUtil;
+
+/**
+ * @Cached 가 적용된 액션의 응답을 저장하고 재사용하는 클래스
+ * 라우트, 요청파라미터, 지정한 세션 속성과 요청 헤더로 캐시키를 만들고, 응답 헤더와 본문을 framework.cache.Cache 또는 로컬 캐시에 저장한다.
+ * 로컬 캐시의 최대 항목수는 application.properties 의 responsecache.local.maxEntries(기본값 1000)로 설정한다.
+ */
+final class ResponseCache {
+	private static final Log logger = LogFactory.getLog(ResponseCache.class);
+	private static final String KEY_PREFIX = "framework.responsecache.";
+	private static final long DEFAULT_WAIT_MILLISECONDS = 30000;
+	private static final Set<String> EXCLUDE_HEADERS = new HashSet<String>(Arrays.asList("content-type", "content-length", "etag", "date", "set-cookie", "vary", "transfer-encoding", "connection"));
+	private final Map<String, CompletableFuture<CachedResponse>> inflightMap = new ConcurrentHashMap<String, CompletableFuture<CachedResponse>>();
+	private final LocalCache localCache;
+
+	private ResponseCache(int maxEntries) {
+		this.localCache = new LocalCache(maxEntries);
+	}
+
+	/**
+	 * 응답 캐시 객체를 생성한다.
+	 * @return 응답 캐시 객체
+	 */
+	static ResponseCache create() {
+		int maxEntries = 1000;
+		try {
+			maxEntries = Config.getInstance().getInt("responsecache.local.maxEntries", maxEntries);
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+		return new ResponseCache(maxEntries);
+	}
+
+	/**
+	 * 응답을 캐시할 수 있는 요청(GET, HEAD)인지 여부를 리턴한다.
+	 * @param request HTTP 클라이언트 요청객체
+	 * @return 캐시 가능 여부
+	 */
+	static boolean isCacheable(HttpServletRequest request) {
+		String method = request.getMethod();
+		return "GET".equals(method) || "HEAD".equals(method);
+	}
+
+	/**
+	 * 캐시된 응답이 있으면 액션을 실행하지 않고 응답하고, 없으면 액션을 실행하여 응답을 저장한다.
+	 * 같은 키로 실행중인 요청이 있으면 그 결과를 기다려서 사용한다.
+	 * 캐시된 응답을 보내거나 실행중인 요청을 기다리기 전에 컨트롤러의 @Before 메소드를 실행하며, @Before 메소드가 액션진행을 중단하면 그 응답을 보낸다.
+	 * @param servlet 서블릿 객체
+	 * @param controller 컨트롤러 객체
+	 * @param action 액션 메소드
+	 * @param cached 캐시 설정
+	 * @param routePath 라우트
+	 * @param request HTTP 클라이언트 요청객체
+	 * @param response HTTP 클라이언트 응답객체
+	 * @throws Throwable 액션 실행중 발생한 예외
+	 */
+	void execute(HttpServlet servlet, Controller controller, Method action, Cached cached, String routePath, HttpServletRequest request, HttpServletResponse response) throws Throwable {
+		String key = getKey(cached, routePath, request);
+		CachedResponse cachedResponse = lookup(cached, key);
+		if (cachedResponse != null) {
+			if (!before(servlet, controller, action, request, response)) {
+				return;
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("@Cached Hit : " + routePath);
+			}
+			send(cached, request, response, cachedResponse, true);
+			return;
+		}
+		CompletableFuture<CachedResponse> future = new CompletableFuture<CachedResponse>();
+		CompletableFuture<CachedResponse> inflight = inflightMap.putIfAbsent(key, future);
+		if (inflight != null) {
+			// 먼저 실행중인 요청의 결과를 저장할 수 없으면 controller.execute 가 @Before 를 실행하므로, 저장된 응답을 보낼 때만 before 를 실행한다.
+			cachedResponse = await(inflight);
+			if (cachedResponse == null) {
+				controller.execute(servlet, request, response, action);
+			} else if (before(servlet, controller, action, request, response)) {
+				send(cached, request, response, cachedResponse, true);
+			}
+			return;
+		}
+		try {
+			CaptureResponse capture = new CaptureResponse(response);
+			try {
+				controller.execute(servlet, new CaptureRequest(request, capture), capture, action);
+			} catch (Throwable e) {
+				capture.passThrough();
+				throw e;
+			}
+			if (controller.isAsyncStarted() || controller.isDispatchPending() || !capture.isCacheable()) {
+				capture.passThrough();
+				return;
+			}
+			cachedResponse = capture.toCachedResponse();
+			store(cached, key, cachedResponse);
+			send(cached, request, response, cachedResponse, false);
+		} finally {
+			inflightMap.remove(key, future);
+			future.complete(cachedResponse);
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////Private 메소드
+
+	/*
+	 * 액션을 실행하지 않고 응답할 때도 로그인, 권한 확인 등을 거치도록 @Before 메소드를 실행한다.
+	 * @Before 메소드가 중단하거나 200 이 아닌 상태코드를 설정하면 그 출력을 보내고 false 를 리턴한다.
+	 */
+	private boolean before(HttpServlet servlet, Controller controller, Method action, HttpServletRequest request, HttpServletResponse response) throws Throwable {
+		CaptureResponse capture = new CaptureResponse(response);
+		boolean proceed;
+		try {
+			proceed = controller.executeBefore(servlet, new CaptureRequest(request, capture), capture, action);
+		} catch (Throwable e) {
+			capture.passThrough();
+			throw e;
+		}
+		if (proceed && capture.isOk() && !response.isCommitted()) {
+			return true;
+		}
+		capture.passThrough();
+		return false;
+	}
+
+	private String getKey(Cached cached, String routePath, HttpServletRequest request) {
+		StringBuilder buf = new StringBuilder();
+		buf.append(routePath);
+		if (cached.varyBy().length == 0) {
+			for (Map.Entry<String, String[]> entry : new TreeMap<String, String[]>(request.getParameterMap()).entrySet()) {
+				buf.append('\n').append(entry.getKey()).append('=').append(Arrays.toString(entry.getValue()));
+			}
+		} else {
+			for (String name : cached.varyBy()) {
+				buf.append('\n').append(name).append('=').append(Arrays.toString(request.getParameterValues(name)));
+			}
+		}
+		if (cached.varyBySession().length > 0) {
+			HttpSession session = request.getSession(false);
+			for (String name : cached.varyBySession()) {
+				buf.append("\ns:").append(name).append('=').append(session == null ? null : session.getAttribute(name));
+			}
+		}
+		for (String name : cached.varyByHeader()) {
+			buf.append("\nh:").append(name).append('=').append(request.getHeader(name));
+		}
+		return KEY_PREFIX + CryptUtil.hashSHA1HexString(buf.toString());
+	}
+
+	private CachedResponse lookup(Cached cached, String key) {
+		if (cached.local() || Cache.cache == null) {
+			return localCache.get(key);
+		}
+		try {
+			Object value = Cache.get(key);
+			if (value instanceof CachedResponse) {
+				return (CachedResponse) value;
+			}
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+		return null;
+	}
+
+	private void store(Cached cached, String key, CachedResponse cachedResponse) {
+		if (cached.ttl() <= 0) {
+			return;
+		}
+		if (cached.local() || Cache.cache == null) {
+			localCache.put(key, cachedResponse, cached.ttl());
+			return;
+		}
+		try {
+			Cache.set(key, cachedResponse, cached.ttl());
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+	}
+
+	/*
+	 * 같은 키로 먼저 실행중인 요청의 결과를 처리 기한까지 기다린다. 저장할 수 없는 응답이었거나 기다리지 못하면 null 을 리턴한다.
+	 */
+	private CachedResponse await(CompletableFuture<CachedResponse> inflight) {
+		long wait = DeadlineUtil.isActive() ? Math.max(1, DeadlineUtil.remainingMillis()) : DEFAULT_WAIT_MILLISECONDS;
+		try {
+			return inflight.get(wait, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			logger.error("", e);
+		} catch (TimeoutException e) {
+			logger.info("캐시할 응답을 기다리는 시간이 초과되었습니다.");
+		}
+		return null;
+	}
+
+	/*
+	 * 저장된 응답을 전송한다. If-None-Match 헤더가 ETag 와 일치하면 본문없이 304 로 응답한다.
+	 */
+	private void send(Cached cached, HttpServletRequest request, HttpServletResponse response, CachedResponse cachedResponse, boolean restoreHeaders) throws IOException {
+		if (restoreHeaders) {
+			if (cachedResponse.contentType != null) {
+				response.setContentType(cachedResponse.contentType);
+			}
+			Set<String> names = new HashSet<String>();
+			for (String[] header : cachedResponse.headers) {
+				if (names.add(header[0])) {
+					response.setHeader(header[0], header[1]);
+				} else {
+					response.addHeader(header[0], header[1]);
+				}
+			}
+		}
+		if (cached.varyByHeader().length > 0) {
+			StringBuilder vary = new StringBuilder();
+			for (String name : cached.varyByHeader()) {
+				if (vary.length() > 0) {
+					vary.append(", ");
+				}
+				vary.append(name);
+			}
+			response.setHeader("Vary", vary.toString());
+		}
+		response.setHeader("ETag", cachedResponse.etag);
+		if (matches(request.getHeader("If-None-Match"), cachedResponse.etag)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		response.setContentLength(cachedResponse.body.length);
+		ServletOutputStream os = response.getOutputStream();
+		os.write(cachedResponse.body);
+		os.flush();
+	}
+
+	private boolean matches(String ifNoneMatch, String etag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String tag : ifNoneMatch.split(",")) {
+			tag = tag.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if ("*".equals(tag) || etag.equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * 저장된 응답
+	 */
+	private static final class CachedResponse implements Serializable {
+		private static final long serialVersionUID = -2739861437829614093L;
+		private final String contentType;
+		private final List<String[]> headers;
+		private final byte[] body;
+		private final String etag;
+
+		CachedResponse(String contentType, List<String[]> headers, byte[] body, String etag) {
+			this.contentType = contentType;
+			this.headers = headers;
+			this.body = body;
+			this.etag = etag;
+		}
+	}
+
+	/*
+	 * 서버 메모리에 저장하는 LRU 캐시
+	 */
+	private static final class LocalCache {
+		private final ReentrantLock lock = new ReentrantLock();
+		private final LinkedHashMap<String, Object[]> map;
+
+		LocalCache(final int maxEntries) {
+			this.map = new LinkedHashMap<String, Object[]>(16, 0.75f, true) {
+				private static final long serialVersionUID = 4109328716021936483L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Object[]> eldest) {
+					return size() > maxEntries;
+				}
+			};
+		}
+
+		CachedResponse get(String key) {
+			lock.lock();
+			try {
+				Object[] entry = map.get(key);
+				if (entry == null) {
+					return null;
+				}
+				if (((Long) entry[0]).longValue() < System.currentTimeMillis()) {
+					map.remove(key);
+					return null;
+				}
+				return (CachedResponse) entry[1];
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		void put(String key, CachedResponse value, int seconds) {
+			lock.lock();
+			try {
+				map.put(key, new Object[] { Long.valueOf(System.currentTimeMillis() + seconds * 1000L), value });
+				Iterator<Object[]> it = map.values().iterator();
+				long now = System.currentTimeMillis();
+				while (it.hasNext() && ((Long) it.next()[0]).longValue() < now) {
+					it.remove();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	/*
+	 * 액션이 비동기 처리로 전환되면 그때까지 모은 본문을 보내고 이후 출력은 바로 전달하도록 하는 요청 래퍼
+	 */
+	private static final class CaptureRequest extends HttpServletRequestWrapper {
+		private final CaptureResponse capture;
+
+		CaptureRequest(HttpServletRequest request, CaptureResponse capture) {
+			super(request);
+			this.capture = capture;
+		}
+
+		@Override
+		public AsyncContext startAsync() {
+			capture.passThrough();
+			return super.startAsync();
+		}
+
+		@Override
+		public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+			capture.passThrough();
+			return super.startAsync(servletRequest, servletResponse);
+		}
+
+		@Override
+		public AsyncContext getAsyncContext() {
+			capture.passThrough();
+			return super.getAsyncContext();
+		}
+	}
+
+	/*
+	 * 본문을 메모리에 모으는 응답 래퍼, 헤더와 상태코드는 실제 응답객체에 바로 설정한다.
+	 */
+	private static final class CaptureResponse extends HttpServletResponseWrapper {
+		private final ReentrantLock lock = new ReentrantLock();
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+		private ServletOutputStream outputStream = null;
+		private PrintWriter writer = null;
+		private boolean passThrough = false;
+		private boolean cacheable = true;
+		private int status = SC_OK;
+
+		CaptureResponse(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() throws IOException {
+			if (outputStream == null) {
+				outputStream = new ServletOutputStream() {
+					@Override
+					public void write(int b) throws IOException {
+						write(new byte[] { (byte) b }, 0, 1);
+					}
+
+					@Override
+					public void write(byte[] b, int off, int len) throws IOException {
+						lock.lock();
+						try {
+							if (passThrough) {
+								getResponse().getOutputStream().write(b, off, len);
+							} else {
+								buffer.write(b, off, len);
+							}
+						} finally {
+							lock.unlock();
+						}
+					}
+
+					@Override
+					public void flush() throws IOException {
+						if (passThrough) {
+							getResponse().getOutputStream().flush();
+						}
+					}
+
+					@Override
+					public boolean isReady() {
+						return true;
+					}
+
+					@Override
+					public void setWriteListener(WriteListener writeListener) {
+						passThrough();
+						try {
+							getResponse().getOutputStream().setWriteListener(writeListener);
+						} catch (IOException e) {
+							throw new IllegalStateException(e);
+						}
+					}
+				};
+			}
+			return outputStream;
+		}
+
+		/*
+		 * 비동기 처리 후에도 출력이 남지 않도록 버퍼링 없이 바로 인코딩하는 Writer 를 사용한다.
+		 */
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (writer == null) {
+				final ServletOutputStream os = getOutputStream();
+				final String charset = getCharacterEncoding();
+				writer = new PrintWriter(new Writer() {
+					@Override
+					public void write(char[] cbuf, int off, int len) throws IOException {
+						byte[] bytes = new String(cbuf, off, len).getBytes(charset);
+						os.write(bytes, 0, bytes.length);
+					}
+
+					@Override
+					public void flush() throws IOException {
+						os.flush();
+					}
+
+					@Override
+					public void close() throws IOException {
+						flush();
+					}
+				});
+			}
+			return writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (passThrough) {
+				super.flushBuffer();
+			}
+		}
+
+		@Override
+		public boolean isCommitted() {
+			return passThrough && super.isCommitted();
+		}
+
+		@Override
+		public void resetBuffer() {
+			lock.lock();
+			try {
+				if (passThrough) {
+					super.resetBuffer();
+				} else {
+					buffer.reset();
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			resetBuffer();
+			status = SC_OK;
+		}
+
+		@Override
+		public void setStatus(int sc) {
+			status = sc;
+			super.setStatus(sc);
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			discard();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			discard();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			discard();
+			super.sendRedirect(location);
+		}
+
+		@Override
+		public void addCookie(Cookie cookie) {
+			cacheable = false;
+			super.addCookie(cookie);
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if (checkHeader(name)) {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			if (checkHeader(name)) {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			if (passThrough) {
+				super.setContentLength(len);
+			}
+		}
+
+		@Override
+		public void setContentLengthLong(long len) {
+			if (passThrough) {
+				super.setContentLengthLong(len);
+			}
+		}
+
+		boolean isCacheable() {
+			return cacheable && isOk();
+		}
+
+		boolean isOk() {
+			return status == SC_OK;
+		}
+
+		/*
+		 * 모은 본문을 실제 응답객체로 보내고, 이후 출력은 바로 전달한다.
+		 */
+		void passThrough() {
+			lock.lock();
+			try {
+				if (passThrough) {
+					return;
+				}
+				passThrough = true;
+				cacheable = false;
+				if (buffer.size() > 0) {
+					getResponse().getOutputStream().write(buffer.toByteArray());
+					buffer.reset();
+				}
+			} catch (IOException e) {
+				logger.error("", e);
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		CachedResponse toCachedResponse() {
+			byte[] body = buffer.toByteArray();
+			List<String[]> headers = new ArrayList<String[]>();
+			HttpServletResponse response = (HttpServletResponse) getResponse();
+			for (String name : new HashSet<String>(response.getHeaderNames())) {
+				if (EXCLUDE_HEADERS.contains(name.toLowerCase())) {
+					continue;
+				}
+				for (String value : response.getHeaders(name)) {
+					headers.add(new String[] { name, value });
+				}
+			}
+			return new CachedResponse(response.getContentType(), headers, body, etag(body));
+		}
+
+		private void discard() {
+			lock.lock();
+			try {
+				buffer.reset();
+				passThrough = true;
+				cacheable = false;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private boolean checkHeader(String name) {
+			if ("Set-Cookie".equalsIgnoreCase(name)) {
+				cacheable = false;
+			}
+			return passThrough || !"Content-Length".equalsIgnoreCase(name);
+		}
+
+		private static String etag(byte[] body) {
+			try {
+				MessageDigest md = MessageDigest.getInstance("SHA-1");
+				return "\"" + Hex.encodeHexString(md.digest(body)) + "\"";
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+}
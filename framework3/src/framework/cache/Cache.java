@@ -4,6 +4,7 @@ import java.io.NotSerializableException;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -21,7 +22,7 @@ public final class Cache {
 	/**
 	 * 캐시구현체
 	 */
-	public static AbstractCache cache = null;
+	public static volatile AbstractCache cache = null;
 
 	/**
 	 * 캐시구현체 이름
@@ -33,6 +34,11 @@ public final class Cache {
 	 */
 	private final static int DEFAULT_DURATION = 60 * 60 * 24 * 30;
 
+	/**
+	 * 초기화 잠금, 가상 쓰레드가 캐리어 쓰레드에 고정(pinning)되지 않도록 synchronized 대신 사용한다.
+	 */
+	private static final ReentrantLock initLock = new ReentrantLock();
+
 	/**
 	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
 	 */
@@ -42,21 +48,33 @@ public final class Cache {
 	/**
 	 * 캐시 초기화, 설정파일을 읽어 캐시 구현체를 셋팅한다.
 	 */
-	public synchronized static void init() {
-		if (cache == null) {
-			try {
-				cache = Memcached.getInstance();
-				cacheName = "Memcached";
-			} catch (Throwable e) {
+	public static void init() {
+		if (cache != null) {
+			return;
+		}
+		initLock.lock();
+		try {
+			if (cache == null) {
+				AbstractCache newCache;
+				String newCacheName;
 				try {
-					cache = Redis.getInstance();
-					cacheName = "Redis";
-				} catch (Throwable e2) {
-					cache = EhCache.getInstance();
-					cacheName = "EhCache";
+					newCache = Memcached.getInstance();
+					newCacheName = "Memcached";
+				} catch (Throwable e) {
+					try {
+						newCache = Redis.getInstance();
+						newCacheName = "Redis";
+					} catch (Throwable e2) {
+						newCache = EhCache.getInstance();
+						newCacheName = "EhCache";
+					}
 				}
+				cacheName = newCacheName;
+				cache = newCache;
+				logger.info(String.format("[ %s ] init : 초기화 성공", cacheName));
 			}
-			logger.info(String.format("[ %s ] init : 초기화 성공", cacheName));
+		} finally {
+			initLock.unlock();
 		}
 	}
 
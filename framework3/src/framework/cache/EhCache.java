@@ -2,6 +2,7 @@ package framework.cache;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Element;
@@ -14,7 +15,12 @@ public final class EhCache extends AbstractCache {
 	/**
 	 * 싱글톤 객체
 	 */
-	private static EhCache uniqueInstance;
+	private static volatile EhCache uniqueInstance;
+
+	/**
+	 * 싱글톤 생성 잠금
+	 */
+	private static final ReentrantLock instanceLock = new ReentrantLock();
 
 	/**
 	 * 캐시 매니저
@@ -45,11 +51,20 @@ public final class EhCache extends AbstractCache {
 	 *
 	 * @return EhCache 객체의 인스턴스
 	 */
-	public synchronized static EhCache getInstance() {
-		if (uniqueInstance == null) {
-			uniqueInstance = new EhCache();
+	public static EhCache getInstance() {
+		EhCache instance = uniqueInstance;
+		if (instance != null) {
+			return instance;
+		}
+		instanceLock.lock();
+		try {
+			if (uniqueInstance == null) {
+				uniqueInstance = new EhCache();
+			}
+			return uniqueInstance;
+		} finally {
+			instanceLock.unlock();
 		}
-		return uniqueInstance;
 	}
 
 	@Override
@@ -75,29 +90,13 @@ public final class EhCache extends AbstractCache {
 	}
 
 	@Override
-	public synchronized long incr(String key, int by) {
-		Element e = cache.get(key);
-		if (e == null) {
-			return -1;
-		}
-		long newValue = ((Number) e.getObjectValue()).longValue() + by;
-		Element newE = new Element(key, newValue);
-		newE.setTimeToLive(e.getTimeToLive());
-		cache.put(newE);
-		return newValue;
+	public long incr(String key, int by) {
+		return add(key, by);
 	}
 
 	@Override
-	public synchronized long decr(String key, int by) {
-		Element e = cache.get(key);
-		if (e == null) {
-			return -1;
-		}
-		long newValue = ((Number) e.getObjectValue()).longValue() - by;
-		Element newE = new Element(key, newValue);
-		newE.setTimeToLive(e.getTimeToLive());
-		cache.put(newE);
-		return newValue;
+	public long decr(String key, int by) {
+		return add(key, -by);
 	}
 
 	@Override
@@ -109,4 +108,22 @@ public final class EhCache extends AbstractCache {
 	public void clear() {
 		cache.removeAll();
 	}
-}
\ No newline at end of file
+
+	/*
+	 * 값을 비교 후 교체(compare-and-swap)하는 방식으로 증감하여 잠금 없이 원자적으로 처리
+	 */
+	private long add(String key, long delta) {
+		while (true) {
+			Element e = cache.get(key);
+			if (e == null) {
+				return -1;
+			}
+			long newValue = ((Number) e.getObjectValue()).longValue() + delta;
+			Element newE = new Element(key, newValue);
+			newE.setTimeToLive(e.getTimeToLive());
+			if (cache.replace(e, newE)) {
+				return newValue;
+			}
+		}
+	}
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import framework.config.Config;
 import net.spy.memcached.AddrUtil;
@@ -20,7 +21,12 @@ public final class Memcached extends AbstractCache {
 	/**
 	 * 싱글톤 객체
 	 */
-	private static Memcached uniqueInstance;
+	private static volatile Memcached uniqueInstance;
+
+	/**
+	 * 싱글톤 생성 잠금
+	 */
+	private static final ReentrantLock instanceLock = new ReentrantLock();
 
 	/**
 	 * 캐시 클라이언트
@@ -50,11 +56,20 @@ public final class Memcached extends AbstractCache {
 	 *
 	 * @return Memcached 객체의 인스턴스
 	 */
-	public synchronized static Memcached getInstance() {
-		if (uniqueInstance == null) {
-			uniqueInstance = new Memcached();
+	public static Memcached getInstance() {
+		Memcached instance = uniqueInstance;
+		if (instance != null) {
+			return instance;
+		}
+		instanceLock.lock();
+		try {
+			if (uniqueInstance == null) {
+				uniqueInstance = new Memcached();
+			}
+			return uniqueInstance;
+		} finally {
+			instanceLock.unlock();
 		}
-		return uniqueInstance;
 	}
 
 	@Override
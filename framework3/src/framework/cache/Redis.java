@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 import framework.config.Config;
 import redis.clients.jedis.Jedis;
@@ -25,7 +26,12 @@ public final class Redis extends AbstractCache {
 	/**
 	 * 싱글톤 객체
 	 */
-	private static Redis uniqueInstance;
+	private static volatile Redis uniqueInstance;
+
+	/**
+	 * 싱글톤 생성 잠금
+	 */
+	private static final ReentrantLock instanceLock = new ReentrantLock();
 
 	/**
 	 * 타임아웃 값 (ms)
@@ -55,11 +61,20 @@ public final class Redis extends AbstractCache {
 	 *
 	 * @return Redis 객체의 인스턴스
 	 */
-	public synchronized static Redis getInstance() {
-		if (uniqueInstance == null) {
-			uniqueInstance = new Redis();
+	public static Redis getInstance() {
+		Redis instance = uniqueInstance;
+		if (instance != null) {
+			return instance;
+		}
+		instanceLock.lock();
+		try {
+			if (uniqueInstance == null) {
+				uniqueInstance = new Redis();
+			}
+			return uniqueInstance;
+		} finally {
+			instanceLock.unlock();
 		}
-		return uniqueInstance;
 	}
 
 	@Override
@@ -51,6 +51,7 @@ public abstract class AbstractOrmDao {
 			pstmt = this.db.createPrepareStatement(query);
 			pstmt.set(values);
 			result = pstmt.executeUpdate();
+			QueryCache.invalidate(this.db, query);
 		} finally {
 			if (pstmt != null) {
 				pstmt.close();
@@ -83,13 +84,18 @@ public abstract class AbstractOrmDao {
 		if (values == null || values.length == 0) {
 			return 0;
 		}
+		if (type.equals(ValueObjectArray.INSERT)) {
+			return executeBulkInsert(values, result, cnt);
+		}
 		BatchPreparedStatement pstmt = null;
 		try {
-			pstmt = this.db.createBatchPrepareStatement(getSaveSql(type, vo.getUserKeys(), vo.getUserFields()));
+			String sql = getSaveSql(type, vo.getUserKeys(), vo.getUserFields());
+			pstmt = this.db.createBatchPrepareStatement(sql);
 			for (int i = 0; i < values.length; i++) {
 				pstmt.addBatch(getSaveValue(values[i], type, vo.getUserKeys(), vo.getUserFields()));
 			}
 			int[] upCnts = pstmt.executeBatch();
+			QueryCache.invalidate(this.db, sql);
 			for (int i = 0; i < upCnts.length; i++) {
 				result[cnt++] = upCnts[i];
 			}
@@ -101,6 +107,30 @@ public abstract class AbstractOrmDao {
 		return values.length;
 	}
 
+	/*
+	 * 등록은 데이타베이스별 일괄 등록(COPY, 다중행 INSERT, 배열 바인딩)으로 처리
+	 */
+	private int executeBulkInsert(ValueObject[] values, int[] result, int cnt) {
+		BulkInsertStatement bstmt = null;
+		try {
+			String sql = getInsertSql();
+			bstmt = this.db.createBulkInsertStatement(sql);
+			for (int i = 0; i < values.length; i++) {
+				bstmt.addBatch(values[i].getInsertValue());
+			}
+			int[] upCnts = bstmt.executeBatch();
+			QueryCache.invalidate(this.db, sql);
+			for (int i = 0; i < upCnts.length; i++) {
+				result[cnt++] = upCnts[i];
+			}
+		} finally {
+			if (bstmt != null) {
+				bstmt.close();
+			}
+		}
+		return values.length;
+	}
+
 	private String getSaveSql(String type, String[] keys, String[] fields) {
 		if (type.equals(ValueObjectArray.INSERT)) {
 			return getInsertSql();
@@ -3,6 +3,8 @@ package framework.db;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import framework.util.DeadlineUtil;
+
 /**
  * 모든 SQL 문장을 처리하는 클래스가 상속받아야 할 추상 클래스
  */
@@ -13,4 +15,12 @@ public abstract class AbstractStatement {
 	 * Statement의 close 를 구현하기 위한 추상 메소드
 	 */
 	public abstract void close();
-}
\ No newline at end of file
+
+	/**
+	 * 요청 처리 기한이 설정되어 있으면 남은 시간을 쿼리 타임아웃으로 설정하고, 기한이 지나면 취소되도록 등록한다.
+	 * @param stmt 실행할 JDBC 문장
+	 */
+	protected void applyDeadline(java.sql.Statement stmt) {
+		DeadlineUtil.apply(stmt);
+	}
+}
@@ -113,6 +113,7 @@ public final class BatchPreparedStatement extends AbstractStatement {
 				}
 				pstmt.addBatch();
 			}
+			applyDeadline(pstmt);
 			upCnts = pstmt.executeBatch();
 			if (logger.isDebugEnabled()) {
 				logger.debug("@Sql End (BATCH P_STATEMENT)");
@@ -71,6 +71,7 @@ public final class BatchStatement extends AbstractStatement {
 			for (int i = 0, size = sqlList.size(); i < size; i++) {
 				stmt.addBatch(sqlList.get(i));
 			}
+			applyDeadline(stmt);
 			upCnts = stmt.executeBatch();
 			if (logger.isDebugEnabled()) {
 				logger.debug("@Sql End (BATCH STATEMENT)");
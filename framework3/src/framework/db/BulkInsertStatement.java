@@ -0,0 +1,334 @@
+package framework.db;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import framework.util.DeadlineUtil;
+
+/**
+ * 단건 INSERT 문장을 데이타베이스별로 가장 빠른 방법으로 일괄 실행하기 위한 클래스
+ * PostgreSQL 은 COPY FROM STDIN, MySQL/MSSQL/PostgreSQL 은 다중행 INSERT ... VALUES (...),(...) 를 사용하고
+ * 그 외(Oracle 등)는 드라이버의 배열 바인딩 배치 처리를 사용한다.
+ * VALUES 절에 바인딩 변수(?) 외의 식(시퀀스, 함수, 서브쿼리 등)이 있으면 행마다 평가되어야 하므로 항상 배열 바인딩 배치 처리를 사용한다.
+ */
+public final class BulkInsertStatement extends AbstractStatement {
+	private static final Pattern INSERT_PATTERN = Pattern.compile("^\\s*INSERT\\s+INTO\\s+(\\S+)\\s*\\((.*?)\\)\\s*VALUES\\s*\\((.*)\\)\\s*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+	private static final int MAX_ROWS_PER_STATEMENT = 1000;
+	private final List<Object[]> paramList = new ArrayList<Object[]>();
+	private String sql = null;
+	private DB db = null;
+	private Object caller = null;
+	private PreparedStatement pstmt = null;
+
+	public static BulkInsertStatement create(String sql, DB db, Object caller) {
+		return new BulkInsertStatement(sql, db, caller);
+	}
+
+	private BulkInsertStatement(String sql, DB db, Object caller) {
+		this.sql = sql;
+		this.db = db;
+		this.caller = caller;
+	}
+
+	public void addBatch(Object[] values) {
+		if (values == null) {
+			return;
+		}
+		paramList.add(values.clone());
+	}
+
+	@Override
+	public void close() {
+		try {
+			if (pstmt != null) {
+				pstmt.close();
+				pstmt = null;
+			}
+			clearParamList();
+		} catch (SQLException e) {
+			logger.error("", e);
+			throw new RuntimeException(e);
+		}
+	}
+
+	public void clearParamList() {
+		paramList.clear();
+	}
+
+	/**
+	 * 추가된 행을 일괄 등록한다.
+	 * @return 행별 처리건수 배열 (건수를 알 수 없는 경우 java.sql.Statement.SUCCESS_NO_INFO)
+	 */
+	public int[] executeBatch() {
+		if (getSQL() == null) {
+			logger.error("Query is Null");
+			return new int[] { 0 };
+		}
+		if (paramList.isEmpty()) {
+			return new int[0];
+		}
+		Matcher matcher = INSERT_PATTERN.matcher(getSQL());
+		try {
+			Connection conn = db.getConnection();
+			String product = conn.getMetaData().getDatabaseProductName().toLowerCase();
+			if (!matcher.matches() || product.contains("oracle") || !isPlainValues(matcher.group(3))) {
+				return executeArrayBatch();
+			}
+			String table = matcher.group(1);
+			String columns = matcher.group(2);
+			String values = matcher.group(3);
+			int paramCount = countParams(values);
+			if (product.contains("postgres")) {
+				return executeCopy(conn, table, columns);
+			}
+			int maxParams;
+			if (product.contains("microsoft") || product.contains("sql server")) {
+				maxParams = 2099;
+			} else if (product.contains("mysql") || product.contains("mariadb")) {
+				maxParams = 65535;
+			} else if (product.contains("postgres")) {
+				maxParams = 32767;
+			} else {
+				return executeArrayBatch();
+			}
+			int rowsPerStatement = paramCount == 0 ? MAX_ROWS_PER_STATEMENT : Math.max(1, Math.min(MAX_ROWS_PER_STATEMENT, maxParams / paramCount));
+			return executeMultiRow(conn, table, columns, values, rowsPerStatement);
+		} catch (SQLException e) {
+			logger.error("", e);
+			throw new RuntimeException(e.getMessage() + "\nSQL : " + getSQL(), e);
+		}
+	}
+
+	public void setSQL(String newSql) {
+		close();
+		sql = newSql;
+	}
+
+	public String getSQL() {
+		return sql;
+	}
+
+	public int size() {
+		return paramList.size();
+	}
+
+	@Override
+	public String toString() {
+		return "SQL : " + getSQL();
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////Private 메소드
+
+	/*
+	 * 드라이버 배치(배열 바인딩)로 처리
+	 */
+	private int[] executeArrayBatch() throws SQLException {
+		if (logger.isDebugEnabled()) {
+			logger.debug("@Sql Start (BULK ARRAY) Rows : " + paramList.size() + " Caller : " + caller.getClass().getName() + "\n@Sql Command : \n" + getSQL());
+		}
+		pstmt = db.getConnection().prepareStatement(getSQL());
+		for (Object[] params : paramList) {
+			for (int i = 0; i < params.length; i++) {
+				setParam(pstmt, i + 1, params[i]);
+			}
+			pstmt.addBatch();
+		}
+		applyDeadline(pstmt);
+		int[] upCnts = pstmt.executeBatch();
+		pstmt.close();
+		pstmt = null;
+		if (logger.isDebugEnabled()) {
+			logger.debug("@Sql End (BULK ARRAY)");
+		}
+		return upCnts;
+	}
+
+	/*
+	 * 다중행 INSERT ... VALUES (...),(...) 로 처리
+	 */
+	private int[] executeMultiRow(Connection conn, String table, String columns, String values, int rowsPerStatement) throws SQLException {
+		if (logger.isDebugEnabled()) {
+			logger.debug("@Sql Start (BULK MULTI-ROW) Rows : " + paramList.size() + ", Rows/Statement : " + rowsPerStatement + " Caller : " + caller.getClass().getName() + "\n@Sql Command : \n" + getSQL());
+		}
+		int[] upCnts = new int[paramList.size()];
+		int fullRows = -1;
+		for (int start = 0; start < paramList.size(); start += rowsPerStatement) {
+			int rows = Math.min(rowsPerStatement, paramList.size() - start);
+			if (pstmt == null || rows != fullRows) {
+				if (pstmt != null) {
+					pstmt.close();
+				}
+				pstmt = conn.prepareStatement(getMultiRowSql(table, columns, values, rows));
+				fullRows = rows;
+			}
+			int idx = 1;
+			for (int r = start; r < start + rows; r++) {
+				for (Object param : paramList.get(r)) {
+					setParam(pstmt, idx++, param);
+				}
+			}
+			applyDeadline(pstmt);
+			int cnt = pstmt.executeUpdate();
+			for (int r = start; r < start + rows; r++) {
+				upCnts[r] = (cnt == rows) ? 1 : java.sql.Statement.SUCCESS_NO_INFO;
+			}
+		}
+		pstmt.close();
+		pstmt = null;
+		if (logger.isDebugEnabled()) {
+			logger.debug("@Sql End (BULK MULTI-ROW)");
+		}
+		return upCnts;
+	}
+
+	/*
+	 * PostgreSQL COPY FROM STDIN 으로 처리
+	 */
+	private int[] executeCopy(Connection conn, String table, String columns) throws SQLException {
+		String copySql = "COPY " + table + " (" + columns.trim() + ") FROM STDIN WITH (FORMAT csv)";
+		if (logger.isDebugEnabled()) {
+			logger.debug("@Sql Start (BULK COPY) Rows : " + paramList.size() + " Caller : " + caller.getClass().getName() + "\n@Sql Command : \n" + copySql);
+		}
+		DeadlineUtil.check();
+		long cnt = PgCopy.copyIn(conn, copySql, paramList);
+		int[] upCnts = new int[paramList.size()];
+		for (int i = 0; i < upCnts.length; i++) {
+			upCnts[i] = (cnt == upCnts.length) ? 1 : java.sql.Statement.SUCCESS_NO_INFO;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("@Sql End (BULK COPY)");
+		}
+		return upCnts;
+	}
+
+	private String getMultiRowSql(String table, String columns, String values, int rows) {
+		StringBuilder buf = new StringBuilder();
+		buf.append("INSERT INTO ").append(table).append(" (").append(columns.trim()).append(") VALUES ");
+		for (int i = 0; i < rows; i++) {
+			if (i > 0) {
+				buf.append(",");
+			}
+			buf.append("(").append(values.trim()).append(")");
+		}
+		return buf.toString();
+	}
+
+	private int countParams(String values) {
+		int cnt = 0;
+		for (int i = 0; i < values.length(); i++) {
+			if (values.charAt(i) == '?') {
+				cnt++;
+			}
+		}
+		return cnt;
+	}
+
+	/*
+	 * VALUES 절이 모두 바인딩 변수(?)로만 이루어져 있는지 여부
+	 */
+	private boolean isPlainValues(String values) {
+		for (String value : values.split(",")) {
+			if (!"?".equals(value.trim())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void setParam(PreparedStatement pstmt, int i, Object param) throws SQLException {
+		if (param == null) {
+			pstmt.setNull(i, java.sql.Types.OTHER);
+		} else if (param instanceof CharSequence) {
+			pstmt.setString(i, param.toString());
+		} else if (param instanceof byte[]) {
+			int size = ((byte[]) param).length;
+			if (size > 0) {
+				InputStream is = new ByteArrayInputStream((byte[]) param);
+				pstmt.setBinaryStream(i, is, size);
+			} else {
+				pstmt.setBinaryStream(i, null, 0);
+			}
+		} else if (param instanceof java.util.Date) {
+			java.util.Date d = (java.util.Date) param;
+			pstmt.setObject(i, new java.sql.Timestamp(d.getTime()));
+		} else {
+			pstmt.setObject(i, param);
+		}
+	}
+
+	/*
+	 * PostgreSQL 드라이버가 없는 환경에서도 클래스가 로딩될 수 있도록 분리
+	 */
+	private static final class PgCopy {
+		private static final int FLUSH_SIZE = 64 * 1024;
+
+		static long copyIn(Connection conn, String copySql, List<Object[]> paramList) throws SQLException {
+			org.postgresql.copy.CopyManager copyManager = conn.unwrap(org.postgresql.PGConnection.class).getCopyAPI();
+			org.postgresql.copy.CopyIn copyIn = copyManager.copyIn(copySql);
+			try {
+				StringBuilder buf = new StringBuilder(FLUSH_SIZE + 1024);
+				for (Object[] params : paramList) {
+					for (int i = 0; i < params.length; i++) {
+						if (i > 0) {
+							buf.append(',');
+						}
+						appendCsv(buf, params[i]);
+					}
+					buf.append('\n');
+					if (buf.length() >= FLUSH_SIZE) {
+						write(copyIn, buf);
+					}
+				}
+				write(copyIn, buf);
+				return copyIn.endCopy();
+			} finally {
+				if (copyIn.isActive()) {
+					copyIn.cancelCopy();
+				}
+			}
+		}
+
+		private static void write(org.postgresql.copy.CopyIn copyIn, StringBuilder buf) throws SQLException {
+			if (buf.length() > 0) {
+				byte[] bytes = buf.toString().getBytes(StandardCharsets.UTF_8);
+				copyIn.writeToCopy(bytes, 0, bytes.length);
+				buf.setLength(0);
+			}
+		}
+
+		private static void appendCsv(StringBuilder buf, Object value) {
+			if (value == null) {
+				return;
+			}
+			String str;
+			if (value instanceof byte[]) {
+				StringBuilder hex = new StringBuilder("\\x");
+				for (byte b : (byte[]) value) {
+					hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+				}
+				str = hex.toString();
+			} else if (value instanceof java.util.Date) {
+				str = new java.sql.Timestamp(((java.util.Date) value).getTime()).toString();
+			} else {
+				str = value.toString();
+			}
+			buf.append('"');
+			for (int i = 0; i < str.length(); i++) {
+				char c = str.charAt(i);
+				if (c == '"') {
+					buf.append('"');
+				}
+				buf.append(c);
+			}
+			buf.append('"');
+		}
+	}
+}
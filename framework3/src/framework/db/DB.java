@@ -5,9 +5,14 @@ import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import javax.naming.InitialContext;
 import javax.sql.DataSource;
@@ -16,47 +21,34 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import framework.config.Config;
+import framework.util.DeadlineUtil;
 
 /**
  * DB 컨넥션을 관리하는 클래스
  */
 public class DB {
 	private static final Log logger = LogFactory.getLog(DB.class);
-	private static final Map<String, DataSource> dsMap = new HashMap<String, DataSource>();
+	private static final Map<String, DataSource> dsMap = new ConcurrentHashMap<String, DataSource>();
+	private static final Map<String, Semaphore> limiterMap = new ConcurrentHashMap<String, Semaphore>();
 	private final List<AbstractStatement> stmtList = new ArrayList<AbstractStatement>();
+	private final Set<String> dirtyTables = new HashSet<String>();
 	private String serviceName = null;
 	private Object caller = null;
 	private Connection connection = null;
+	private Boolean autoCommit = null;
+	private Semaphore permit = null;
 	// Mybatis
 	private MybatisDB mybatisDB = null;
 
+	/**
+	 * DB 객체를 생성한다.
+	 * 컨넥션은 생성 시점이 아닌 첫번째 문장을 실행할 때 획득한다.
+	 * @param serviceName 서비스명(업무명)
+	 * @param caller 호출한 객체
+	 */
 	public DB(String serviceName, Object caller) {
 		this.serviceName = serviceName;
 		this.caller = caller;
-		Config config = Config.getInstance();
-		try {
-			String jndiName = config.getString("db." + serviceName + ".jndiName");
-			if (!dsMap.containsKey(jndiName)) {
-				InitialContext ctx = new InitialContext();
-				DataSource ds = (DataSource) ctx.lookup(jndiName);
-				dsMap.put(jndiName, ds);
-			}
-			setConnection(dsMap.get(jndiName).getConnection());
-		} catch (Throwable e) {
-			String driver = config.getString("db." + serviceName + ".driver");
-			String url = config.getString("db." + serviceName + ".url");
-			String username = config.getString("db." + serviceName + ".username");
-			String password = config.getString("db." + serviceName + ".password");
-			try {
-				DriverManager.registerDriver((Driver) Class.forName(driver).newInstance());
-				setConnection(DriverManager.getConnection(url, username, password));
-			} catch (Throwable e2) {
-				throw new RuntimeException(e2);
-			}
-		}
-		if (logger.isDebugEnabled()) {
-			logger.debug("DB연결 성공! : " + serviceName);
-		}
 	}
 
 	public PreparedStatement createPrepareStatement(String sql) {
@@ -71,6 +63,12 @@ public class DB {
 		return pstmt;
 	}
 
+	public BulkInsertStatement createBulkInsertStatement(String sql) {
+		BulkInsertStatement bstmt = BulkInsertStatement.create(sql, this, caller);
+		stmtList.add(bstmt);
+		return bstmt;
+	}
+
 	public Statement createStatement(String sql) {
 		Statement stmt = Statement.create(sql, this, caller);
 		stmtList.add(stmt);
@@ -87,10 +85,25 @@ public class DB {
 		connection = conn;
 	}
 
+	/**
+	 * 컨넥션을 리턴한다. 컨넥션을 아직 획득하지 않았으면 이 시점에 획득한다.
+	 * @return 컨넥션
+	 */
 	public Connection getConnection() {
+		if (connection == null) {
+			acquire();
+		}
 		return connection;
 	}
 
+	/**
+	 * 컨넥션을 획득했는지 여부를 리턴한다.
+	 * @return 컨넥션 획득 여부
+	 */
+	public boolean isConnected() {
+		return connection != null;
+	}
+
 	public void release() {
 		for (AbstractStatement stmt : stmtList) {
 			try {
@@ -99,8 +112,10 @@ public class DB {
 				logger.error("", e);
 			}
 		}
+		stmtList.clear();
 		if (mybatisDB != null) {
 			mybatisDB.clearCache();
+			mybatisDB = null;
 		}
 		if (connection != null) {
 			try {
@@ -113,6 +128,9 @@ public class DB {
 			} catch (Throwable e) {
 				logger.error("", e);
 			}
+			connection = null;
+			invalidateDirtyTables();
+			releasePermit();
 			if (logger.isDebugEnabled()) {
 				logger.debug("DB연결 종료! : " + serviceName);
 			}
@@ -124,22 +142,35 @@ public class DB {
 	}
 
 	public void commit() {
+		if (connection == null) {
+			return;
+		}
 		try {
 			connection.commit();
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
 		}
+		invalidateDirtyTables();
 	}
 
 	public void rollback() {
+		if (connection == null) {
+			return;
+		}
 		try {
 			connection.rollback();
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
+		} finally {
+			invalidateDirtyTables();
 		}
 	}
 
 	public void setAutoCommit(boolean isAuto) {
+		autoCommit = Boolean.valueOf(isAuto);
+		if (connection == null) {
+			return;
+		}
 		try {
 			connection.setAutoCommit(isAuto);
 		} catch (SQLException e) {
@@ -151,10 +182,140 @@ public class DB {
 		return serviceName;
 	}
 
+	/*
+	 * 커밋 시점에 쿼리캐시를 무효화할 테이블 목록에 추가
+	 */
+	void addDirtyTables(Collection<String> tables) {
+		dirtyTables.addAll(tables);
+	}
+
+	/*
+	 * 커밋되지 않은 쓰기가 발생한 테이블인지 여부
+	 */
+	boolean isDirty(String table) {
+		return dirtyTables.contains(table);
+	}
+
+	/*
+	 * 자동커밋이 꺼진 컨넥션으로 트랜잭션을 진행중인지 여부
+	 */
+	boolean inTransaction() {
+		if (connection == null) {
+			return false;
+		}
+		try {
+			return !connection.getAutoCommit();
+		} catch (SQLException e) {
+			return true;
+		}
+	}
+
 	public MybatisDB getMybatisDB() {
 		if (mybatisDB == null) {
-			mybatisDB = new MybatisDB(connection);
+			mybatisDB = new MybatisDB(getConnection());
 		}
 		return mybatisDB;
 	}
-}
\ No newline at end of file
+
+	//////////////////////////////////////////////////////////////////////////////////////////Private 메소드
+
+	/*
+	 * 컨넥션 획득, JNDI 데이타소스가 없으면 연결정보를 바탕으로 컨넥션을 생성한다.
+	 */
+	private void acquire() {
+		acquirePermit();
+		try {
+			connect();
+		} catch (RuntimeException e) {
+			releasePermit();
+			throw e;
+		}
+	}
+
+	private void connect() {
+		Config config = Config.getInstance();
+		try {
+			String jndiName = config.getString("db." + serviceName + ".jndiName");
+			DataSource ds = dsMap.get(jndiName);
+			if (ds == null) {
+				InitialContext ctx = new InitialContext();
+				ds = (DataSource) ctx.lookup(jndiName);
+				dsMap.put(jndiName, ds);
+			}
+			setConnection(ds.getConnection());
+		} catch (Throwable e) {
+			String driver = config.getString("db." + serviceName + ".driver");
+			String url = config.getString("db." + serviceName + ".url");
+			String username = config.getString("db." + serviceName + ".username");
+			String password = config.getString("db." + serviceName + ".password");
+			try {
+				DriverManager.registerDriver((Driver) Class.forName(driver).newInstance());
+				setConnection(DriverManager.getConnection(url, username, password));
+			} catch (Throwable e2) {
+				throw new RuntimeException(e2);
+			}
+		}
+		if (autoCommit != null) {
+			try {
+				connection.setAutoCommit(autoCommit.booleanValue());
+			} catch (SQLException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("DB연결 성공! : " + serviceName);
+		}
+	}
+
+	/*
+	 * 서비스별 동시 컨넥션 사용 한도, application.properties 의 db.서비스명.maxConcurrency 값을 사용하며 설정이 없으면 제한하지 않는다.
+	 * 가상 쓰레드 디스패치 모드에서 컨넥션풀이 감당할 수 있는 수 이상으로 컨넥션을 요청하지 않도록 한다.
+	 */
+	private void acquirePermit() {
+		Semaphore limiter = limiterMap.get(serviceName);
+		if (limiter == null) {
+			int limit = 0;
+			try {
+				limit = Config.getInstance().getInt("db." + serviceName + ".maxConcurrency", 0);
+			} catch (Throwable e) {
+				logger.error("", e);
+			}
+			Semaphore newLimiter = new Semaphore(limit > 0 ? limit : Integer.MAX_VALUE);
+			limiter = limiterMap.putIfAbsent(serviceName, newLimiter);
+			if (limiter == null) {
+				limiter = newLimiter;
+			}
+		}
+		try {
+			if (DeadlineUtil.isActive()) {
+				if (!limiter.tryAcquire(Math.max(0, DeadlineUtil.remainingMillis()), TimeUnit.MILLISECONDS)) {
+					throw new DeadlineUtil.DeadlineExceededException("DB 컨넥션 대기시간이 처리 기한을 초과하였습니다. : " + serviceName);
+				}
+			} else {
+				limiter.acquire();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		permit = limiter;
+	}
+
+	/*
+	 * 트랜잭션이 끝나면(커밋, 롤백, 종료) 트랜잭션 중에 쓰기가 발생한 테이블의 쿼리캐시를 무효화한다.
+	 * 트랜잭션 중에 캐시된 결과가 커밋되지 않은 행을 담고 있을 수 있기 때문이다.
+	 */
+	private void invalidateDirtyTables() {
+		if (!dirtyTables.isEmpty()) {
+			QueryCache.invalidate(dirtyTables);
+			dirtyTables.clear();
+		}
+	}
+
+	private void releasePermit() {
+		if (permit != null) {
+			permit.release();
+			permit = null;
+		}
+	}
+}
@@ -1,5 +1,8 @@
 package framework.db;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
@@ -42,6 +45,68 @@ public class JdbcDaoSupport {
 		}
 	}
 
+	/**
+	 * 조회 결과를 쿼리캐시(QueryCache)를 이용하여 조회한다.
+	 * 쿼리에서 추출한 테이블에 update, batch, AbstractOrmDao 로 쓰기가 발생하면 캐시가 무효화된다.
+	 * 쿼리캐시를 사용하지 않도록 설정되어 있으면 바로 조회한다.
+	 * @param query 쿼리문
+	 * @param where 바인딩 파라미터
+	 * @param seconds 캐시시간(초단위)
+	 * @return 조회 결과
+	 */
+	protected RecordSet selectCache(String query, Object[] where, int seconds) {
+		return selectCache(query, where, 0, 0, seconds, null);
+	}
+
+	/**
+	 * 조회 결과를 쿼리캐시(QueryCache)를 이용하여 조회한다.
+	 * @param query 쿼리문
+	 * @param where 바인딩 파라미터
+	 * @param currPage 현재 페이지
+	 * @param pageSize 페이지 크기
+	 * @param seconds 캐시시간(초단위)
+	 * @return 조회 결과
+	 */
+	protected RecordSet selectCache(String query, Object[] where, int currPage, int pageSize, int seconds) {
+		return selectCache(query, where, currPage, pageSize, seconds, null);
+	}
+
+	/**
+	 * 조회 결과를 쿼리캐시(QueryCache)를 이용하여 조회한다.
+	 * 뷰나 함수처럼 쿼리에서 테이블을 추출할 수 없는 경우 무효화 기준이 되는 테이블을 직접 지정한다.
+	 * 현재 트랜잭션에서 쓰기가 발생한 테이블을 참조하면 커밋 전까지 캐시를 거치지 않고 조회한다.
+	 * @param query 쿼리문
+	 * @param where 바인딩 파라미터
+	 * @param currPage 현재 페이지
+	 * @param pageSize 페이지 크기
+	 * @param seconds 캐시시간(초단위)
+	 * @param tables 무효화 기준 테이블 목록, null 이면 쿼리에서 추출한다.
+	 * @return 조회 결과
+	 */
+	protected RecordSet selectCache(String query, Object[] where, int currPage, int pageSize, int seconds, String[] tables) {
+		if (!QueryCache.isEnabled()) {
+			return select(query, where, currPage, pageSize);
+		}
+		Collection<String> tableList = (tables == null) ? QueryCache.getTables(query) : Arrays.asList(tables);
+		if (QueryCache.isDirty(this.db, tableList)) {
+			return select(query, where, currPage, pageSize);
+		}
+		RecordSet rs = QueryCache.get(query, where, currPage, pageSize, tableList);
+		if (rs == null) {
+			rs = select(query, where, currPage, pageSize);
+			QueryCache.set(query, where, currPage, pageSize, tableList, rs, seconds);
+		}
+		return rs;
+	}
+
+	/**
+	 * 테이블을 참조하는 쿼리캐시를 무효화한다.
+	 * @param tables 테이블 목록
+	 */
+	protected void invalidateCache(String... tables) {
+		QueryCache.invalidate(tables);
+	}
+
 	protected int update(String query) {
 		return update(query, null);
 	}
@@ -96,7 +161,9 @@ public class JdbcDaoSupport {
 		try {
 			pstmt = this.db.createPrepareStatement(query);
 			pstmt.set(where);
-			return pstmt.executeUpdate();
+			int result = pstmt.executeUpdate();
+			QueryCache.invalidate(this.db, query);
+			return result;
 		} finally {
 			if (pstmt != null) {
 				pstmt.close();
@@ -108,7 +175,9 @@ public class JdbcDaoSupport {
 		Statement stmt = null;
 		try {
 			stmt = this.db.createStatement(query);
-			return stmt.executeUpdate();
+			int result = stmt.executeUpdate();
+			QueryCache.invalidate(this.db, query);
+			return result;
 		} finally {
 			if (stmt != null) {
 				stmt.close();
@@ -121,7 +190,9 @@ public class JdbcDaoSupport {
 		try {
 			pstmt = this.db.createBatchPrepareStatement(query);
 			pstmt.addBatch(where);
-			return pstmt.executeBatch();
+			int[] result = pstmt.executeBatch();
+			QueryCache.invalidate(this.db, query);
+			return result;
 		} finally {
 			if (pstmt != null) {
 				pstmt.close();
@@ -136,7 +207,11 @@ public class JdbcDaoSupport {
 			for (String query : queries) {
 				stmt.addBatch(query);
 			}
-			return stmt.executeBatch();
+			int[] result = stmt.executeBatch();
+			for (String query : queries) {
+				QueryCache.invalidate(this.db, query);
+			}
+			return result;
 		} finally {
 			if (stmt != null) {
 				stmt.close();
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.Reader;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -17,7 +18,9 @@ import org.apache.ibatis.session.SqlSessionFactoryBuilder;
  */
 public class MybatisDB {
 	private static final Log logger = LogFactory.getLog(MybatisDB.class);
-	private static SqlSessionFactory sqlSessionFactory = null;
+	private static final String CONFIG_RESOURCE = "mybatis-config.xml";
+	private static volatile SqlSessionFactory sqlSessionFactory = null;
+	private static final ReentrantLock factoryLock = new ReentrantLock();
 	private SqlSession sqlSession = null;
 
 	public MybatisDB(Connection connection) {
@@ -48,24 +51,57 @@ public class MybatisDB {
 		sqlSession.clearCache();
 	}
 
-	private synchronized SqlSessionFactory getSqlSessionFactory() {
-		if (sqlSessionFactory == null) {
-			Reader reader = null;
-			try {
-				reader = Resources.getResourceAsReader("mybatis-config.xml");
-				sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
-			} catch (Throwable e) {
-				throw new RuntimeException("Something bad happened while building the SqlSessionFactory instance.", e);
-			} finally {
-				if (reader != null) {
-					try {
-						reader.close();
-					} catch (IOException e) {
-						logger.error("", e);
-					}
+	/**
+	 * 클래스패스의 mybatis-config.xml 로 SqlSessionFactory 를 생성한다.
+	 * 서버 부팅시 DispatcherServlet 에서 호출되며, 설정파일이 없거나 생성에 실패하면 첫 사용시 다시 생성을 시도한다.
+	 */
+	public static void init() {
+		if (MybatisDB.class.getClassLoader().getResource(CONFIG_RESOURCE) == null && Thread.currentThread().getContextClassLoader().getResource(CONFIG_RESOURCE) == null) {
+			logger.info(CONFIG_RESOURCE + " 파일을 찾을 수 없어 Mybatis 를 초기화하지 않습니다.");
+			return;
+		}
+		try {
+			getSqlSessionFactory();
+			logger.info("Mybatis SqlSessionFactory 를 생성하였습니다.");
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+	}
+
+	private static SqlSessionFactory getSqlSessionFactory() {
+		SqlSessionFactory factory = sqlSessionFactory;
+		if (factory != null) {
+			return factory;
+		}
+		factoryLock.lock();
+		try {
+			if (sqlSessionFactory == null) {
+				sqlSessionFactory = buildSqlSessionFactory();
+			}
+			return sqlSessionFactory;
+		} finally {
+			factoryLock.unlock();
+		}
+	}
+
+	private static SqlSessionFactory buildSqlSessionFactory() {
+		Reader reader = null;
+		try {
+			reader = Resources.getResourceAsReader(CONFIG_RESOURCE);
+			SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(reader);
+			factory.getConfiguration().addInterceptor(new MybatisDeadlinePlugin());
+			factory.getConfiguration().addInterceptor(new MybatisFetchSizePlugin());
+			return factory;
+		} catch (Throwable e) {
+			throw new RuntimeException("Something bad happened while building the SqlSessionFactory instance.", e);
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+					logger.error("", e);
 				}
 			}
 		}
-		return sqlSessionFactory;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package framework.db;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+
+import framework.util.DeadlineUtil;
+
+/**
+ * 요청 처리 기한을 Mybatis 문장의 쿼리 타임아웃으로 전달하는 Mybatis 플러그인 클래스
+ * MybatisDB 에서 SqlSessionFactory 생성시 자동으로 등록된다.
+ */
+@Intercepts({ @Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class }) })
+public class MybatisDeadlinePlugin implements Interceptor {
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		Object statement = invocation.proceed();
+		if (statement instanceof Statement) {
+			DeadlineUtil.apply((Statement) statement);
+		}
+		return statement;
+	}
+
+	@Override
+	public Object plugin(Object target) {
+		if (target instanceof StatementHandler) {
+			return Plugin.wrap(target, this);
+		}
+		return target;
+	}
+
+	@Override
+	public void setProperties(Properties properties) {
+	}
+}
@@ -0,0 +1,51 @@
+package framework.db;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Properties;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * 스트리밍 조회시 지정한 fetch size 를 Mybatis 문장에 설정하는 Mybatis 플러그인 클래스
+ * MybatisDB 에서 SqlSessionFactory 생성시 자동으로 등록된다.
+ */
+@Intercepts({ @Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class }) })
+public class MybatisFetchSizePlugin implements Interceptor {
+	private static final ThreadLocal<Integer> fetchSize = new ThreadLocal<Integer>();
+
+	static void setFetchSize(int size) {
+		fetchSize.set(Integer.valueOf(size));
+	}
+
+	static void clearFetchSize() {
+		fetchSize.remove();
+	}
+
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		Object statement = invocation.proceed();
+		Integer size = fetchSize.get();
+		if (size != null && statement instanceof Statement) {
+			((Statement) statement).setFetchSize(size.intValue());
+		}
+		return statement;
+	}
+
+	@Override
+	public Object plugin(Object target) {
+		if (target instanceof StatementHandler) {
+			return Plugin.wrap(target, this);
+		}
+		return target;
+	}
+
+	@Override
+	public void setProperties(Properties properties) {
+	}
+}
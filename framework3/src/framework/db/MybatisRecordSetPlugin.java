@@ -10,6 +10,8 @@ import org.apache.ibatis.plugin.Intercepts;
 import org.apache.ibatis.plugin.Invocation;
 import org.apache.ibatis.plugin.Plugin;
 import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.SystemMetaObject;
 
 /**
  * ResultSet을 RecordSet으로  변환하는  Mybatis 플러그인 클래스
@@ -18,6 +20,10 @@ import org.apache.ibatis.plugin.Signature;
 public class MybatisRecordSetPlugin implements Interceptor {
 	@Override
 	public Object intercept(Invocation invocation) throws Throwable {
+		// ResultHandler 를 지정한 스트리밍 조회는 한 행씩 처리되도록 변환하지 않는다.
+		if (hasResultHandler(invocation.getTarget())) {
+			return invocation.proceed();
+		}
 		Object[] args = invocation.getArgs();
 		Statement statement = (Statement) args[0];
 		RecordSet rs = new RecordSet(statement.getResultSet());
@@ -32,4 +38,12 @@ public class MybatisRecordSetPlugin implements Interceptor {
 	@Override
 	public void setProperties(Properties properties) {
 	}
+
+	private boolean hasResultHandler(Object target) {
+		try {
+			return SystemMetaObject.forObject(target).getValue("resultHandler") != null;
+		} catch (ReflectionException e) {
+			return false;
+		}
+	}
 }
\ No newline at end of file
@@ -78,6 +78,7 @@ public final class PreparedStatement extends AbstractStatement {
 				log.append("@Sql Command : \n" + getQueryString());
 				logger.debug(log.toString());
 			}
+			applyDeadline(pstmt);
 			rs = new RecordSet(pstmt.executeQuery(), currPage, pageSize);
 			if (logger.isDebugEnabled()) {
 				logger.debug("@Sql End (P_STATEMENT)");
@@ -135,6 +136,7 @@ public final class PreparedStatement extends AbstractStatement {
 				log.append("@Sql Command : \n" + getQueryString());
 				logger.debug(log.toString());
 			}
+			applyDeadline(pstmt);
 			upCnt = pstmt.executeUpdate();
 			if (logger.isDebugEnabled()) {
 				logger.debug("@Sql End (P_STATEMENT)");
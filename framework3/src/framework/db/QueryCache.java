@@ -0,0 +1,240 @@
+package framework.db;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import framework.cache.Cache;
+import framework.config.Config;
+import framework.util.CryptUtil;
+
+/**
+ * 조회 결과 캐시 클래스
+ * SQL과 바인딩 파라미터를 키로 조회 결과(RecordSet)를 framework.cache.Cache 에 저장한다.
+ * 테이블마다 버전 토큰을 두어 캐시키에 포함시키고, 테이블에 쓰기가 발생하면 버전 토큰을 바꾸어 해당 테이블을 참조하는 캐시를 무효화한다.
+ * application.properties 의 querycache.enabled=true 로 설정해야 동작한다.
+ */
+public final class QueryCache {
+	private static final Log logger = LogFactory.getLog(QueryCache.class);
+	private static final String KEY_PREFIX = "framework.querycache.";
+	private static final String VERSION_PREFIX = "framework.querycache.version.";
+	private static final Pattern TABLE_PATTERN = Pattern.compile("\\b(?:FROM|JOIN|UPDATE|INTO)\\s+([A-Za-z_][\\w$#.\"]*)", Pattern.CASE_INSENSITIVE);
+	private static final Pattern FROM_LIST_PATTERN = Pattern.compile("\\bFROM\\s+([\\w$#.\"]+(?:\\s+(?:AS\\s+)?\\w+)?(?:\\s*,\\s*[\\w$#.\"]+(?:\\s+(?:AS\\s+)?\\w+)?)+)", Pattern.CASE_INSENSITIVE);
+	private static Boolean enabled = null;
+
+	/**
+	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
+	 */
+	private QueryCache() {
+	}
+
+	/**
+	 * 쿼리캐시 사용여부를 리턴한다.
+	 * @return 사용여부
+	 */
+	public static boolean isEnabled() {
+		if (enabled == null) {
+			try {
+				enabled = Config.getInstance().getBoolean("querycache.enabled", Boolean.FALSE);
+			} catch (Throwable e) {
+				enabled = Boolean.FALSE;
+			}
+		}
+		return enabled.booleanValue() && Cache.cache != null;
+	}
+
+	/**
+	 * 캐시에서 조회 결과를 얻어온다.
+	 * @param query 쿼리문
+	 * @param where 바인딩 파라미터
+	 * @param currPage 현재 페이지
+	 * @param pageSize 페이지 크기
+	 * @param tables 참조 테이블 목록
+	 * @return 조회 결과, 캐시에 없으면 null
+	 */
+	public static RecordSet get(String query, Object[] where, int currPage, int pageSize, Collection<String> tables) {
+		if (!isEnabled()) {
+			return null;
+		}
+		try {
+			Object value = Cache.get(getKey(query, where, currPage, pageSize, tables));
+			if (value instanceof byte[]) {
+				return deserialize((byte[]) value);
+			}
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+		return null;
+	}
+
+	/**
+	 * 조회 결과를 캐시에 저장한다.
+	 * @param query 쿼리문
+	 * @param where 바인딩 파라미터
+	 * @param currPage 현재 페이지
+	 * @param pageSize 페이지 크기
+	 * @param tables 참조 테이블 목록
+	 * @param rs 조회 결과
+	 * @param seconds 캐시시간(초단위)
+	 */
+	public static void set(String query, Object[] where, int currPage, int pageSize, Collection<String> tables, RecordSet rs, int seconds) {
+		if (!isEnabled() || rs == null) {
+			return;
+		}
+		try {
+			Cache.set(getKey(query, where, currPage, pageSize, tables), serialize(rs), seconds);
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+	}
+
+	/**
+	 * 테이블을 참조하는 모든 캐시를 무효화한다.
+	 * @param tables 테이블 목록
+	 */
+	public static void invalidate(String... tables) {
+		if (tables != null) {
+			invalidate(Arrays.asList(tables));
+		}
+	}
+
+	/**
+	 * 테이블을 참조하는 모든 캐시를 무효화한다.
+	 * @param tables 테이블 목록
+	 */
+	public static void invalidate(Collection<String> tables) {
+		if (!isEnabled() || tables == null) {
+			return;
+		}
+		for (String table : tables) {
+			try {
+				Cache.set(VERSION_PREFIX + normalize(table), newVersion());
+			} catch (Throwable e) {
+				logger.error("", e);
+			}
+		}
+	}
+
+	/**
+	 * 쿼리문에서 참조하는 테이블 목록을 추출한다.
+	 * @param query 쿼리문
+	 * @return 테이블 목록(소문자, 스키마 제외)
+	 */
+	public static Set<String> getTables(String query) {
+		Set<String> tables = new LinkedHashSet<String>();
+		if (query == null) {
+			return tables;
+		}
+		Matcher matcher = TABLE_PATTERN.matcher(query);
+		while (matcher.find()) {
+			tables.add(normalize(matcher.group(1)));
+		}
+		Matcher listMatcher = FROM_LIST_PATTERN.matcher(query);
+		while (listMatcher.find()) {
+			for (String item : listMatcher.group(1).split(",")) {
+				tables.add(normalize(item.trim().split("\\s+")[0]));
+			}
+		}
+		return tables;
+	}
+
+	/*
+	 * 쓰기 쿼리 실행 후 참조 테이블의 캐시를 무효화하고, 트랜잭션 중이면 커밋이나 롤백 시점에 한번 더 무효화하도록 DB 객체에 기록한다.
+	 */
+	static void invalidate(DB db, String query) {
+		if (!isEnabled()) {
+			return;
+		}
+		Set<String> tables = getTables(query);
+		invalidate(tables);
+		if (db != null && db.inTransaction()) {
+			db.addDirtyTables(tables);
+		}
+	}
+
+	/*
+	 * 트랜잭션에서 아직 커밋되지 않은 쓰기가 발생한 테이블을 참조하는지 여부, 참조하면 캐시를 조회하거나 저장하지 않는다.
+	 */
+	static boolean isDirty(DB db, Collection<String> tables) {
+		if (db == null || tables == null) {
+			return false;
+		}
+		for (String table : tables) {
+			if (db.isDirty(normalize(table))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////Private 메소드
+
+	private static String getKey(String query, Object[] where, int currPage, int pageSize, Collection<String> tables) {
+		StringBuilder buf = new StringBuilder();
+		buf.append(query).append('\n').append(Arrays.deepToString(where)).append('\n').append(currPage).append(',').append(pageSize);
+		if (tables != null && !tables.isEmpty()) {
+			String[] versionKeys = new String[tables.size()];
+			int i = 0;
+			for (String table : tables) {
+				versionKeys[i++] = VERSION_PREFIX + normalize(table);
+			}
+			Map<String, Object> versions = Cache.get(versionKeys);
+			for (String versionKey : versionKeys) {
+				Object version = versions == null ? null : versions.get(versionKey);
+				if (version == null) {
+					version = newVersion();
+					Cache.set(versionKey, version);
+				}
+				buf.append('\n').append(version);
+			}
+		}
+		return KEY_PREFIX + CryptUtil.hashSHA1HexString(buf.toString());
+	}
+
+	/*
+	 * 로컬 캐시(EhCache)에서도 조회할 때마다 독립된 RecordSet 객체를 얻을 수 있도록 직렬화하여 저장
+	 */
+	private static byte[] serialize(RecordSet rs) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bos);
+		try {
+			oos.writeObject(rs);
+		} finally {
+			oos.close();
+		}
+		return bos.toByteArray();
+	}
+
+	private static RecordSet deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		try {
+			RecordSet rs = (RecordSet) ois.readObject();
+			rs.moveRow(0);
+			return rs;
+		} finally {
+			ois.close();
+		}
+	}
+
+	private static String normalize(String table) {
+		String name = table.replace("\"", "").trim().toLowerCase();
+		int pos = name.lastIndexOf('.');
+		return pos < 0 ? name : name.substring(pos + 1);
+	}
+
+	private static String newVersion() {
+		return Long.toString(System.currentTimeMillis(), 36) + Long.toString(System.nanoTime() & 0xFFFFFF, 36);
+	}
+}
@@ -0,0 +1,13 @@
+package framework.db;
+
+/**
+ * 데이터를 한 행씩 전달받아 처리하기 위한 콜백 인터페이스
+ * 전체 데이터를 메모리에 적재하지 않고 스트리밍 방식으로 처리할 때 사용한다.
+ */
+public interface RecordHandler {
+	/**
+	 * 한 행의 데이터를 처리한다.
+	 * @param record 행 데이터
+	 */
+	void handleRecord(RecordMap record);
+}
@@ -0,0 +1,18 @@
+package framework.db;
+
+/**
+ * 전달받은 행을 바로 출력하는 스트리밍 출력 인터페이스
+ * 조회 결과를 메모리에 적재하지 않고 JSON, CSV, 엑셀 등의 형식으로 출력할 때 사용하며, 출력이 끝나면 반드시 close 를 호출해야 한다.
+ */
+public interface RecordWriter extends RecordHandler {
+	/**
+	 * 출력을 마무리하고 사용한 자원을 정리한다.
+	 */
+	void close();
+
+	/**
+	 * 지금까지 출력한 건수를 리턴한다.
+	 * @return 처리건수
+	 */
+	int getRowCount();
+}
@@ -5,15 +5,19 @@ import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.session.SqlSession;
 
+import framework.config.Config;
+
 /**
  * MyBatis를 이용한 DAO를 작성할때 상속받는 부모 클래스
  */
 public class SqlSessionDaoSupport {
 	protected static final Log logger = LogFactory.getLog(SqlSessionDaoSupport.class);
+	private static final int DEFAULT_FETCH_SIZE = 1000;
 	protected MybatisDB db = null;
 	protected SqlSession sqlSession = null;
 
@@ -66,6 +70,54 @@ public class SqlSessionDaoSupport {
 		sqlSession.select(statement, parameter, rowBounds, handler);
 	}
 
+	/**
+	 * 조회 결과를 메모리에 적재하지 않고 한 행씩 handler 로 전달한다.
+	 * fetch size 는 application.properties 의 mybatis.fetchsize 값(기본값 1000)을 사용한다.
+	 * @param statement 문장 아이디
+	 * @param parameter 파라미터
+	 * @param handler 행 처리 핸들러 (JsonUtil, CsvUtil, ExcelUtil 의 RecordWriter 등)
+	 * @return 처리건수
+	 */
+	protected int selectStream(String statement, Object parameter, RecordHandler handler) {
+		return selectStream(statement, parameter, getDefaultFetchSize(), handler);
+	}
+
+	/**
+	 * 조회 결과를 메모리에 적재하지 않고 한 행씩 handler 로 전달한다.
+	 * 결과 타입은 Map(recordmap 등) 이어야 하며, PostgreSQL 은 autoCommit 이 false 인 경우에만 fetch size 단위로 조회된다.
+	 * @param statement 문장 아이디
+	 * @param parameter 파라미터
+	 * @param fetchSize 한번에 가져올 행의 수
+	 * @param handler 행 처리 핸들러 (JsonUtil, CsvUtil, ExcelUtil 의 RecordWriter 등)
+	 * @return 처리건수
+	 */
+	protected int selectStream(String statement, Object parameter, int fetchSize, final RecordHandler handler) {
+		final int[] rowCount = { 0 };
+		MybatisFetchSizePlugin.setFetchSize(fetchSize);
+		try {
+			sqlSession.select(statement, parameter, new ResultHandler() {
+				@Override
+				@SuppressWarnings("unchecked")
+				public void handleResult(ResultContext context) {
+					Object row = context.getResultObject();
+					if (row instanceof RecordMap) {
+						handler.handleRecord((RecordMap) row);
+					} else if (row instanceof Map) {
+						RecordMap map = new RecordMap();
+						map.putAll((Map<String, Object>) row);
+						handler.handleRecord(map);
+					} else {
+						throw new IllegalArgumentException("Map 타입의 결과만 스트리밍 조회할 수 있습니다. : " + (row == null ? null : row.getClass().getName()));
+					}
+					rowCount[0]++;
+				}
+			});
+		} finally {
+			MybatisFetchSizePlugin.clearFetchSize();
+		}
+		return rowCount[0];
+	}
+
 	protected <E> List<E> selectList(String statement) {
 		return sqlSession.selectList(statement);
 	}
@@ -113,4 +165,14 @@ public class SqlSessionDaoSupport {
 	protected RecordSet selectRecordSet(String statement, Object parameter) {
 		return sqlSession.selectOne(statement, parameter);
 	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////Private 메소드
+
+	private int getDefaultFetchSize() {
+		try {
+			return Config.getInstance().getInt("mybatis.fetchsize", DEFAULT_FETCH_SIZE);
+		} catch (Throwable e) {
+			return DEFAULT_FETCH_SIZE;
+		}
+	}
 }
\ No newline at end of file
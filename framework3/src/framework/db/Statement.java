@@ -62,6 +62,7 @@ public final class Statement extends AbstractStatement {
 				log.append("@Sql Command : \n" + getSQL());
 				logger.debug(log.toString());
 			}
+			applyDeadline(stmt);
 			rs = new RecordSet(stmt.executeQuery(getSQL()), currPage, pageSize);
 			if (logger.isDebugEnabled()) {
 				logger.debug("@Sql End (STATEMENT)");
@@ -100,6 +101,7 @@ public final class Statement extends AbstractStatement {
 				log.append("@Sql Command : \n" + getSQL());
 				logger.debug(log.toString());
 			}
+			applyDeadline(stmt);
 			upCnt = stmt.executeUpdate(getSQL());
 			if (logger.isDebugEnabled()) {
 				logger.debug("@Sql End (STATEMENT)");
@@ -1,13 +1,19 @@
 package framework.util;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.Charset;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -15,6 +21,11 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -22,8 +33,10 @@ import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import framework.db.RecordHandler;
 import framework.db.RecordMap;
 import framework.db.RecordSet;
+import framework.db.RecordWriter;
 
 /**
  * CSV를 이용하여 개발할 때 이용할 수 있는 유틸리티 클래스
@@ -31,6 +44,7 @@ import framework.db.RecordSet;
 public final class CsvUtil {
 	private static final Log logger = LogFactory.getLog(CsvUtil.class);
 	private static final String CRLF = "\r\n";
+	private static final long PARALLEL_THRESHOLD = 4 * 1024 * 1024;
 
 	/**
 	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
@@ -39,9 +53,10 @@ public final class CsvUtil {
 	}
 
 	/**
-	 * 구분자에 의해서 파일을 파싱한다.
+	 * 구분자에 의해서 파일을 파싱한다. 플랫폼 기본 문자셋을 사용한다.
+	 * 구분자는 정규식으로 해석하며, 문자열로 바꿀 수 있는 정규식("\\|", "\\t" 등)이면 쌍따옴표 규칙(RFC 4180)을 적용하여 파싱한다.
 	 * @param fileItem 파일아이템
-	 * @param sep 열 구분자로 쓰일 문자열
+	 * @param sep 열 구분자로 쓰일 정규식
 	 * @return 데이터의 리스트
 	 */
 	public static List<RecordMap> parse(FileItem fileItem, String sep) {
@@ -64,8 +79,53 @@ public final class CsvUtil {
 
 	/**
 	 * 구분자에 의해서 파일을 파싱한다.
-	 * @param file 파일
+	 * @param fileItem 파일아이템
 	 * @param sep 열 구분자로 쓰일 문자열
+	 * @param charset 문자셋
+	 * @return 데이터의 리스트
+	 */
+	public static List<RecordMap> parse(FileItem fileItem, String sep, String charset) {
+		final List<RecordMap> mapList = new ArrayList<RecordMap>();
+		parse(fileItem, sep, charset, new RecordHandler() {
+			@Override
+			public void handleRecord(RecordMap record) {
+				mapList.add(record);
+			}
+		});
+		return mapList;
+	}
+
+	/**
+	 * 구분자에 의해서 파일을 파싱하여 한 행씩 핸들러로 전달한다.
+	 * @param fileItem 파일아이템
+	 * @param sep 열 구분자로 쓰일 문자열
+	 * @param charset 문자셋
+	 * @param handler 행 데이터를 처리할 핸들러
+	 * @return 처리건수
+	 */
+	public static int parse(FileItem fileItem, String sep, String charset, RecordHandler handler) {
+		InputStream is = null;
+		try {
+			is = fileItem.getInputStream();
+			return parse(is, sep, charset, handler);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (IOException e) {
+					logger.error("", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 구분자에 의해서 파일을 파싱한다. 플랫폼 기본 문자셋을 사용한다.
+	 * 구분자는 parse(FileItem, String) 과 같이 정규식으로 해석한다.
+	 * @param file 파일
+	 * @param sep 열 구분자로 쓰일 정규식
 	 * @return 데이터의 리스트
 	 */
 	public static List<RecordMap> parse(File file, String sep) {
@@ -88,15 +148,68 @@ public final class CsvUtil {
 
 	/**
 	 * 구분자에 의해서 파일을 파싱한다.
-	 * @param is 입력스트림
+	 * @param file 파일
+	 * @param sep 열 구분자로 쓰일 문자열
+	 * @param charset 문자셋
+	 * @return 데이터의 리스트
+	 */
+	public static List<RecordMap> parse(File file, String sep, String charset) {
+		final List<RecordMap> mapList = new ArrayList<RecordMap>();
+		parse(file, sep, charset, new RecordHandler() {
+			@Override
+			public void handleRecord(RecordMap record) {
+				mapList.add(record);
+			}
+		});
+		return mapList;
+	}
+
+	/**
+	 * 구분자에 의해서 파일을 파싱하여 한 행씩 핸들러로 전달한다.
+	 * @param file 파일
 	 * @param sep 열 구분자로 쓰일 문자열
+	 * @param charset 문자셋
+	 * @param handler 행 데이터를 처리할 핸들러
+	 * @return 처리건수
+	 */
+	public static int parse(File file, String sep, String charset, RecordHandler handler) {
+		FileInputStream fis = null;
+		try {
+			fis = new FileInputStream(file);
+			return parse(fis, sep, charset, handler);
+		} catch (FileNotFoundException e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (fis != null) {
+				try {
+					fis.close();
+				} catch (IOException e) {
+					logger.error("", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 구분자에 의해서 파일을 파싱한다. 플랫폼 기본 문자셋을 사용한다.
+	 * 구분자는 parse(FileItem, String) 과 같이 정규식으로 해석하며, 문자열로 바꿀 수 없는 정규식(예: "\\s+", "[,;]")이면 한 줄씩 정규식으로 나눈다.
+	 * 문자셋을 지정하는 메소드들의 구분자는 정규식이 아닌 문자열이다.
+	 * @param is 입력스트림
+	 * @param sep 열 구분자로 쓰일 정규식
 	 * @return 데이터의 리스트
 	 */
 	public static List<RecordMap> parse(InputStream is, String sep) {
+		String charset = Charset.defaultCharset().name();
+		if (sep == null || "".equals(sep)) {
+			return new ArrayList<RecordMap>();
+		}
+		String literal = regexToLiteral(sep);
+		if (literal != null) {
+			return parse(is, literal, charset);
+		}
 		List<RecordMap> mapList = new ArrayList<RecordMap>();
-		BufferedReader br = null;
 		try {
-			br = new BufferedReader(new InputStreamReader(is));
+			BufferedReader br = new BufferedReader(new InputStreamReader(is, charset));
 			String line = null;
 			while ((line = br.readLine()) != null) {
 				String[] items = line.split(sep);
@@ -107,17 +220,103 @@ public final class CsvUtil {
 				mapList.add(map);
 			}
 		} catch (IOException e) {
-			logger.error("", e);
-		} finally {
-			if (br != null) {
-				try {
-					br.close();
-				} catch (IOException e) {
-					logger.error("", e);
+			throw new RuntimeException(e);
+		}
+		return mapList;
+	}
+
+	/**
+	 * 구분자에 의해서 파일을 파싱한다.
+	 * @param is 입력스트림
+	 * @param sep 열 구분자로 쓰일 문자열
+	 * @param charset 문자셋
+	 * @return 데이터의 리스트
+	 */
+	public static List<RecordMap> parse(InputStream is, String sep, String charset) {
+		final List<RecordMap> mapList = new ArrayList<RecordMap>();
+		parse(is, sep, charset, new RecordHandler() {
+			@Override
+			public void handleRecord(RecordMap record) {
+				mapList.add(record);
+			}
+		});
+		return mapList;
+	}
+
+	/**
+	 * 구분자에 의해서 파일을 파싱하여 한 행씩 핸들러로 전달한다.
+	 * RFC 4180 규칙에 따라 쌍따옴표로 둘러싼 값에 포함된 구분자, 개행문자, 이스케이프된 쌍따옴표("")를 처리하며
+	 * 전체 데이터를 메모리에 적재하지 않으므로 대용량 파일을 일정한 메모리로 처리할 수 있다.
+	 * @param is 입력스트림
+	 * @param sep 열 구분자로 쓰일 문자열
+	 * @param charset 문자셋
+	 * @param handler 행 데이터를 처리할 핸들러
+	 * @return 처리건수
+	 */
+	public static int parse(InputStream is, String sep, String charset, RecordHandler handler) {
+		if (is == null || sep == null || "".equals(sep) || handler == null) {
+			return 0;
+		}
+		try {
+			return new CsvReader(new InputStreamReader(is, charset), sep).readAll(handler);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 구분자에 의해서 대용량 파일을 레코드 경계에 맞춘 여러 조각으로 나누어 병렬로 파싱한다.
+	 * 핸들러는 여러 쓰레드에서 동시에 호출되므로 쓰레드에 안전해야 하며, 행의 전달 순서는 보장되지 않는다.
+	 * 조각의 경계를 바이트 단위로 찾으므로 UTF-8, EUC-KR 등 ASCII 호환 문자셋만 지원한다.
+	 * @param file 파일
+	 * @param sep 열 구분자로 쓰일 문자열
+	 * @param charset 문자셋
+	 * @param handler 행 데이터를 처리할 핸들러
+	 * @param threads 병렬 처리 쓰레드 수
+	 * @return 처리건수
+	 */
+	public static int parseParallel(final File file, final String sep, final String charset, final RecordHandler handler, int threads) {
+		if (file == null || sep == null || "".equals(sep) || handler == null) {
+			return 0;
+		}
+		if (threads <= 1 || file.length() < PARALLEL_THRESHOLD) {
+			return parse(file, sep, charset, handler);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			long[] bounds = splitRecordBounds(file, sep.getBytes(charset), threads);
+			List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < bounds.length - 1; i++) {
+				final long start = bounds[i];
+				final long length = bounds[i + 1] - bounds[i];
+				if (length <= 0) {
+					continue;
 				}
+				futures.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() throws Exception {
+						FileInputStream fis = new FileInputStream(file);
+						try {
+							fis.getChannel().position(start);
+							return Integer.valueOf(parse(new RangeInputStream(fis, length), sep, charset, handler));
+						} finally {
+							fis.close();
+						}
+					}
+				}));
+			}
+			int rowCount = 0;
+			for (Future<Integer> future : futures) {
+				rowCount += future.get().intValue();
 			}
+			return rowCount;
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		} finally {
+			executor.shutdownNow();
 		}
-		return mapList;
 	}
 
 	/**
@@ -378,6 +577,37 @@ public final class CsvUtil {
 		return buffer.toString();
 	}
 
+	/**
+	 * 행을 전달받는 즉시 구분자(CSV, TSV 등)파일 형식으로 출력하는 RecordWriter 를 생성한다.
+	 * <br>
+	 * ex) Mybatis 조회 결과를 열구분자 콤마(,) 인 형식으로 스트리밍 출력하는 경우 : RecordWriter writer = CsvUtil.openWriter(response, ","); dao.selectStream("statement", param, writer); writer.close();
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param sep 열 구분자로 쓰일 문자열
+	 * @return RecordWriter 객체, 출력이 끝나면 close 를 호출해야 한다.
+	 */
+	public static RecordWriter openWriter(HttpServletResponse response, String sep) {
+		try {
+			return new CsvRecordWriter(response.getWriter(), sep, false);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 행을 전달받는 즉시 구분자(CSV, TSV 등)파일 형식으로 파일(UTF-8)에 기록하는 RecordWriter 를 생성한다.
+	 * 디스크 공간 부족 등으로 기록에 실패했으면 close 에서 RuntimeException 이 발생한다.
+	 * @param file 파일
+	 * @param sep 열 구분자로 쓰일 문자열
+	 * @return RecordWriter 객체, 출력이 끝나면 close 를 호출해야 한다.
+	 */
+	public static RecordWriter openWriter(File file, String sep) {
+		try {
+			return new CsvRecordWriter(new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))), sep, true);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	////////////////////////////////////////////////////////////////////////////////////////// Private 메소드
 
 	/**
@@ -481,4 +711,326 @@ public final class CsvUtil {
 		}
 		return buffer.toString();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * 정규식 구분자를 문자열 구분자로 바꾼다. 메타문자가 없거나 메타문자를 하나씩 이스케이프한 정규식만 바꿀 수 있으며, 그 외에는 null 을 리턴한다.
+	 */
+	private static String regexToLiteral(String regex) {
+		StringBuilder literal = new StringBuilder();
+		for (int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				if (++i >= regex.length()) {
+					return null;
+				}
+				c = regex.charAt(i);
+				if (c == 't') {
+					literal.append('\t');
+				} else if (c == 'n') {
+					literal.append('\n');
+				} else if (c == 'r') {
+					literal.append('\r');
+				} else if (c == 'f') {
+					literal.append('\f');
+				} else if (Character.isLetterOrDigit(c)) {
+					return null;
+				} else {
+					literal.append(c);
+				}
+			} else if (".$|()[]{}^?*+".indexOf(c) != -1) {
+				return null;
+			} else {
+				literal.append(c);
+			}
+		}
+		return literal.toString();
+	}
+
+	/**
+	 * 파일을 조각 수만큼 나누되, 쌍따옴표 밖의 개행문자 다음 위치로 경계를 맞춘다.
+	 * CsvReader 와 같이 필드의 시작 위치에 있는 쌍따옴표만 인용의 시작으로 보므로, 필드 중간의 쌍따옴표는 경계 계산에 영향을 주지 않는다.
+	 * ASCII 호환 문자셋에서는 쌍따옴표(0x22), 개행문자(0x0A, 0x0D), ASCII 구분자가 멀티바이트 문자의 일부로 나타나지 않으므로 바이트 단위로 찾을 수 있다.
+	 */
+	private static long[] splitRecordBounds(File file, byte[] sep, int chunks) throws IOException {
+		long size = file.length();
+		long[] bounds = new long[chunks + 1];
+		bounds[chunks] = size;
+		InputStream is = new BufferedInputStream(new FileInputStream(file), 65536);
+		try {
+			long pos = 0;
+			boolean inQuotes = false;
+			boolean fieldStart = true;
+			for (int i = 1; i < chunks; i++) {
+				long target = size * i / chunks;
+				int b;
+				while ((b = is.read()) != -1) {
+					pos++;
+					if (inQuotes) {
+						if (b == '"') {
+							is.mark(1);
+							if (is.read() == '"') {
+								pos++;
+							} else {
+								is.reset();
+								inQuotes = false;
+							}
+						}
+					} else if (b == '"' && fieldStart) {
+						inQuotes = true;
+						fieldStart = false;
+					} else if (b == sep[0] && matchRest(is, sep)) {
+						pos += sep.length - 1;
+						fieldStart = true;
+					} else if (b == '\n' || b == '\r') {
+						fieldStart = true;
+						if (b == '\n' && pos >= target) {
+							break;
+						}
+					} else {
+						fieldStart = false;
+					}
+				}
+				bounds[i] = pos;
+			}
+		} finally {
+			is.close();
+		}
+		return bounds;
+	}
+
+	/**
+	 * 구분자의 나머지 바이트가 이어지면 읽고 true 를 리턴하며, 이어지지 않으면 읽은 위치를 되돌린다.
+	 */
+	private static boolean matchRest(InputStream is, byte[] sep) throws IOException {
+		if (sep.length == 1) {
+			return true;
+		}
+		is.mark(sep.length);
+		for (int i = 1; i < sep.length; i++) {
+			if (is.read() != (sep[i] & 0xFF)) {
+				is.reset();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 문자 버퍼를 이용한 RFC 4180 구분자 파일 리더
+	 * 필드 값은 재사용하는 버퍼에 모은 후 문자열로 변환하며, 컬럼 키 문자열은 한번만 생성한다.
+	 */
+	private static final class CsvReader {
+		private final Reader reader;
+		private final char[] sep;
+		private final char[] buf = new char[65536];
+		private final StringBuilder field = new StringBuilder();
+		private final List<String> fields = new ArrayList<String>();
+		private String[] keys = new String[0];
+		private int pos = 0;
+		private int len = 0;
+
+		CsvReader(Reader reader, String sep) {
+			this.reader = reader;
+			this.sep = sep.toCharArray();
+		}
+
+		int readAll(RecordHandler handler) throws IOException {
+			int rowCount = 0;
+			if (fill(1) && buf[pos] == '\uFEFF') {
+				pos++;
+			}
+			while (readRecord()) {
+				int size = fields.size();
+				if (keys.length < size) {
+					String[] newKeys = new String[size];
+					for (int i = 0; i < size; i++) {
+						newKeys[i] = String.valueOf(i);
+					}
+					keys = newKeys;
+				}
+				RecordMap map = new RecordMap(size);
+				for (int i = 0; i < size; i++) {
+					map.put(keys[i], fields.get(i));
+				}
+				handler.handleRecord(map);
+				rowCount++;
+			}
+			return rowCount;
+		}
+
+		private boolean readRecord() throws IOException {
+			fields.clear();
+			field.setLength(0);
+			int c = read();
+			if (c == -1) {
+				return false;
+			}
+			boolean inQuotes = false;
+			boolean fieldStart = true;
+			while (true) {
+				if (c == -1) {
+					endField();
+					return true;
+				}
+				if (inQuotes) {
+					if (c == '"') {
+						if (fill(1) && buf[pos] == '"') {
+							pos++;
+							field.append('"');
+						} else {
+							inQuotes = false;
+						}
+					} else {
+						field.append((char) c);
+					}
+				} else if (c == '"' && fieldStart) {
+					inQuotes = true;
+					fieldStart = false;
+				} else if (isSep(c)) {
+					endField();
+					fieldStart = true;
+				} else if (c == '\r') {
+					if (fill(1) && buf[pos] == '\n') {
+						pos++;
+					}
+					endField();
+					return true;
+				} else if (c == '\n') {
+					endField();
+					return true;
+				} else {
+					field.append((char) c);
+					fieldStart = false;
+				}
+				c = read();
+			}
+		}
+
+		private void endField() {
+			fields.add(field.toString());
+			field.setLength(0);
+		}
+
+		private boolean isSep(int c) throws IOException {
+			if (c != sep[0]) {
+				return false;
+			}
+			if (sep.length == 1) {
+				return true;
+			}
+			if (!fill(sep.length - 1)) {
+				return false;
+			}
+			for (int i = 1; i < sep.length; i++) {
+				if (buf[pos + i - 1] != sep[i]) {
+					return false;
+				}
+			}
+			pos += sep.length - 1;
+			return true;
+		}
+
+		private int read() throws IOException {
+			if (pos >= len && !fill(1)) {
+				return -1;
+			}
+			return buf[pos++];
+		}
+
+		/*
+		 * 버퍼에 최소 n개의 문자가 남아있도록 채운다.
+		 */
+		private boolean fill(int n) throws IOException {
+			while (len - pos < n) {
+				if (pos > 0) {
+					System.arraycopy(buf, pos, buf, 0, len - pos);
+					len -= pos;
+					pos = 0;
+				}
+				int read = reader.read(buf, len, buf.length - len);
+				if (read <= 0) {
+					return false;
+				}
+				len += read;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * 스트림의 지정된 길이만큼만 읽는 입력스트림
+	 */
+	private static final class RangeInputStream extends InputStream {
+		private final InputStream is;
+		private long remaining;
+
+		RangeInputStream(InputStream is, long length) {
+			this.is = is;
+			this.remaining = length;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int b = is.read();
+			if (b != -1) {
+				remaining--;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (remaining <= 0) {
+				return -1;
+			}
+			int read = is.read(b, off, (int) Math.min(len, remaining));
+			if (read > 0) {
+				remaining -= read;
+			}
+			return read;
+		}
+	}
+
+	/*
+	 * 구분자(CSV, TSV 등)파일 스트리밍 출력
+	 */
+	private static final class CsvRecordWriter implements RecordWriter {
+		private final PrintWriter pw;
+		private final String sep;
+		private final boolean closeStream;
+		private int rowCount = 0;
+
+		CsvRecordWriter(PrintWriter pw, String sep, boolean closeStream) {
+			this.pw = pw;
+			this.sep = sep;
+			this.closeStream = closeStream;
+		}
+
+		@Override
+		public void handleRecord(RecordMap record) {
+			if (rowCount++ > 0) {
+				pw.print(CRLF);
+			}
+			pw.print(sepRowStr(record, sep));
+		}
+
+		@Override
+		public void close() {
+			pw.flush();
+			if (closeStream) {
+				pw.close();
+				if (pw.checkError()) {
+					throw new RuntimeException(new IOException("파일을 기록하는 중 오류가 발생하였습니다."));
+				}
+			}
+		}
+
+		@Override
+		public int getRowCount() {
+			return rowCount;
+		}
+	}
+}
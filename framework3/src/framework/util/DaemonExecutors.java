@@ -0,0 +1,80 @@
+package framework.util;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import framework.config.Config;
+
+/**
+ * 프레임워크 내부의 백그라운드 작업에 사용하는 데몬 쓰레드풀 생성 클래스
+ * 쓰레드 수는 application.properties 에서 읽고, 쓸모없는 쓰레드는 60초 후 정리되며, 데몬 쓰레드이므로 애플리케이션 종료를 막지 않는다.
+ */
+public final class DaemonExecutors {
+	private static final Log logger = LogFactory.getLog(DaemonExecutors.class);
+
+	/**
+	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
+	 */
+	private DaemonExecutors() {
+	}
+
+	/**
+	 * 대기열의 크기 제한이 없는 쓰레드풀을 생성한다.
+	 * <br>
+	 * ex) pdfutil.threads 설정값(기본값 CPU 갯수)만큼 쓰레드를 사용하는 경우 : DaemonExecutors.create("framework-pdf", "pdfutil.threads", Runtime.getRuntime().availableProcessors())
+	 * @param prefix 쓰레드 이름 접두어, 쓰레드 이름은 접두어-번호 형식이 된다.
+	 * @param configKey 쓰레드 수를 읽을 설정 키
+	 * @param defaultThreads 설정이 없거나 읽을 수 없을 때 사용할 쓰레드 수
+	 * @return 쓰레드풀
+	 */
+	public static ThreadPoolExecutor create(String prefix, String configKey, int defaultThreads) {
+		return create(prefix, configKey, defaultThreads, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * 대기열의 크기가 제한된 쓰레드풀을 생성한다. 대기열이 가득 차면 작업 등록시 RejectedExecutionException 이 발생한다.
+	 * @param prefix 쓰레드 이름 접두어, 쓰레드 이름은 접두어-번호 형식이 된다.
+	 * @param configKey 쓰레드 수를 읽을 설정 키
+	 * @param defaultThreads 설정이 없거나 읽을 수 없을 때 사용할 쓰레드 수
+	 * @param queueCapacity 대기열 크기
+	 * @return 쓰레드풀
+	 */
+	public static ThreadPoolExecutor create(final String prefix, String configKey, int defaultThreads, int queueCapacity) {
+		int threads = getInt(configKey, defaultThreads);
+		if (threads < 1) {
+			threads = 1;
+		}
+		final AtomicInteger threadNumber = new AtomicInteger(1);
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, prefix + "-" + threadNumber.getAndIncrement());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * 설정값을 정수로 읽는다. 설정을 읽을 수 없으면 기본값을 리턴한다.
+	 * @param configKey 설정 키
+	 * @param defaultValue 기본값
+	 * @return 설정값
+	 */
+	public static int getInt(String configKey, int defaultValue) {
+		try {
+			return Config.getInstance().getInt(configKey, defaultValue);
+		} catch (Throwable e) {
+			logger.error("", e);
+			return defaultValue;
+		}
+	}
+}
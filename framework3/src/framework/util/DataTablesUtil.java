@@ -6,14 +6,31 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import framework.config.Config;
 import framework.db.RecordMap;
 import framework.db.RecordSet;
 
@@ -22,6 +39,17 @@ import framework.db.RecordSet;
  */
 public final class DataTablesUtil {
 	private static final Log logger = LogFactory.getLog(DataTablesUtil.class);
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	private static final Pattern POSITION = Pattern.compile("\\d{1,9}");
+	private static final Map<String, FutureTask<Table>> tables = new LinkedHashMap<String, FutureTask<Table>>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		private final int maxTables = getMaxTables();
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, FutureTask<Table>> eldest) {
+			return size() > maxTables;
+		}
+	};
 
 	/**
 	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
@@ -442,8 +470,179 @@ public final class DataTablesUtil {
 		return buffer.toString();
 	}
 
+	/**
+	 * DataTables 의 서버사이드 처리(serverSide: true) 요청에 응답한다.
+	 * key 에 해당하는 데이타가 메모리에 없거나 보관기간(datatablesutil.ttl 초, 기본값 300)이 지났으면 loader 로 한번만 조회하여 컬럼 단위로 압축 저장하고,
+	 * 저장하는 키의 수가 datatablesutil.maxTables(기본값 100)를 넘으면 가장 오래 사용되지 않은 데이타부터 삭제한다.
+	 * 이후 정렬, 검색, 페이지 이동 요청은 DB 조회 없이 메모리에서 처리한다.
+	 * 1.10 이상의 요청 파라미터(draw, start, length, search[value], order[i][column], columns[i][search][value])와 1.9 이하의 요청 파라미터(sEcho, iDisplayStart, sSearch, iSortCol_i ...)를 모두 지원한다.
+	 * 전체 검색은 공백으로 구분된 각 단어가 행의 어느 컬럼에라도 포함되어 있는지 대소문자 구분없이 검사한다.
+	 * 컬럼의 data(1.9 이하는 mDataProp_i)를 조회 결과의 컬럼 이름으로 지정하면 행을 그 이름을 키로 하는 객체로 출력하고,
+	 * 숫자로 지정하거나 지정하지 않으면 조회 결과의 컬럼 순서대로 배열로 출력한다. 점(.)으로 구분된 중첩 속성 이름은 지원하지 않는다.
+	 * <br>
+	 * ex) 게시판 목록을 "board.list" 라는 키로 캐시하여 응답하는 경우 :
+	 * DataTablesUtil.render(request, response, "board.list", new Callable&lt;ResultSet&gt;() { public ResultSet call() throws Exception { return stmt.executeQuery(); } })
+	 * @param request 클라이언트에서 요청된 Request 객체
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param key 데이타를 캐시할 키, 조회 조건이 다르면 다른 키를 사용해야 한다.
+	 * @param loader 캐시에 데이타가 없을 때 호출되어 ResultSet 을 리턴하는 객체, ResultSet 객체는 자동으로 close 된다.
+	 * @return 처리건수
+	 */
+	public static int render(HttpServletRequest request, HttpServletResponse response, String key, Callable<ResultSet> loader) {
+		if (request == null || response == null || key == null || loader == null) {
+			return 0;
+		}
+		Table table = getTable(key, loader);
+		boolean legacy = request.getParameter("draw") == null && request.getParameter("sEcho") != null;
+		Query query = new Query(request, table, legacy);
+		int[] rows = table.select(query);
+		int start = Math.max(0, Math.min(query.start, rows.length));
+		int end = query.length < 0 ? rows.length : (int) Math.min((long) start + query.length, rows.length);
+		PrintWriter pw;
+		try {
+			pw = response.getWriter();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		pw.print("{");
+		pw.print(legacy ? "\"sEcho\":" : "\"draw\":");
+		pw.print(query.draw);
+		pw.print(legacy ? ",\"iTotalRecords\":" : ",\"recordsTotal\":");
+		pw.print(table.rowCount);
+		pw.print(legacy ? ",\"iTotalDisplayRecords\":" : ",\"recordsFiltered\":");
+		pw.print(rows.length);
+		pw.print(legacy ? ",\"aaData\":[" : ",\"data\":[");
+		for (int i = start; i < end; i++) {
+			if (i > start) {
+				pw.print(",");
+			}
+			pw.print(dataTablesRowStr(table, rows[i], query));
+		}
+		pw.print("]");
+		pw.print("}");
+		return end - start;
+	}
+
+	/**
+	 * 서버사이드 처리를 위해 메모리에 저장한 key 에 해당하는 데이타를 삭제한다.
+	 * 데이타가 변경되었을 때 호출하면 다음 요청에서 다시 조회한다.
+	 * <br>
+	 * ex) 게시물을 등록한 후 캐시를 삭제하는 경우 : DataTablesUtil.invalidate("board.list")
+	 * @param key 데이타를 캐시한 키
+	 */
+	public static void invalidate(String key) {
+		if (key == null) {
+			return;
+		}
+		synchronized (tables) {
+			tables.remove(key);
+		}
+	}
+
+	/**
+	 * 서버사이드 처리를 위해 메모리에 저장한 모든 데이타를 삭제한다.
+	 * <br>
+	 * ex) DataTablesUtil.invalidateAll()
+	 */
+	public static void invalidateAll() {
+		synchronized (tables) {
+			tables.clear();
+		}
+	}
+
 	////////////////////////////////////////////////////////////////////////////////////////// Private 메소드
 
+	/**
+	 * key 에 해당하는 데이타를 리턴한다. 없거나 보관기간이 지났으면 loader 로 조회하며, 같은 키에 대한 동시 요청은 한번만 조회한다.
+	 */
+	private static Table getTable(String key, final Callable<ResultSet> loader) {
+		long now = System.currentTimeMillis();
+		FutureTask<Table> future;
+		FutureTask<Table> task = null;
+		synchronized (tables) {
+			future = tables.get(key);
+			if (future == null || isExpired(future, now)) {
+				purge(now);
+				task = new FutureTask<Table>(new Callable<Table>() {
+					public Table call() throws Exception {
+						return Table.load(loader.call(), Config.getInstance().getInt("datatablesutil.maxRows", 500000));
+					}
+				});
+				tables.put(key, task);
+				future = task;
+			}
+		}
+		if (task != null) {
+			task.run();
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			synchronized (tables) {
+				if (tables.get(key) == future) {
+					tables.remove(key);
+				}
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * 조회가 끝난 데이타의 보관기간이 지났는지 여부
+	 */
+	private static boolean isExpired(FutureTask<Table> future, long now) {
+		if (!future.isDone()) {
+			return false;
+		}
+		try {
+			return future.get().loadedAt + Config.getInstance().getInt("datatablesutil.ttl", 300) * 1000L < now;
+		} catch (Exception e) {
+			return true;
+		}
+	}
+
+	/**
+	 * 보관기간이 지난 데이타를 삭제한다. tables 를 잠근 상태에서 호출해야 한다.
+	 */
+	private static void purge(long now) {
+		for (Iterator<FutureTask<Table>> it = tables.values().iterator(); it.hasNext();) {
+			if (isExpired(it.next(), now)) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * 메모리에 저장할 최대 키의 수
+	 */
+	private static int getMaxTables() {
+		int maxTables = 100;
+		try {
+			maxTables = Config.getInstance().getInt("datatablesutil.maxTables", maxTables);
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+		return Math.max(1, maxTables);
+	}
+
+	/**
+	 * 요청 파라미터를 정수로 변환한다.
+	 */
+	private static int getInt(HttpServletRequest request, String name, int defaultValue) {
+		String value = request.getParameter(name);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
 	/**
 	 * 자바스크립트상에 특수하게 인식되는 문자들을 JSON등에 사용하기 위해 변환하여준다.
 	 * @param str 변환할 문자열
@@ -537,4 +736,513 @@ public final class DataTablesUtil {
 		}
 		return buffer.toString();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * DataTables 용 Row 문자열 생성, 요청에서 컬럼을 이름으로 지정했으면 객체로 생성한다.
+	 */
+	private static String dataTablesRowStr(Table table, int row, Query query) {
+		StringBuilder buffer = new StringBuilder();
+		if (query.rowKeys == null) {
+			buffer.append("[");
+			for (int c = 0; c < table.columns.length; c++) {
+				if (c > 0) {
+					buffer.append(",");
+				}
+				buffer.append("\"" + escape(table.columns[c].value(row)) + "\"");
+			}
+			buffer.append("]");
+			return buffer.toString();
+		}
+		buffer.append("{");
+		for (int c = 0; c < table.columns.length; c++) {
+			if (c > 0) {
+				buffer.append(",");
+			}
+			buffer.append("\"" + escape(query.rowKeys[c]) + "\":\"" + escape(table.columns[c].value(row)) + "\"");
+		}
+		for (String key : query.unknownKeys) {
+			buffer.append(",\"" + escape(key) + "\":\"\"");
+		}
+		buffer.append("}");
+		return buffer.toString();
+	}
+
+	/*
+	 * 서버사이드 처리를 위해 메모리에 저장하는 데이타, 컬럼별로 중복값을 사전(dict)으로 모으고 행에는 사전의 번호(code)만 저장한다.
+	 */
+	private static final class Table {
+		final long loadedAt = System.currentTimeMillis();
+		final Column[] columns;
+		final int rowCount;
+		final String[] tokens;
+		final int[][] postings;
+		private final ReentrantLock lock = new ReentrantLock();
+		private final LinkedHashMap<String, int[]> results = new LinkedHashMap<String, int[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = -3816227750932410165L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+				return size() > 32;
+			}
+		};
+
+		private Table(Column[] columns, int rowCount, String[] tokens, int[][] postings) {
+			this.columns = columns;
+			this.rowCount = rowCount;
+			this.tokens = tokens;
+			this.postings = postings;
+		}
+
+		/**
+		 * ResultSet 을 읽어서 컬럼별 사전과 전체 검색용 단어 색인을 만든다.
+		 */
+		static Table load(ResultSet rs, int maxRows) throws SQLException {
+			try {
+				ResultSetMetaData rsmd = rs.getMetaData();
+				int cnt = rsmd.getColumnCount();
+				Column[] columns = new Column[cnt];
+				List<Map<String, Integer>> dicts = new ArrayList<Map<String, Integer>>(cnt);
+				for (int i = 1; i <= cnt; i++) {
+					columns[i - 1] = new Column(rsmd.getColumnName(i).toLowerCase(), isNumeric(rsmd.getColumnType(i)));
+					dicts.add(new HashMap<String, Integer>());
+				}
+				Map<String, Postings> index = new HashMap<String, Postings>();
+				List<List<String[]>> codeTokens = new ArrayList<List<String[]>>(cnt);
+				for (int c = 0; c < cnt; c++) {
+					codeTokens.add(new ArrayList<String[]>());
+				}
+				int row = 0;
+				while (rs.next()) {
+					if (row >= maxRows) {
+						throw new RuntimeException("서버사이드 처리 최대 행수(" + maxRows + ")를 초과하였습니다.");
+					}
+					for (int c = 0; c < cnt; c++) {
+						Object value = rs.getObject(c + 1);
+						String str = value == null ? "" : value.toString();
+						Map<String, Integer> dict = dicts.get(c);
+						Integer code = dict.get(str);
+						if (code == null) {
+							code = Integer.valueOf(dict.size());
+							dict.put(str, code);
+							codeTokens.get(c).add(WHITESPACE.split(str.toLowerCase()));
+						}
+						columns[c].add(row, code.intValue());
+						for (String token : codeTokens.get(c).get(code.intValue())) {
+							if (token.length() == 0) {
+								continue;
+							}
+							Postings postings = index.get(token);
+							if (postings == null) {
+								postings = new Postings();
+								index.put(token, postings);
+							}
+							postings.add(row);
+						}
+					}
+					row++;
+				}
+				for (int c = 0; c < cnt; c++) {
+					columns[c].seal(row, dicts.get(c));
+				}
+				String[] tokens = index.keySet().toArray(new String[index.size()]);
+				int[][] postings = new int[tokens.length][];
+				for (int t = 0; t < tokens.length; t++) {
+					postings[t] = index.get(tokens[t]).toArray();
+				}
+				return new Table(columns, row, tokens, postings);
+			} finally {
+				Statement stmt = null;
+				try {
+					stmt = rs.getStatement();
+				} catch (SQLException e) {
+					logger.error("", e);
+				}
+				try {
+					rs.close();
+				} catch (SQLException e) {
+					logger.error("", e);
+				}
+				if (stmt != null) {
+					try {
+						stmt.close();
+					} catch (SQLException e) {
+						logger.error("", e);
+					}
+				}
+			}
+		}
+
+		/**
+		 * 검색 조건에 맞는 행 번호를 정렬 순서대로 리턴한다. 최근 결과는 다음 페이지 요청을 위해 보관한다.
+		 */
+		int[] select(Query query) {
+			String cacheKey = query.cacheKey();
+			lock.lock();
+			try {
+				int[] rows = results.get(cacheKey);
+				if (rows != null) {
+					return rows;
+				}
+			} finally {
+				lock.unlock();
+			}
+			int[] rows = sort(filter(query), query);
+			lock.lock();
+			try {
+				results.put(cacheKey, rows);
+			} finally {
+				lock.unlock();
+			}
+			return rows;
+		}
+
+		/**
+		 * 전체 검색어와 컬럼별 검색어에 맞는 행을 리턴한다. 조건이 없으면 null 을 리턴한다.
+		 */
+		private BitSet filter(Query query) {
+			BitSet matched = null;
+			for (String word : query.words) {
+				BitSet rows = new BitSet(rowCount);
+				for (int t = 0; t < tokens.length; t++) {
+					if (tokens[t].contains(word)) {
+						for (int row : postings[t]) {
+							rows.set(row);
+						}
+					}
+				}
+				if (matched == null) {
+					matched = rows;
+				} else {
+					matched.and(rows);
+				}
+			}
+			for (Entry<Integer, String> entry : query.columnSearch.entrySet()) {
+				Column column = columns[entry.getKey().intValue()];
+				boolean[] codes = column.match(entry.getValue());
+				BitSet rows = new BitSet(rowCount);
+				for (int row = 0; row < rowCount; row++) {
+					if (codes[column.codes[row]]) {
+						rows.set(row);
+					}
+				}
+				if (matched == null) {
+					matched = rows;
+				} else {
+					matched.and(rows);
+				}
+			}
+			return matched;
+		}
+
+		/**
+		 * 걸러진 행을 정렬 조건에 따라 정렬한다.
+		 */
+		private int[] sort(BitSet matched, final Query query) {
+			int size = matched == null ? rowCount : matched.cardinality();
+			int[] rows = new int[size];
+			if (query.orders.isEmpty()) {
+				for (int row = 0, i = 0; i < size; row++) {
+					if (matched == null || matched.get(row)) {
+						rows[i++] = row;
+					}
+				}
+				return rows;
+			}
+			int[] first = query.orders.get(0);
+			int[] order = columns[first[0]].order();
+			boolean desc = first[1] < 0;
+			for (int p = 0, i = 0; i < size; p++) {
+				int row = order[desc ? order.length - 1 - p : p];
+				if (matched == null || matched.get(row)) {
+					rows[i++] = row;
+				}
+			}
+			if (query.orders.size() == 1) {
+				return rows;
+			}
+			final int[][] ranks = new int[query.orders.size()][];
+			for (int o = 0; o < ranks.length; o++) {
+				ranks[o] = columns[query.orders.get(o)[0]].rank();
+			}
+			Integer[] boxed = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				boxed[i] = Integer.valueOf(rows[i]);
+			}
+			Arrays.sort(boxed, new Comparator<Integer>() {
+				public int compare(Integer a, Integer b) {
+					for (int o = 0; o < ranks.length; o++) {
+						Column column = columns[query.orders.get(o)[0]];
+						int diff = ranks[o][column.codes[a.intValue()]] - ranks[o][column.codes[b.intValue()]];
+						if (diff != 0) {
+							return diff * query.orders.get(o)[1];
+						}
+					}
+					return 0;
+				}
+			});
+			for (int i = 0; i < size; i++) {
+				rows[i] = boxed[i].intValue();
+			}
+			return rows;
+		}
+
+		/**
+		 * 컬럼 이름의 인덱스를 리턴한다.
+		 */
+		int indexOf(String name) {
+			for (int c = 0; c < columns.length; c++) {
+				if (columns[c].name.equals(name)) {
+					return c;
+				}
+			}
+			return -1;
+		}
+
+		private static boolean isNumeric(int type) {
+			switch (type) {
+			case Types.BIGINT:
+			case Types.DECIMAL:
+			case Types.DOUBLE:
+			case Types.FLOAT:
+			case Types.INTEGER:
+			case Types.NUMERIC:
+			case Types.REAL:
+			case Types.SMALLINT:
+			case Types.TINYINT:
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+
+	/*
+	 * 사전 방식으로 저장하는 컬럼, 정렬 색인은 처음 정렬을 요청할 때 만든다.
+	 */
+	private static final class Column {
+		final String name;
+		final boolean numeric;
+		int[] codes = new int[1024];
+		String[] dict;
+		private volatile int[] rank;
+		private volatile int[] order;
+
+		Column(String name, boolean numeric) {
+			this.name = name;
+			this.numeric = numeric;
+		}
+
+		void add(int row, int code) {
+			if (row == codes.length) {
+				codes = Arrays.copyOf(codes, codes.length * 2);
+			}
+			codes[row] = code;
+		}
+
+		void seal(int rowCount, Map<String, Integer> map) {
+			codes = Arrays.copyOf(codes, rowCount);
+			dict = new String[map.size()];
+			for (Entry<String, Integer> entry : map.entrySet()) {
+				dict[entry.getValue().intValue()] = entry.getKey();
+			}
+		}
+
+		String value(int row) {
+			return dict[codes[row]];
+		}
+
+		/**
+		 * 검색어를 포함하는 사전 항목을 표시한 배열을 리턴한다.
+		 */
+		boolean[] match(String word) {
+			boolean[] matched = new boolean[dict.length];
+			for (int d = 0; d < dict.length; d++) {
+				matched[d] = dict[d].toLowerCase().contains(word);
+			}
+			return matched;
+		}
+
+		/**
+		 * 사전 항목별 정렬 순위를 리턴한다. 같은 값은 같은 순위를 갖는다.
+		 */
+		int[] rank() {
+			int[] result = rank;
+			if (result == null) {
+				Integer[] sorted = new Integer[dict.length];
+				final double[] numbers = numeric ? new double[dict.length] : null;
+				for (int d = 0; d < dict.length; d++) {
+					sorted[d] = Integer.valueOf(d);
+					if (numeric) {
+						try {
+							numbers[d] = dict[d].length() == 0 ? Double.NEGATIVE_INFINITY : Double.parseDouble(dict[d]);
+						} catch (NumberFormatException e) {
+							numbers[d] = Double.NEGATIVE_INFINITY;
+						}
+					}
+				}
+				Comparator<Integer> comparator = new Comparator<Integer>() {
+					public int compare(Integer a, Integer b) {
+						if (numbers != null) {
+							return Double.compare(numbers[a.intValue()], numbers[b.intValue()]);
+						}
+						return dict[a.intValue()].compareTo(dict[b.intValue()]);
+					}
+				};
+				Arrays.sort(sorted, comparator);
+				result = new int[dict.length];
+				for (int i = 0; i < sorted.length; i++) {
+					result[sorted[i].intValue()] = i > 0 && comparator.compare(sorted[i - 1], sorted[i]) == 0 ? result[sorted[i - 1].intValue()] : i;
+				}
+				rank = result;
+			}
+			return result;
+		}
+
+		/**
+		 * 오름차순으로 정렬된 행 번호를 리턴한다.
+		 */
+		int[] order() {
+			int[] result = order;
+			if (result == null) {
+				int[] ranks = rank();
+				int[] start = new int[dict.length + 1];
+				for (int code : codes) {
+					start[ranks[code] + 1]++;
+				}
+				for (int r = 0; r < dict.length; r++) {
+					start[r + 1] += start[r];
+				}
+				result = new int[codes.length];
+				for (int row = 0; row < codes.length; row++) {
+					result[start[ranks[codes[row]]]++] = row;
+				}
+				order = result;
+			}
+			return result;
+		}
+	}
+
+	/*
+	 * 행 번호 목록, 같은 행이 연속으로 추가되면 한번만 저장한다.
+	 */
+	private static final class Postings {
+		private int[] rows = new int[4];
+		private int size = 0;
+
+		void add(int row) {
+			if (size > 0 && rows[size - 1] == row) {
+				return;
+			}
+			if (size == rows.length) {
+				rows = Arrays.copyOf(rows, size * 2);
+			}
+			rows[size++] = row;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(rows, size);
+		}
+	}
+
+	/*
+	 * DataTables 요청 파라미터
+	 */
+	private static final class Query {
+		final int draw;
+		final int start;
+		final int length;
+		final List<String> words = new ArrayList<String>();
+		final Map<Integer, String> columnSearch = new TreeMap<Integer, String>();
+		final List<int[]> orders = new ArrayList<int[]>();
+		/**
+		 * 행을 객체로 출력할 때 사용할 컬럼별 키, 컬럼을 이름으로 지정하지 않았으면 null
+		 */
+		final String[] rowKeys;
+		/**
+		 * 요청에서 지정했지만 조회 결과에 없는 컬럼 이름, 빈 값으로 출력한다.
+		 */
+		final List<String> unknownKeys = new ArrayList<String>();
+
+		Query(HttpServletRequest request, Table table, boolean legacy) {
+			int columnCount = legacy ? getInt(request, "iColumns", -1) : -1;
+			if (columnCount < 0) {
+				columnCount = 0;
+				while (request.getParameter(legacy ? "mDataProp_" + columnCount : "columns[" + columnCount + "][data]") != null) {
+					columnCount++;
+				}
+			}
+			if (columnCount == 0) {
+				columnCount = table.columns.length;
+			}
+			int[] columnIndex = new int[columnCount];
+			String[] keys = null;
+			for (int i = 0; i < columnIndex.length; i++) {
+				String data = request.getParameter(legacy ? "mDataProp_" + i : "columns[" + i + "][data]");
+				if (data == null || data.length() == 0) {
+					columnIndex[i] = i < table.columns.length ? i : -1;
+				} else if (POSITION.matcher(data).matches()) {
+					int index = Integer.parseInt(data);
+					columnIndex[i] = index < table.columns.length ? index : -1;
+				} else {
+					if (keys == null) {
+						keys = new String[table.columns.length];
+						for (int c = 0; c < keys.length; c++) {
+							keys[c] = table.columns[c].name;
+						}
+					}
+					columnIndex[i] = table.indexOf(data.toLowerCase());
+					if (columnIndex[i] < 0) {
+						unknownKeys.add(data);
+					} else {
+						keys[columnIndex[i]] = data;
+					}
+				}
+			}
+			this.rowKeys = keys;
+			this.draw = getInt(request, legacy ? "sEcho" : "draw", 0);
+			this.start = getInt(request, legacy ? "iDisplayStart" : "start", 0);
+			this.length = getInt(request, legacy ? "iDisplayLength" : "length", -1);
+			String search = request.getParameter(legacy ? "sSearch" : "search[value]");
+			if (search != null) {
+				for (String word : WHITESPACE.split(search.toLowerCase())) {
+					if (word.length() > 0) {
+						words.add(word);
+					}
+				}
+			}
+			for (int i = 0; i < columnIndex.length; i++) {
+				String value = request.getParameter(legacy ? "sSearch_" + i : "columns[" + i + "][search][value]");
+				if (columnIndex[i] >= 0 && value != null && value.length() > 0) {
+					columnSearch.put(Integer.valueOf(columnIndex[i]), value.toLowerCase());
+				}
+			}
+			int sortingCols = legacy ? getInt(request, "iSortingCols", 0) : Integer.MAX_VALUE;
+			for (int o = 0; o < sortingCols; o++) {
+				int column = getInt(request, legacy ? "iSortCol_" + o : "order[" + o + "][column]", -1);
+				if (column < 0) {
+					break;
+				}
+				if (column >= columnIndex.length || columnIndex[column] < 0) {
+					continue;
+				}
+				String dir = request.getParameter(legacy ? "sSortDir_" + o : "order[" + o + "][dir]");
+				orders.add(new int[] { columnIndex[column], "desc".equalsIgnoreCase(dir) ? -1 : 1 });
+			}
+		}
+
+		/**
+		 * 검색 결과를 보관할 때 사용하는 키
+		 */
+		String cacheKey() {
+			StringBuilder buffer = new StringBuilder();
+			for (String word : words) {
+				buffer.append(word).append('\u0000');
+			}
+			buffer.append('\u0001').append(columnSearch).append('\u0001');
+			for (int[] order : orders) {
+				buffer.append(order[0]).append(order[1] < 0 ? 'd' : 'a');
+			}
+			return buffer.toString();
+		}
+	}
+}
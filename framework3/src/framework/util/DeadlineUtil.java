@@ -0,0 +1,178 @@
+package framework.util;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * 요청 처리 기한(deadline)을 쓰레드 단위로 관리하는 유틸리티 클래스
+ * DispatcherServlet 이 요청마다 기한을 설정하면 DB 문장의 쿼리 타임아웃과 HttpUtil 의 소켓 타임아웃으로 남은 시간이 전달되고,
+ * 기한이 지나면 실행중인 DB 문장을 취소(Statement.cancel)한다.
+ */
+public final class DeadlineUtil {
+	private static final Log logger = LogFactory.getLog(DeadlineUtil.class);
+	private static final ThreadLocal<Deadline> current = new ThreadLocal<Deadline>();
+	private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, "framework-deadline");
+			t.setDaemon(true);
+			return t;
+		}
+	});
+
+	/**
+	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
+	 */
+	private DeadlineUtil() {
+	}
+
+	/**
+	 * 기한 초과 예외
+	 */
+	public static class DeadlineExceededException extends RuntimeException {
+		private static final long serialVersionUID = 2387430539154036727L;
+
+		public DeadlineExceededException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * 현재 쓰레드에 처리 기한을 설정한다.
+	 * @param timeoutMilliseconds 지금부터 남은 처리 시간(밀리세컨드), 0 이하이면 기한을 설정하지 않는다.
+	 */
+	public static void start(long timeoutMilliseconds) {
+		clear();
+		if (timeoutMilliseconds <= 0) {
+			return;
+		}
+		final Deadline deadline = new Deadline(System.currentTimeMillis() + timeoutMilliseconds);
+		deadline.future = scheduler.schedule(new Runnable() {
+			@Override
+			public void run() {
+				deadline.cancelStatements();
+			}
+		}, timeoutMilliseconds, TimeUnit.MILLISECONDS);
+		current.set(deadline);
+	}
+
+	/**
+	 * 현재 쓰레드의 처리 기한을 해제한다.
+	 */
+	public static void clear() {
+		Deadline deadline = current.get();
+		if (deadline != null) {
+			deadline.future.cancel(false);
+			current.remove();
+		}
+	}
+
+	/**
+	 * 현재 쓰레드에 처리 기한이 설정되어 있는지 여부를 리턴한다.
+	 * @return 설정 여부
+	 */
+	public static boolean isActive() {
+		return current.get() != null;
+	}
+
+	/**
+	 * 남은 처리 시간을 리턴한다.
+	 * @return 남은 시간(밀리세컨드), 기한이 설정되지 않았으면 Long.MAX_VALUE
+	 */
+	public static long remainingMillis() {
+		Deadline deadline = current.get();
+		if (deadline == null) {
+			return Long.MAX_VALUE;
+		}
+		return deadline.expireTime - System.currentTimeMillis();
+	}
+
+	/**
+	 * 처리 기한이 지났으면 예외를 발생시킨다.
+	 */
+	public static void check() {
+		if (remainingMillis() <= 0) {
+			throw new DeadlineExceededException("요청 처리 기한이 초과되었습니다.");
+		}
+	}
+
+	/**
+	 * 요청한 타임아웃과 남은 처리 시간 중 작은 값을 리턴한다.
+	 * @param timeoutMilliseconds 요청한 타임아웃(밀리세컨드), 0 이하이면 타임아웃 없음
+	 * @return 적용할 타임아웃(밀리세컨드), 0 이면 타임아웃 없음
+	 */
+	public static int getTimeout(int timeoutMilliseconds) {
+		if (!isActive()) {
+			return timeoutMilliseconds;
+		}
+		check();
+		long remaining = remainingMillis();
+		if (timeoutMilliseconds > 0 && timeoutMilliseconds < remaining) {
+			return timeoutMilliseconds;
+		}
+		return (int) Math.min(remaining, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * 남은 처리 시간을 DB 문장의 쿼리 타임아웃으로 설정하고, 기한이 지나면 취소되도록 등록한다.
+	 * @param stmt DB 문장
+	 */
+	public static void apply(Statement stmt) {
+		Deadline deadline = current.get();
+		if (deadline == null || stmt == null) {
+			return;
+		}
+		check();
+		try {
+			int seconds = (int) Math.max(1, (remainingMillis() + 999) / 1000);
+			int queryTimeout = stmt.getQueryTimeout();
+			if (queryTimeout == 0 || queryTimeout > seconds) {
+				stmt.setQueryTimeout(seconds);
+			}
+		} catch (SQLException e) {
+			logger.error("", e);
+		}
+		deadline.statements.add(stmt);
+	}
+
+	/*
+	 * 요청별 처리 기한
+	 */
+	private static final class Deadline {
+		private final long expireTime;
+		private final Set<Statement> statements = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<Statement, Boolean>()));
+		private ScheduledFuture<?> future = null;
+
+		Deadline(long expireTime) {
+			this.expireTime = expireTime;
+		}
+
+		void cancelStatements() {
+			Statement[] stmts;
+			synchronized (statements) {
+				stmts = statements.toArray(new Statement[statements.size()]);
+			}
+			for (Statement stmt : stmts) {
+				try {
+					if (!stmt.isClosed()) {
+						stmt.cancel();
+						logger.info("처리 기한이 초과되어 실행중인 문장을 취소하였습니다.");
+					}
+				} catch (Throwable e) {
+					logger.error("", e);
+				}
+			}
+		}
+	}
+}
@@ -8,21 +8,43 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.servlet.http.HttpServletResponse;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.apache.commons.fileupload.FileItem;
+import org.apache.commons.fileupload.disk.DiskFileItem;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
 import org.apache.poi.hssf.record.crypto.Biff8EncryptionKey;
 import org.apache.poi.hssf.usermodel.HSSFCellStyle;
 import org.apache.poi.hssf.usermodel.HSSFFont;
@@ -32,20 +54,36 @@ import org.apache.poi.poifs.crypt.Decryptor;
 import org.apache.poi.poifs.crypt.EncryptionInfo;
 import org.apache.poi.poifs.crypt.EncryptionMode;
 import org.apache.poi.poifs.crypt.Encryptor;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
 import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
+import framework.config.Config;
+import framework.db.RecordHandler;
 import framework.db.RecordMap;
 import framework.db.RecordSet;
+import framework.db.RecordWriter;
 
 /**
  * Excel 출력을 위해 이용할 수 있는 유틸리티 클래스
@@ -181,6 +219,68 @@ public final class ExcelUtil {
 		}
 	}
 
+	/**
+	 * 확장자에 의해서 엑셀파일을 이벤트 방식으로 파싱하여 한 행씩 핸들러로 전달한다.
+	 * 워크북 전체를 메모리에 적재하지 않으므로 대용량 파일을 일정한 메모리로 처리할 수 있다.
+	 * @param fileItem 파일아이템
+	 * @param handler 행 데이터를 처리할 핸들러
+	 * @return 처리건수
+	 */
+	public static int parse(FileItem fileItem, RecordHandler handler) {
+		return parse(fileItem, null, handler);
+	}
+
+	/**
+	 * 암호화된 엑셀파일을 이벤트 방식으로 파싱하여 한 행씩 핸들러로 전달한다.
+	 * @param fileItem 파일아이템
+	 * @param password 비밀번호
+	 * @param handler 행 데이터를 처리할 핸들러
+	 * @return 처리건수
+	 */
+	public static int parse(FileItem fileItem, String password, RecordHandler handler) {
+		String ext = FileUtil.getFileExtension(fileItem.getName());
+		File file = null;
+		boolean isTempFile = false;
+		try {
+			if (fileItem instanceof DiskFileItem && !fileItem.isInMemory()) {
+				file = ((DiskFileItem) fileItem).getStoreLocation();
+			}
+			if (file == null || !file.exists()) {
+				file = copyToTempFile(fileItem.getInputStream());
+				isTempFile = true;
+			}
+			return parseEvent(file, ext, password, handler);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (isTempFile && file != null && !file.delete()) {
+				logger.error("임시파일을 삭제할 수 없습니다. : " + file);
+			}
+		}
+	}
+
+	/**
+	 * 확장자에 의해서 엑셀파일을 이벤트 방식으로 파싱하여 한 행씩 핸들러로 전달한다.
+	 * 워크북 전체를 메모리에 적재하지 않으므로 대용량 파일을 일정한 메모리로 처리할 수 있다.
+	 * @param file 파일
+	 * @param handler 행 데이터를 처리할 핸들러
+	 * @return 처리건수
+	 */
+	public static int parse(File file, RecordHandler handler) {
+		return parse(file, null, handler);
+	}
+
+	/**
+	 * 암호화된 엑셀파일을 이벤트 방식으로 파싱하여 한 행씩 핸들러로 전달한다.
+	 * @param file 파일
+	 * @param password 비밀번호
+	 * @param handler 행 데이터를 처리할 핸들러
+	 * @return 처리건수
+	 */
+	public static int parse(File file, String password, RecordHandler handler) {
+		return parseEvent(file, FileUtil.getFileExtension(file), password, handler);
+	}
+
 	/**
 	 * RecordSet을 엑셀2003 형식으로 변환하여 응답객체로 전송한다.
 	 * @param response 응답 객체
@@ -281,6 +381,7 @@ public final class ExcelUtil {
 
 	/**
 	 * RecordSet을 엑셀2007 형식으로 변환하여 응답객체로 전송한다.
+	 * 행수가 excelutil.streaming.threshold(기본값 10000)보다 많으면 스트리밍 방식(renderExcel2007S)으로 기록한다.
 	 * @param response 응답 객체
 	 * @param rs 객체
 	 * @param fileName 파일명
@@ -292,6 +393,9 @@ public final class ExcelUtil {
 		if (response == null || rs == null || fileName == null) {
 			return 0;
 		}
+		if (rs.getRowCount() > getStreamingThreshold()) {
+			return renderExcel2007S(response, rs, fileName, header, password);
+		}
 		int rowCount = 0;
 		try {
 			setResponseHeaders(response, fileName);
@@ -336,6 +440,7 @@ public final class ExcelUtil {
 
 	/**
 	 * RecordSet을 엑셀2007 형식으로 변환하여 파일로 저장한다.
+	 * 행수가 excelutil.streaming.threshold(기본값 10000)보다 많으면 스트리밍 방식(writeExcel2007S)으로 기록한다.
 	 * @param file 파일
 	 * @param rs RecordSet 객체
 	 * @param header 헤더 배열
@@ -346,6 +451,9 @@ public final class ExcelUtil {
 		if (file == null || rs == null) {
 			return 0;
 		}
+		if (rs.getRowCount() > getStreamingThreshold()) {
+			return writeExcel2007S(file, rs, header, password);
+		}
 		int rowCount = 0;
 		FileOutputStream fos = null;
 		try {
@@ -412,28 +520,12 @@ public final class ExcelUtil {
 		if (response == null || rs == null || fileName == null) {
 			return 0;
 		}
-		int rowCount = 0;
-		SXSSFWorkbook workbook = new SXSSFWorkbook();
 		try {
 			setResponseHeaders(response, fileName);
-			workbook.setCompressTempFiles(true);
-			if (password == null || "".equals(password)) {
-				rowCount = writeWorkbook(response.getOutputStream(), rs, header, workbook);
-			} else {
-				POIFSFileSystem fs = new POIFSFileSystem();
-				EncryptionInfo info = new EncryptionInfo(fs, EncryptionMode.agile);
-				Encryptor enc = info.getEncryptor();
-				enc.confirmPassword(password);
-				OutputStream os = enc.getDataStream(fs);
-				rowCount = writeWorkbook(os, rs, header, workbook);
-				fs.writeFilesystem(response.getOutputStream());
-			}
-		} catch (Throwable e) {
+			return streamExcel2007(response.getOutputStream(), rs, header, password);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
-		} finally {
-			workbook.dispose();
 		}
-		return rowCount;
 	}
 
 	/**
@@ -469,24 +561,11 @@ public final class ExcelUtil {
 		if (file == null || rs == null) {
 			return 0;
 		}
-		int rowCount = 0;
 		FileOutputStream fos = null;
-		SXSSFWorkbook workbook = new SXSSFWorkbook();
 		try {
 			fos = new FileOutputStream(file);
-			workbook.setCompressTempFiles(true);
-			if (password == null || "".equals(password)) {
-				rowCount = writeWorkbook(fos, rs, header, workbook);
-			} else {
-				POIFSFileSystem fs = new POIFSFileSystem();
-				EncryptionInfo info = new EncryptionInfo(fs, EncryptionMode.agile);
-				Encryptor enc = info.getEncryptor();
-				enc.confirmPassword(password);
-				OutputStream os = enc.getDataStream(fs);
-				rowCount = writeWorkbook(os, rs, header, workbook);
-				fs.writeFilesystem(fos);
-			}
-		} catch (Throwable e) {
+			return streamExcel2007(fos, rs, header, password);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
 		} finally {
 			if (fos != null) {
@@ -496,9 +575,7 @@ public final class ExcelUtil {
 					logger.error("", e);
 				}
 			}
-			workbook.dispose();
 		}
-		return rowCount;
 	}
 
 	/**
@@ -601,6 +678,7 @@ public final class ExcelUtil {
 
 	/**
 	 * ResultSet을 엑셀2007 형식으로 변환하여 응답객체로 전송한다.
+	 * 행수를 미리 알 수 없으므로 항상 스트리밍 방식(renderExcel2007S)으로 기록한다.
 	 * @param response 응답 객체
 	 * @param rs ResultSet 객체
 	 * @param fileName 파일명
@@ -609,28 +687,7 @@ public final class ExcelUtil {
 	 * @return 처리건수
 	 */
 	public static int renderExcel2007(HttpServletResponse response, ResultSet rs, String fileName, String[] header, String password) {
-		if (response == null || rs == null || fileName == null) {
-			return 0;
-		}
-		int rowCount = 0;
-		try {
-			setResponseHeaders(response, fileName);
-			Workbook workbook = new XSSFWorkbook();
-			if (password == null || "".equals(password)) {
-				rowCount = writeWorkbook(response.getOutputStream(), rs, header, workbook);
-			} else {
-				POIFSFileSystem fs = new POIFSFileSystem();
-				EncryptionInfo info = new EncryptionInfo(fs, EncryptionMode.agile);
-				Encryptor enc = info.getEncryptor();
-				enc.confirmPassword(password);
-				OutputStream os = enc.getDataStream(fs);
-				rowCount = writeWorkbook(os, rs, header, workbook);
-				fs.writeFilesystem(response.getOutputStream());
-			}
-		} catch (Throwable e) {
-			throw new RuntimeException(e);
-		}
-		return rowCount;
+		return renderExcel2007S(response, rs, fileName, header, password);
 	}
 
 	/**
@@ -656,6 +713,7 @@ public final class ExcelUtil {
 
 	/**
 	 * ResultSet을 엑셀2007 형식으로 변환하여 파일로 저장한다.
+	 * 행수를 미리 알 수 없으므로 항상 스트리밍 방식(writeExcel2007S)으로 기록한다.
 	 * @param file 파일
 	 * @param rs ResultSet 객체
 	 * @param header 헤더 배열
@@ -663,37 +721,7 @@ public final class ExcelUtil {
 	 * @return 처리건수
 	 */
 	public static int writeExcel2007(File file, ResultSet rs, String[] header, String password) {
-		if (file == null || rs == null) {
-			return 0;
-		}
-		int rowCount = 0;
-		FileOutputStream fos = null;
-		try {
-			fos = new FileOutputStream(file);
-			Workbook workbook = new XSSFWorkbook();
-			if (password == null || "".equals(password)) {
-				rowCount = writeWorkbook(fos, rs, header, workbook);
-			} else {
-				POIFSFileSystem fs = new POIFSFileSystem();
-				EncryptionInfo info = new EncryptionInfo(fs, EncryptionMode.agile);
-				Encryptor enc = info.getEncryptor();
-				enc.confirmPassword(password);
-				OutputStream os = enc.getDataStream(fs);
-				rowCount = writeWorkbook(os, rs, header, workbook);
-				fs.writeFilesystem(fos);
-			}
-		} catch (Throwable e) {
-			throw new RuntimeException(e);
-		} finally {
-			if (fos != null) {
-				try {
-					fos.close();
-				} catch (IOException e) {
-					logger.error("", e);
-				}
-			}
-		}
-		return rowCount;
+		return writeExcel2007S(file, rs, header, password);
 	}
 
 	/**
@@ -732,28 +760,12 @@ public final class ExcelUtil {
 		if (response == null || rs == null || fileName == null) {
 			return 0;
 		}
-		int rowCount = 0;
-		SXSSFWorkbook workbook = new SXSSFWorkbook();
 		try {
 			setResponseHeaders(response, fileName);
-			workbook.setCompressTempFiles(true);
-			if (password == null || "".equals(password)) {
-				rowCount = writeWorkbook(response.getOutputStream(), rs, header, workbook);
-			} else {
-				POIFSFileSystem fs = new POIFSFileSystem();
-				EncryptionInfo info = new EncryptionInfo(fs, EncryptionMode.agile);
-				Encryptor enc = info.getEncryptor();
-				enc.confirmPassword(password);
-				OutputStream os = enc.getDataStream(fs);
-				rowCount = writeWorkbook(os, rs, header, workbook);
-				fs.writeFilesystem(response.getOutputStream());
-			}
-		} catch (Throwable e) {
+			return streamExcel2007(response.getOutputStream(), rs, header, password);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
-		} finally {
-			workbook.dispose();
 		}
-		return rowCount;
 	}
 
 	/**
@@ -789,24 +801,11 @@ public final class ExcelUtil {
 		if (file == null || rs == null) {
 			return 0;
 		}
-		int rowCount = 0;
 		FileOutputStream fos = null;
-		SXSSFWorkbook workbook = new SXSSFWorkbook();
 		try {
 			fos = new FileOutputStream(file);
-			workbook.setCompressTempFiles(true);
-			if (password == null || "".equals(password)) {
-				rowCount = writeWorkbook(fos, rs, header, workbook);
-			} else {
-				POIFSFileSystem fs = new POIFSFileSystem();
-				EncryptionInfo info = new EncryptionInfo(fs, EncryptionMode.agile);
-				Encryptor enc = info.getEncryptor();
-				enc.confirmPassword(password);
-				OutputStream os = enc.getDataStream(fs);
-				rowCount = writeWorkbook(os, rs, header, workbook);
-				fs.writeFilesystem(fos);
-			}
-		} catch (Throwable e) {
+			return streamExcel2007(fos, rs, header, password);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
 		} finally {
 			if (fos != null) {
@@ -816,9 +815,7 @@ public final class ExcelUtil {
 					logger.error("", e);
 				}
 			}
-			workbook.dispose();
 		}
-		return rowCount;
 	}
 
 	/**
@@ -921,6 +918,7 @@ public final class ExcelUtil {
 
 	/**
 	 * List객체를 엑셀2007 형식으로 변환하여 응답객체로 전송한다.
+	 * 행수가 excelutil.streaming.threshold(기본값 10000)보다 많으면 스트리밍 방식(renderExcel2007S)으로 기록한다.
 	 * @param response 응답 객체
 	 * @param mapList 리스트 객체
 	 * @param fileName 파일명
@@ -932,6 +930,9 @@ public final class ExcelUtil {
 		if (response == null || mapList == null || fileName == null) {
 			return 0;
 		}
+		if (mapList.size() > getStreamingThreshold()) {
+			return renderExcel2007S(response, mapList, fileName, header, password);
+		}
 		int rowCount = 0;
 		try {
 			setResponseHeaders(response, fileName);
@@ -976,6 +977,7 @@ public final class ExcelUtil {
 
 	/**
 	 * List객체를 엑셀2007 형식으로 변환하여 파일로 저장한다.
+	 * 행수가 excelutil.streaming.threshold(기본값 10000)보다 많으면 스트리밍 방식(writeExcel2007S)으로 기록한다.
 	 * @param file 파일
 	 * @param mapList 리스트 객체
 	 * @param header 헤더 배열
@@ -986,6 +988,9 @@ public final class ExcelUtil {
 		if (file == null || mapList == null) {
 			return 0;
 		}
+		if (mapList.size() > getStreamingThreshold()) {
+			return writeExcel2007S(file, mapList, header, password);
+		}
 		int rowCount = 0;
 		FileOutputStream fos = null;
 		try {
@@ -1052,28 +1057,12 @@ public final class ExcelUtil {
 		if (response == null || mapList == null || fileName == null) {
 			return 0;
 		}
-		int rowCount = 0;
-		SXSSFWorkbook workbook = new SXSSFWorkbook();
 		try {
 			setResponseHeaders(response, fileName);
-			workbook.setCompressTempFiles(true);
-			if (password == null || "".equals(password)) {
-				rowCount = writeWorkbook(response.getOutputStream(), mapList, header, workbook);
-			} else {
-				POIFSFileSystem fs = new POIFSFileSystem();
-				EncryptionInfo info = new EncryptionInfo(fs, EncryptionMode.agile);
-				Encryptor enc = info.getEncryptor();
-				enc.confirmPassword(password);
-				OutputStream os = enc.getDataStream(fs);
-				rowCount = writeWorkbook(os, mapList, header, workbook);
-				fs.writeFilesystem(response.getOutputStream());
-			}
-		} catch (Throwable e) {
+			return streamExcel2007(response.getOutputStream(), mapList, header, password);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
-		} finally {
-			workbook.dispose();
 		}
-		return rowCount;
 	}
 
 	/**
@@ -1109,24 +1098,11 @@ public final class ExcelUtil {
 		if (file == null || mapList == null) {
 			return 0;
 		}
-		int rowCount = 0;
 		FileOutputStream fos = null;
-		SXSSFWorkbook workbook = new SXSSFWorkbook();
 		try {
 			fos = new FileOutputStream(file);
-			workbook.setCompressTempFiles(true);
-			if (password == null || "".equals(password)) {
-				rowCount = writeWorkbook(fos, mapList, header, workbook);
-			} else {
-				POIFSFileSystem fs = new POIFSFileSystem();
-				EncryptionInfo info = new EncryptionInfo(fs, EncryptionMode.agile);
-				Encryptor enc = info.getEncryptor();
-				enc.confirmPassword(password);
-				OutputStream os = enc.getDataStream(fs);
-				rowCount = writeWorkbook(os, mapList, header, workbook);
-				fs.writeFilesystem(fos);
-			}
-		} catch (Throwable e) {
+			return streamExcel2007(fos, mapList, header, password);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
 		} finally {
 			if (fos != null) {
@@ -1136,9 +1112,62 @@ public final class ExcelUtil {
 					logger.error("", e);
 				}
 			}
-			workbook.dispose();
 		}
-		return rowCount;
+	}
+
+	/**
+	 * 행을 전달받는 즉시 엑셀2007 스트리밍 형식으로 기록하고, close 시 응답객체로 전송하는 RecordWriter 를 생성한다.
+	 * <br>
+	 * ex) Mybatis 조회 결과를 엑셀로 스트리밍 출력하는 경우 : RecordWriter writer = ExcelUtil.openExcel2007SWriter(response, "list.xlsx", header); dao.selectStream("statement", param, writer); writer.close();
+	 * @param response 응답 객체
+	 * @param fileName 파일명
+	 * @param header 헤더 배열
+	 * @return RecordWriter 객체, 출력이 끝나면 close 를 호출해야 한다.
+	 */
+	public static RecordWriter openExcel2007SWriter(HttpServletResponse response, String fileName, String[] header) {
+		return openExcel2007SWriter(response, fileName, header, null);
+	}
+
+	/**
+	 * 행을 전달받는 즉시 엑셀2007 스트리밍 형식으로 기록하고, close 시 응답객체로 전송하는 RecordWriter 를 생성한다.
+	 * @param response 응답 객체
+	 * @param fileName 파일명
+	 * @param header 헤더 배열
+	 * @param password 열기암호
+	 * @return RecordWriter 객체, 출력이 끝나면 close 를 호출해야 한다.
+	 */
+	public static RecordWriter openExcel2007SWriter(HttpServletResponse response, String fileName, String[] header, String password) {
+		try {
+			setResponseHeaders(response, fileName);
+			return new Excel2007StreamWriter(response.getOutputStream(), false, header, password);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 행을 전달받는 즉시 엑셀2007 스트리밍 형식으로 기록하고, close 시 파일로 저장하는 RecordWriter 를 생성한다.
+	 * @param file 파일
+	 * @param header 헤더 배열
+	 * @return RecordWriter 객체, 출력이 끝나면 close 를 호출해야 한다.
+	 */
+	public static RecordWriter openExcel2007SWriter(File file, String[] header) {
+		return openExcel2007SWriter(file, header, null);
+	}
+
+	/**
+	 * 행을 전달받는 즉시 엑셀2007 스트리밍 형식으로 기록하고, close 시 파일로 저장하는 RecordWriter 를 생성한다.
+	 * @param file 파일
+	 * @param header 헤더 배열
+	 * @param password 열기암호
+	 * @return RecordWriter 객체, 출력이 끝나면 close 를 호출해야 한다.
+	 */
+	public static RecordWriter openExcel2007SWriter(File file, String[] header, String password) {
+		try {
+			return new Excel2007StreamWriter(new FileOutputStream(file), true, header, password);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	////////////////////////////////////////////////////////////////////////////////////////// Private 메소드
@@ -1321,6 +1350,339 @@ public final class ExcelUtil {
 		return mapList;
 	}
 
+	/**
+	 * 엑셀파일을 이벤트 방식으로 파싱하여 행 단위로 핸들러에 전달
+	 */
+	private static int parseEvent(File file, String ext, String password, RecordHandler handler) {
+		if (handler == null) {
+			throw new IllegalArgumentException("handler");
+		}
+		if ("xls".equalsIgnoreCase(ext)) {
+			return parseExcel2003Event(file, password, handler);
+		} else if ("xlsx".equalsIgnoreCase(ext)) {
+			return parseExcel2007Event(file, password, handler);
+		} else {
+			throw new RuntimeException("지원하지 않는 파일포맷입니다.");
+		}
+	}
+
+	private static int parseExcel2003Event(File file, String password, RecordHandler handler) {
+		NPOIFSFileSystem fs = null;
+		try {
+			if (password != null) {
+				Biff8EncryptionKey.setCurrentUserPassword(password);
+			}
+			fs = new NPOIFSFileSystem(file, true);
+			Excel2003EventListener listener = new Excel2003EventListener(new RowCollector(handler));
+			HSSFRequest request = new HSSFRequest();
+			request.addListenerForAllRecords(listener);
+			new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs.getRoot());
+			return listener.finish();
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		} finally {
+			Biff8EncryptionKey.setCurrentUserPassword(null);
+			if (fs != null) {
+				try {
+					fs.close();
+				} catch (IOException e) {
+					logger.error("", e);
+				}
+			}
+		}
+	}
+
+	private static int parseExcel2007Event(File file, String password, RecordHandler handler) {
+		OPCPackage pkg = null;
+		InputStream sheet = null;
+		File decryptedFile = null;
+		try {
+			if (password == null) {
+				pkg = OPCPackage.open(file, PackageAccess.READ);
+			} else {
+				NPOIFSFileSystem fs = new NPOIFSFileSystem(file, true);
+				try {
+					Decryptor d = Decryptor.getInstance(new EncryptionInfo(fs));
+					if (!d.verifyPassword(password)) {
+						throw new RuntimeException("엑셀파일의 비밀번호가 일치하지 않습니다.");
+					}
+					decryptedFile = copyToTempFile(d.getDataStream(fs));
+				} finally {
+					fs.close();
+				}
+				pkg = OPCPackage.open(decryptedFile, PackageAccess.READ);
+			}
+			XSSFReader reader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			RowCollector collector = new RowCollector(handler);
+			Iterator<InputStream> sheets = reader.getSheetsData();
+			if (!sheets.hasNext()) {
+				return 0;
+			}
+			sheet = sheets.next();
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+			XMLReader parser = factory.newSAXParser().getXMLReader();
+			parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings, new Excel2007SheetHandler(collector), new ExcelDataFormatter(), false));
+			parser.parse(new InputSource(sheet));
+			return collector.getRowCount();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
+		} finally {
+			if (sheet != null) {
+				try {
+					sheet.close();
+				} catch (IOException e) {
+					logger.error("", e);
+				}
+			}
+			if (pkg != null) {
+				pkg.revert();
+			}
+			if (decryptedFile != null && !decryptedFile.delete()) {
+				logger.error("임시파일을 삭제할 수 없습니다. : " + decryptedFile);
+			}
+		}
+	}
+
+	/**
+	 * 스트림을 임시파일로 복사
+	 */
+	private static File copyToTempFile(InputStream is) throws IOException {
+		File tempFile = File.createTempFile("excel", ".tmp");
+		OutputStream os = null;
+		try {
+			os = new FileOutputStream(tempFile);
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = is.read(buffer)) != -1) {
+				os.write(buffer, 0, read);
+			}
+		} catch (IOException e) {
+			if (!tempFile.delete()) {
+				logger.error("임시파일을 삭제할 수 없습니다. : " + tempFile);
+			}
+			throw e;
+		} finally {
+			if (os != null) {
+				os.close();
+			}
+			is.close();
+		}
+		return tempFile;
+	}
+
+	/**
+	 * 셀 단위로 전달되는 값을 모아 행 단위로 핸들러에 전달하는 클래스
+	 * 첫번째 행의 컬럼 수를 기준으로 "0" 부터 시작하는 키를 사용한다.
+	 */
+	private static final class RowCollector {
+		private final RecordHandler handler;
+		private final List<String> cells = new ArrayList<String>();
+		private String[] keys = null;
+		private int rowCount = 0;
+
+		RowCollector(RecordHandler handler) {
+			this.handler = handler;
+		}
+
+		void cell(int col, String value) {
+			while (cells.size() <= col) {
+				cells.add("");
+			}
+			cells.set(col, value);
+		}
+
+		void endRow() {
+			if (keys == null) {
+				keys = new String[cells.size()];
+				for (int j = 0; j < keys.length; j++) {
+					keys[j] = String.valueOf(j);
+				}
+			}
+			RecordMap map = new RecordMap(keys.length);
+			for (int j = 0; j < keys.length; j++) {
+				map.put(keys[j], j < cells.size() ? cells.get(j) : "");
+			}
+			cells.clear();
+			handler.handleRecord(map);
+			rowCount++;
+		}
+
+		int getRowCount() {
+			return rowCount;
+		}
+	}
+
+	/**
+	 * 엑셀2007 시트 이벤트 핸들러
+	 */
+	private static final class Excel2007SheetHandler implements SheetContentsHandler {
+		private final RowCollector collector;
+		private int col = -1;
+
+		Excel2007SheetHandler(RowCollector collector) {
+			this.collector = collector;
+		}
+
+		@Override
+		public void startRow(int rowNum) {
+			col = -1;
+		}
+
+		@Override
+		public void endRow() {
+			collector.endRow();
+		}
+
+		@Override
+		public void cell(String cellReference, String formattedValue) {
+			if (cellReference == null) {
+				col++;
+			} else {
+				col = new CellReference(cellReference).getCol();
+			}
+			collector.cell(col, formattedValue == null ? "" : formattedValue);
+		}
+
+		@Override
+		public void headerFooter(String text, boolean isHeader, String tagName) {
+		}
+	}
+
+	/**
+	 * 기존 파싱 결과와 동일하게 날짜는 yyyy-MM-dd, 숫자는 셀의 문자열 값으로 변환하는 포맷터
+	 */
+	private static final class ExcelDataFormatter extends DataFormatter {
+		private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+
+		@Override
+		public String formatRawCellContents(double value, int formatIndex, String formatString) {
+			return formatRawCellContents(value, formatIndex, formatString, false);
+		}
+
+		@Override
+		public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+			if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+				return dateFormat.format(DateUtil.getJavaDate(value, use1904Windowing));
+			}
+			return NumberToTextConverter.toText(value);
+		}
+	}
+
+	/**
+	 * 엑셀2003 레코드 이벤트 리스너, 첫번째 워크시트만 처리한 후 중단한다.
+	 */
+	private static final class Excel2003EventListener extends AbortableHSSFListener {
+		private final RowCollector collector;
+		private final FormatTrackingHSSFListener formatListener = new FormatTrackingHSSFListener(null);
+		private final ExcelDataFormatter formatter = new ExcelDataFormatter();
+		private SSTRecord sstRecord = null;
+		private int sheetIndex = -1;
+		private int currRow = -1;
+		private int stringRow = -1;
+		private int stringCol = -1;
+
+		Excel2003EventListener(RowCollector collector) {
+			this.collector = collector;
+		}
+
+		@Override
+		public short abortableProcessRecord(Record record) {
+			formatListener.processRecordInternally(record);
+			switch (record.getSid()) {
+			case BOFRecord.sid:
+				if (((BOFRecord) record).getType() == BOFRecord.TYPE_WORKSHEET) {
+					sheetIndex++;
+				}
+				return 0;
+			case EOFRecord.sid:
+				if (sheetIndex == 0) {
+					return 1;
+				}
+				return 0;
+			case SSTRecord.sid:
+				sstRecord = (SSTRecord) record;
+				return 0;
+			default:
+				break;
+			}
+			if (sheetIndex != 0) {
+				return 0;
+			}
+			switch (record.getSid()) {
+			case LabelSSTRecord.sid:
+				LabelSSTRecord lsr = (LabelSSTRecord) record;
+				cell(lsr.getRow(), lsr.getColumn(), sstRecord == null ? "" : sstRecord.getString(lsr.getSSTIndex()).toString());
+				break;
+			case LabelRecord.sid:
+				LabelRecord lr = (LabelRecord) record;
+				cell(lr.getRow(), lr.getColumn(), lr.getValue());
+				break;
+			case NumberRecord.sid:
+				NumberRecord nr = (NumberRecord) record;
+				cell(nr.getRow(), nr.getColumn(), formatNumber(nr.getValue(), nr));
+				break;
+			case BoolErrRecord.sid:
+				BoolErrRecord ber = (BoolErrRecord) record;
+				cell(ber.getRow(), ber.getColumn(), ber.isBoolean() ? String.valueOf(ber.getBooleanValue()).toUpperCase() : "");
+				break;
+			case FormulaRecord.sid:
+				FormulaRecord fr = (FormulaRecord) record;
+				switch (fr.getCachedResultType()) {
+				case Cell.CELL_TYPE_STRING:
+					stringRow = fr.getRow();
+					stringCol = fr.getColumn();
+					break;
+				case Cell.CELL_TYPE_NUMERIC:
+					cell(fr.getRow(), fr.getColumn(), formatNumber(fr.getValue(), fr));
+					break;
+				case Cell.CELL_TYPE_BOOLEAN:
+					cell(fr.getRow(), fr.getColumn(), String.valueOf(fr.getCachedBooleanValue()).toUpperCase());
+					break;
+				default:
+					cell(fr.getRow(), fr.getColumn(), "");
+					break;
+				}
+				break;
+			case StringRecord.sid:
+				if (stringRow >= 0) {
+					cell(stringRow, stringCol, ((StringRecord) record).getString());
+					stringRow = -1;
+					stringCol = -1;
+				}
+				break;
+			default:
+				break;
+			}
+			return 0;
+		}
+
+		int finish() {
+			if (currRow >= 0) {
+				collector.endRow();
+				currRow = -1;
+			}
+			return collector.getRowCount();
+		}
+
+		private void cell(int row, int col, String value) {
+			if (row != currRow) {
+				if (currRow >= 0) {
+					collector.endRow();
+				}
+				currRow = row;
+			}
+			collector.cell(col, value == null ? "" : value);
+		}
+
+		private String formatNumber(double value, CellValueRecordInterface cell) {
+			return formatter.formatRawCellContents(value, formatListener.getFormatIndex(cell), formatListener.getFormatString(cell));
+		}
+	}
+
 	/**
 	 * 헤더 셀 스타일 리턴
 	 */
@@ -1418,6 +1780,76 @@ public final class ExcelUtil {
 		response.setHeader("Expires", "-1;");
 	}
 
+	/**
+	 * 엑셀2007 형식을 스트리밍 방식으로 바꿔서 기록할 행수의 기준
+	 */
+	private static int getStreamingThreshold() {
+		return Config.getInstance().getInt("excelutil.streaming.threshold", 10000);
+	}
+
+	/**
+	 * RecordSet을 스트리밍 엔진으로 기록한다.
+	 */
+	private static int streamExcel2007(OutputStream os, RecordSet rs, String[] header, String password) {
+		Excel2007StreamWriter writer = new Excel2007StreamWriter(os, false, header, password);
+		try {
+			writer.append(rs);
+		} catch (RuntimeException e) {
+			writer.dispose();
+			throw e;
+		}
+		writer.close();
+		return writer.getRowCount();
+	}
+
+	/**
+	 * ResultSet을 스트리밍 엔진으로 기록한다.
+	 */
+	private static int streamExcel2007(OutputStream os, ResultSet rs, String[] header, String password) {
+		Excel2007StreamWriter writer = new Excel2007StreamWriter(os, false, header, password);
+		try {
+			writer.append(rs);
+		} catch (SQLException e) {
+			writer.dispose();
+			throw new RuntimeException(e);
+		} catch (RuntimeException e) {
+			writer.dispose();
+			throw e;
+		}
+		writer.close();
+		return writer.getRowCount();
+	}
+
+	/**
+	 * List객체를 스트리밍 엔진으로 기록한다.
+	 */
+	private static int streamExcel2007(OutputStream os, List<RecordMap> mapList, String[] header, String password) {
+		Excel2007StreamWriter writer = new Excel2007StreamWriter(os, false, header, password);
+		try {
+			for (RecordMap map : mapList) {
+				writer.handleRecord(map);
+			}
+		} catch (RuntimeException e) {
+			writer.dispose();
+			throw e;
+		}
+		writer.close();
+		return writer.getRowCount();
+	}
+
+	/**
+	 * 워크북을 암호화하여 스트림으로 전송한다.
+	 * 암호화 스트림이 암호문을 POI 임시파일에 기록하고 writeFilesystem 에서 스트리밍하므로 워크북 전체를 메모리에 올리지 않는다.
+	 */
+	private static void writeEncrypted(Workbook workbook, String password, OutputStream os) throws IOException, GeneralSecurityException {
+		POIFSFileSystem fs = new POIFSFileSystem();
+		EncryptionInfo info = new EncryptionInfo(fs, EncryptionMode.agile);
+		Encryptor enc = info.getEncryptor();
+		enc.confirmPassword(password);
+		workbook.write(enc.getDataStream(fs));
+		fs.writeFilesystem(os);
+	}
+
 	/**
 	 * RecordSet을 워크북으로 변환하여 스트림으로 전송한다.
 	 */
@@ -1538,4 +1970,212 @@ public final class ExcelUtil {
 		workbook.write(os);
 		return rowCount;
 	}
-}
\ No newline at end of file
+
+	/*
+	 * 엑셀2007 스트리밍 출력 엔진, 메모리에는 SXSSFWorkbook 의 윈도우 크기만큼의 행만 유지된다.
+	 * 셀 스타일은 워크북마다 한번만 만들어 재사용하고, 시트의 최대 행수에 도달하면 다음 시트를 만들어 헤더부터 이어서 기록한다.
+	 * 컬럼 너비는 autoSizeColumn 대신 기록한 값의 길이로 계산한다.
+	 */
+	private static final class Excel2007StreamWriter implements RecordWriter {
+		private final OutputStream os;
+		private final boolean closeStream;
+		private final String[] header;
+		private final String password;
+		private final SXSSFWorkbook workbook;
+		private final int maxRows;
+		private final Map<String, CellStyle> styles = new HashMap<String, CellStyle>();
+		private Sheet sheet = null;
+		private int sheetCount = 0;
+		private int rowIndex = 0;
+		private int rowCount = 0;
+		private int[] widths = new int[0];
+
+		Excel2007StreamWriter(OutputStream os, boolean closeStream, String[] header, String password) {
+			this.os = os;
+			this.closeStream = closeStream;
+			this.header = header;
+			this.password = password;
+			Config config = Config.getInstance();
+			workbook = new SXSSFWorkbook(config.getInt("excelutil.window.size", 100));
+			workbook.setCompressTempFiles(config.getBoolean("excelutil.compressTempFiles", true));
+			int limit = SpreadsheetVersion.EXCEL2007.getMaxRows();
+			maxRows = Math.max(2, Math.min(limit, config.getInt("excelutil.sheet.maxRows", limit)));
+			nextSheet();
+		}
+
+		@Override
+		public void handleRecord(RecordMap record) {
+			Row row = nextRow();
+			int c = 0;
+			for (Object value : record.values()) {
+				setCell(row, c++, value);
+			}
+			rowCount++;
+		}
+
+		/*
+		 * RecordSet 의 모든 행을 기록한다.
+		 */
+		void append(RecordSet rs) {
+			String[] colNms = rs.getColumns();
+			rs.moveRow(0);
+			while (rs.nextRow()) {
+				Row row = nextRow();
+				for (int c = 0; c < colNms.length; c++) {
+					setCell(row, c, rs.get(colNms[c]));
+				}
+				rowCount++;
+			}
+		}
+
+		/*
+		 * ResultSet 의 모든 행을 기록하고 ResultSet 과 Statement 를 close 한다.
+		 */
+		void append(ResultSet rs) throws SQLException {
+			try {
+				int cnt = rs.getMetaData().getColumnCount();
+				while (rs.next()) {
+					Row row = nextRow();
+					for (int c = 0; c < cnt; c++) {
+						setCell(row, c, rs.getObject(c + 1));
+					}
+					rowCount++;
+				}
+			} finally {
+				Statement stmt = null;
+				try {
+					stmt = rs.getStatement();
+				} catch (SQLException e) {
+					logger.error("", e);
+				}
+				try {
+					rs.close();
+				} catch (SQLException e) {
+					logger.error("", e);
+				}
+				if (stmt != null) {
+					try {
+						stmt.close();
+					} catch (SQLException e) {
+						logger.error("", e);
+					}
+				}
+			}
+		}
+
+		@Override
+		public void close() {
+			try {
+				applyWidths();
+				if (password == null || "".equals(password)) {
+					workbook.write(os);
+				} else {
+					writeEncrypted(workbook, password, os);
+				}
+				os.flush();
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			} finally {
+				dispose();
+			}
+		}
+
+		/*
+		 * 기록을 중단하고 임시파일을 삭제한다.
+		 */
+		void dispose() {
+			if (closeStream) {
+				try {
+					os.close();
+				} catch (IOException e) {
+					logger.error("", e);
+				}
+			}
+			workbook.dispose();
+		}
+
+		@Override
+		public int getRowCount() {
+			return rowCount;
+		}
+
+		private Row nextRow() {
+			if (rowIndex >= maxRows) {
+				applyWidths();
+				nextSheet();
+			}
+			return sheet.createRow(rowIndex++);
+		}
+
+		private void nextSheet() {
+			sheet = workbook.createSheet("Sheet" + (++sheetCount));
+			rowIndex = 0;
+			widths = new int[0];
+			if (header != null) {
+				Row row = sheet.createRow(rowIndex++);
+				CellStyle headerStyle = getStyle("header");
+				for (int c = 0; c < header.length; c++) {
+					Cell cell = row.createCell(c);
+					cell.setCellValue(header[c]);
+					cell.setCellStyle(headerStyle);
+					trackWidth(c, header[c]);
+				}
+			}
+		}
+
+		private void setCell(Row row, int c, Object value) {
+			Cell cell = row.createCell(c);
+			if (value instanceof Number) {
+				cell.setCellValue(((Number) value).doubleValue());
+				cell.setCellStyle(getStyle("general"));
+				trackWidth(c, value.toString());
+			} else {
+				String str = value == null ? "" : value.toString();
+				cell.setCellValue(str);
+				cell.setCellStyle(getStyle("text"));
+				trackWidth(c, str);
+			}
+		}
+
+		private CellStyle getStyle(String name) {
+			CellStyle style = styles.get(name);
+			if (style == null) {
+				if ("header".equals(name)) {
+					style = headerStyle(workbook);
+				} else if ("general".equals(name)) {
+					style = generalRowStyle(workbook);
+				} else {
+					style = textRowStyle(workbook);
+				}
+				styles.put(name, style);
+			}
+			return style;
+		}
+
+		/*
+		 * 한글 등 전각문자는 2칸으로 계산한다.
+		 */
+		private void trackWidth(int c, String str) {
+			if (c >= widths.length) {
+				widths = Arrays.copyOf(widths, c + 1);
+			}
+			if (widths[c] >= 60) {
+				return;
+			}
+			int width = 0;
+			for (int i = 0, len = Math.min(str.length(), 60); i < len; i++) {
+				width += str.charAt(i) > 0x7f ? 2 : 1;
+			}
+			if (width > widths[c]) {
+				widths[c] = width;
+			}
+		}
+
+		private void applyWidths() {
+			for (int c = 0; c < widths.length; c++) {
+				sheet.setColumnWidth(c, (int) (Math.min(Math.max(widths[c], 8) + 2, 80) * 256 * 1.2));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,489 @@
+package framework.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import framework.config.Config;
+import framework.db.DB;
+import framework.db.RecordHandler;
+import framework.db.RecordMap;
+import framework.db.RecordWriter;
+import framework.db.SqlSessionDaoSupport;
+
+/**
+ * 대용량 조회 결과를 요청 쓰레드가 아닌 백그라운드 작업으로 파일(csv, tsv, xlsx, json)에 내보내는 유틸리티 클래스
+ * 작업은 크기가 제한된 작업 쓰레드 풀에서 Mybatis 스트리밍 조회(selectStream)로 실행되며, 결과 파일은 로컬 디렉토리 또는 S3 에 저장된다.
+ * 작업 상태는 디렉토리에 파일로 저장되므로 서버를 재시작해도 끝나지 않은 작업은 처음부터 다시 실행된다.
+ * 같은 조건으로 제출된 작업은 하나로 합쳐진다.
+ * <br>
+ * ex) 작업 제출 : String jobId = ExportUtil.submit("default", "board.selectList", params, "xlsx", header);
+ * <br>
+ * ex) 진행 상태 조회 : JsonUtil.render(response, ExportUtil.getStatus(jobId));
+ * <br>
+ * ex) 결과 다운로드 : ExportUtil.download(request, response, jobId, "board.xlsx");
+ */
+public final class ExportUtil {
+	private static final Log logger = LogFactory.getLog(ExportUtil.class);
+
+	/**
+	 * 작업 상태 : 대기
+	 */
+	public static final String QUEUED = "QUEUED";
+
+	/**
+	 * 작업 상태 : 실행중
+	 */
+	public static final String RUNNING = "RUNNING";
+
+	/**
+	 * 작업 상태 : 완료
+	 */
+	public static final String DONE = "DONE";
+
+	/**
+	 * 작업 상태 : 실패
+	 */
+	public static final String FAILED = "FAILED";
+
+	private static final String JOB_EXT = ".job";
+	private static final ConcurrentMap<String, Job> jobs = new ConcurrentHashMap<String, Job>();
+	private static final ReentrantLock submitLock = new ReentrantLock();
+	private static volatile boolean initialized = false;
+
+	/**
+	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
+	 */
+	private ExportUtil() {
+	}
+
+	/**
+	 * 저장된 작업 상태를 읽어서 끝나지 않은 작업을 다시 실행하고, 보관기간이 지난 결과 파일을 삭제한다.
+	 * 서버 부팅시 DispatcherServlet 에서 호출되며, 호출하지 않으면 첫 사용시 실행된다.
+	 */
+	public static void init() {
+		if (initialized) {
+			return;
+		}
+		submitLock.lock();
+		try {
+			if (initialized) {
+				return;
+			}
+			initialized = true;
+			File[] files = getDir().listFiles();
+			if (files == null) {
+				return;
+			}
+			int resumed = 0;
+			for (File file : files) {
+				if (file.getName().endsWith(".part")) {
+					FileUtil.deleteFile(file);
+					continue;
+				}
+				if (!file.getName().endsWith(JOB_EXT)) {
+					continue;
+				}
+				Job job = load(file);
+				if (job == null) {
+					continue;
+				}
+				jobs.put(job.id, job);
+				if (QUEUED.equals(job.state) || RUNNING.equals(job.state)) {
+					job.state = QUEUED;
+					job.rowCount = 0;
+					try {
+						ExportExecutorHolder.executor.execute(job);
+						resumed++;
+					} catch (RejectedExecutionException e) {
+						fail(job, "작업 대기열이 가득 찼습니다.");
+					}
+				}
+			}
+			purge();
+			if (resumed > 0) {
+				logger.info("끝나지 않은 내보내기 작업 " + resumed + "건을 다시 실행합니다.");
+			}
+		} finally {
+			submitLock.unlock();
+		}
+	}
+
+	/**
+	 * 내보내기 작업을 제출한다.
+	 * 같은 서비스명, 문장, 파라미터, 형식, 헤더로 대기중이거나 실행중이거나 완료된 작업이 있으면 새로 실행하지 않고 그 작업의 아이디를 리턴한다.
+	 * @param serviceName 서비스명(업무명)
+	 * @param statement Mybatis 문장 아이디, 결과 타입은 Map(recordmap 등) 이어야 한다.
+	 * @param params 파라미터, 재시작 후 다시 실행하려면 값이 Serializable 이어야 한다.
+	 * @param format 파일 형식(csv, tsv, xlsx, json)
+	 * @param header 헤더 배열, json 형식에서는 사용하지 않는다.
+	 * @return 작업 아이디
+	 */
+	public static String submit(String serviceName, String statement, Map<String, Object> params, String format, String[] header) {
+		if (serviceName == null || statement == null || format == null) {
+			throw new IllegalArgumentException("serviceName, statement, format 은 필수입니다.");
+		}
+		String ext = format.toLowerCase();
+		if (!"csv".equals(ext) && !"tsv".equals(ext) && !"xlsx".equals(ext) && !"json".equals(ext)) {
+			throw new IllegalArgumentException("지원하지 않는 형식입니다. : " + format);
+		}
+		init();
+		String id = createId(serviceName, statement, params, ext, header);
+		submitLock.lock();
+		try {
+			purge();
+			Job job = jobs.get(id);
+			if (job != null && !FAILED.equals(job.state)) {
+				return id;
+			}
+			job = new Job(id, serviceName, statement, params == null ? null : new HashMap<String, Object>(params), ext, header);
+			jobs.put(id, job);
+			save(job);
+			try {
+				ExportExecutorHolder.executor.execute(job);
+			} catch (RejectedExecutionException e) {
+				jobs.remove(id);
+				FileUtil.deleteFile(getJobFile(id));
+				throw new RuntimeException("내보내기 작업 대기열이 가득 찼습니다.", e);
+			}
+			return id;
+		} finally {
+			submitLock.unlock();
+		}
+	}
+
+	/**
+	 * 작업의 상태를 리턴한다.
+	 * 키는 id, state(QUEUED, RUNNING, DONE, FAILED), format, rowcount(기록한 행수), error(실패 사유), created, finished(밀리초) 이다.
+	 * @param jobId 작업 아이디
+	 * @return 작업 상태, 작업이 없으면 null
+	 */
+	public static RecordMap getStatus(String jobId) {
+		init();
+		Job job = jobId == null ? null : jobs.get(jobId);
+		if (job == null) {
+			return null;
+		}
+		RecordMap status = new RecordMap();
+		status.put("id", job.id);
+		status.put("state", job.state);
+		status.put("format", job.format);
+		status.put("rowcount", Long.valueOf(job.rowCount));
+		status.put("error", job.error);
+		status.put("created", Long.valueOf(job.created));
+		status.put("finished", job.finished == 0 ? null : Long.valueOf(job.finished));
+		return status;
+	}
+
+	/**
+	 * 완료된 작업의 결과 파일을 전송한다. Range 요청(이어받기)을 지원한다.
+	 * @param request 요청 객체
+	 * @param response 응답 객체
+	 * @param jobId 작업 아이디
+	 * @param displayName 파일명, null 이면 작업 아이디에 확장자를 붙인 이름
+	 * @return 전송여부, 작업이 없거나 완료되지 않았으면 false
+	 */
+	public static boolean download(HttpServletRequest request, HttpServletResponse response, String jobId, String displayName) {
+		init();
+		Job job = jobId == null ? null : jobs.get(jobId);
+		if (job == null || !DONE.equals(job.state)) {
+			return false;
+		}
+		String fileName = displayName == null ? job.id + "." + job.format : displayName;
+		if (getS3Bucket() == null) {
+			File file = getResultFile(job);
+			if (!file.isFile()) {
+				return false;
+			}
+			FileUtil.download(request, response, fileName, file);
+			return true;
+		}
+		Config config = Config.getInstance();
+		File file = AwsUtil.s3GetObject(config.getString("exportutil.s3.region"), config.getString("exportutil.s3.accessKey"), config.getString("exportutil.s3.secretAccessKey"), getS3Bucket(), getS3Key(job));
+		if (file == null) {
+			return false;
+		}
+		try {
+			FileUtil.download(request, response, fileName, file);
+		} finally {
+			FileUtil.deleteFile(file);
+		}
+		return true;
+	}
+
+	/**
+	 * 작업과 결과 파일을 삭제한다. 실행중인 작업은 삭제할 수 없다.
+	 * @param jobId 작업 아이디
+	 * @return 삭제여부
+	 */
+	public static boolean remove(String jobId) {
+		init();
+		submitLock.lock();
+		try {
+			Job job = jobId == null ? null : jobs.get(jobId);
+			if (job == null || RUNNING.equals(job.state) || QUEUED.equals(job.state)) {
+				return false;
+			}
+			delete(job);
+			return true;
+		} finally {
+			submitLock.unlock();
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////Private 메소드
+
+	private static File getDir() {
+		return new File(Config.getInstance().getString("exportutil.dir", new File(System.getProperty("java.io.tmpdir"), "framework-exports").getPath()));
+	}
+
+	private static File getJobFile(String id) {
+		return new File(getDir(), id + JOB_EXT);
+	}
+
+	private static File getResultFile(Job job) {
+		return new File(getDir(), job.id + "." + job.format);
+	}
+
+	private static String getS3Bucket() {
+		String bucket = Config.getInstance().getString("exportutil.s3.bucket", "");
+		return "".equals(bucket) ? null : bucket;
+	}
+
+	private static String getS3Key(Job job) {
+		return Config.getInstance().getString("exportutil.s3.prefix", "exports/") + job.id + "." + job.format;
+	}
+
+	/*
+	 * 제출 조건의 해쉬값을 작업 아이디로 사용한다. 파라미터는 키 순서와 무관하도록 정렬한다.
+	 */
+	private static String createId(String serviceName, String statement, Map<String, Object> params, String format, String[] header) {
+		StringBuilder key = new StringBuilder();
+		key.append(serviceName).append('\n').append(statement).append('\n').append(format).append('\n');
+		key.append(header == null ? "" : Arrays.toString(header)).append('\n');
+		key.append(params == null ? "" : new TreeMap<String, Object>(params).toString());
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-1");
+			return new String(Hex.encodeHex(md.digest(key.toString().getBytes(StandardCharsets.UTF_8))));
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/*
+	 * 상태 파일은 임시파일에 기록한 후 교체하므로 기록 중에 서버가 종료되어도 이전 상태가 남는다.
+	 */
+	private static void save(Job job) {
+		File file = getJobFile(job.id);
+		File tmp = new File(file.getPath() + ".tmp");
+		ObjectOutputStream oos = null;
+		try {
+			File dir = file.getParentFile();
+			if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+				throw new IOException("내보내기 디렉토리를 생성할 수 없습니다. : " + dir);
+			}
+			oos = new ObjectOutputStream(new FileOutputStream(tmp));
+			oos.writeObject(job);
+			oos.close();
+			oos = null;
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.warn("내보내기 작업 상태를 저장하지 못했습니다. : " + job.id, e);
+			FileUtil.deleteFile(tmp);
+		} finally {
+			if (oos != null) {
+				try {
+					oos.close();
+				} catch (IOException e) {
+					logger.error("", e);
+				}
+			}
+		}
+	}
+
+	private static Job load(File file) {
+		ObjectInputStream ois = null;
+		try {
+			ois = new ObjectInputStream(new FileInputStream(file));
+			return (Job) ois.readObject();
+		} catch (Throwable e) {
+			logger.warn("내보내기 작업 상태를 읽지 못했습니다. : " + file, e);
+			FileUtil.deleteFile(file);
+			return null;
+		} finally {
+			if (ois != null) {
+				try {
+					ois.close();
+				} catch (IOException e) {
+					logger.error("", e);
+				}
+			}
+		}
+	}
+
+	private static void fail(Job job, String error) {
+		job.state = FAILED;
+		job.error = error;
+		job.finished = System.currentTimeMillis();
+		save(job);
+	}
+
+	/*
+	 * 끝난 지 exportutil.ttl 시간(기본값 24)이 지난 작업과 결과 파일을 삭제한다.
+	 */
+	private static void purge() {
+		long expire = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(Config.getInstance().getInt("exportutil.ttl", 24));
+		for (Job job : jobs.values()) {
+			if (job.finished != 0 && job.finished < expire) {
+				delete(job);
+			}
+		}
+	}
+
+	private static void delete(Job job) {
+		jobs.remove(job.id);
+		if (DONE.equals(job.state)) {
+			try {
+				if (getS3Bucket() == null) {
+					FileUtil.deleteFile(getResultFile(job));
+				} else {
+					Config config = Config.getInstance();
+					AwsUtil.s3DeleteObject(config.getString("exportutil.s3.region"), config.getString("exportutil.s3.accessKey"), config.getString("exportutil.s3.secretAccessKey"), getS3Bucket(), getS3Key(job));
+				}
+			} catch (Throwable e) {
+				logger.error("", e);
+			}
+		}
+		FileUtil.deleteFile(getJobFile(job.id));
+	}
+
+	private static RecordWriter openWriter(Job job, File file) {
+		if ("xlsx".equals(job.format)) {
+			return ExcelUtil.openExcel2007SWriter(file, job.header);
+		}
+		if ("json".equals(job.format)) {
+			return JsonUtil.openWriter(file);
+		}
+		RecordWriter writer = CsvUtil.openWriter(file, "tsv".equals(job.format) ? "\t" : ",");
+		if (job.header != null) {
+			RecordMap header = new RecordMap();
+			for (int i = 0; i < job.header.length; i++) {
+				header.put(String.valueOf(i), job.header[i]);
+			}
+			writer.handleRecord(header);
+		}
+		return writer;
+	}
+
+	/*
+	 * 내보내기 작업, 상태 파일로 직렬화된다.
+	 */
+	private static final class Job implements Runnable, Serializable {
+		private static final long serialVersionUID = 1L;
+		private final String id;
+		private final String serviceName;
+		private final String statement;
+		private final HashMap<String, Object> params;
+		private final String format;
+		private final String[] header;
+		private final long created = System.currentTimeMillis();
+		private volatile String state = QUEUED;
+		private volatile long rowCount = 0;
+		private volatile String error = null;
+		private volatile long finished = 0;
+
+		Job(String id, String serviceName, String statement, HashMap<String, Object> params, String format, String[] header) {
+			this.id = id;
+			this.serviceName = serviceName;
+			this.statement = statement;
+			this.params = params;
+			this.format = format;
+			this.header = header;
+		}
+
+		@Override
+		public void run() {
+			state = RUNNING;
+			save(this);
+			File resultFile = getResultFile(this);
+			File partFile = new File(resultFile.getPath() + ".part");
+			DB db = new DB(serviceName, this);
+			try {
+				final RecordWriter writer = openWriter(this, partFile);
+				try {
+					new ExportDao(db).export(statement, params, new RecordHandler() {
+						@Override
+						public void handleRecord(RecordMap record) {
+							writer.handleRecord(record);
+							rowCount++;
+						}
+					});
+				} finally {
+					writer.close();
+				}
+				Files.move(partFile.toPath(), resultFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				String bucket = getS3Bucket();
+				if (bucket != null) {
+					Config config = Config.getInstance();
+					AwsUtil.s3PutObject(config.getString("exportutil.s3.region"), config.getString("exportutil.s3.accessKey"), config.getString("exportutil.s3.secretAccessKey"), bucket, getS3Key(this), resultFile);
+					FileUtil.deleteFile(resultFile);
+				}
+				state = DONE;
+				finished = System.currentTimeMillis();
+				save(this);
+				if (logger.isDebugEnabled()) {
+					logger.debug("내보내기 작업 완료 : " + id + ", " + rowCount + "건");
+				}
+			} catch (Throwable e) {
+				logger.error("내보내기 작업 실패 : " + id, e);
+				FileUtil.deleteFile(partFile);
+				fail(this, e.getMessage() == null ? e.getClass().getName() : e.getMessage());
+			} finally {
+				db.release();
+			}
+		}
+	}
+
+	/*
+	 * selectStream 은 protected 이므로 하위 클래스를 통해 호출한다.
+	 */
+	private static final class ExportDao extends SqlSessionDaoSupport {
+		ExportDao(DB db) {
+			super(db);
+		}
+
+		int export(String statement, Object parameter, RecordHandler handler) {
+			return selectStream(statement, parameter, handler);
+		}
+	}
+
+	private static final class ExportExecutorHolder {
+		private static final ExecutorService executor = DaemonExecutors.create("framework-export", "exportutil.threads", 2, DaemonExecutors.getInt("exportutil.queueSize", 100));
+	}
+}
@@ -1,7 +1,5 @@
 package framework.util;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -9,7 +7,19 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
@@ -20,6 +30,9 @@ import org.apache.commons.logging.LogFactory;
  */
 public final class FileUtil {
 	private static final Log logger = LogFactory.getLog(FileUtil.class);
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int MAX_RANGES = 16;
+	private static final BlockingQueue<byte[]> bufferPool = new ArrayBlockingQueue<byte[]>(64);
 
 	/**
 	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
@@ -102,14 +115,22 @@ public final class FileUtil {
 	 * @param dest 대상 파일 객체
 	 */
 	public static void copyFile(java.io.File src, java.io.File dest) {
-		InputStream in = null;
-		OutputStream out = null;
+		FileInputStream in = null;
+		FileOutputStream out = null;
 		try {
 			in = new FileInputStream(src);
 			out = new FileOutputStream(dest);
-			copy(in, out);
+			FileChannel inChannel = in.getChannel();
+			FileChannel outChannel = out.getChannel();
+			long size = inChannel.size();
+			long position = 0;
+			while (position < size) {
+				position += inChannel.transferTo(position, size - position, outChannel);
+			}
 		} catch (FileNotFoundException e) {
 			throw new RuntimeException(e);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
 		} finally {
 			if (in != null) {
 				try {
@@ -134,8 +155,7 @@ public final class FileUtil {
 	 * @param out 출력스트림
 	 */
 	public static void copy(InputStream in, OutputStream out) {
-		int size = 1024;
-		byte[] buffer = new byte[size];
+		byte[] buffer = acquireBuffer();
 		int read;
 		try {
 			while ((read = in.read(buffer)) > 0) {
@@ -143,6 +163,8 @@ public final class FileUtil {
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
+		} finally {
+			releaseBuffer(buffer);
 		}
 	}
 
@@ -229,7 +251,7 @@ public final class FileUtil {
 		if (file != null && file.isFile() && file.length() != 0) {
 			long fileLen = file.length();
 			response.reset();
-			response.setContentLength((int) fileLen);
+			response.setContentLengthLong(fileLen);
 			response.setContentType(contentType);
 			response.setHeader("Content-Disposition", "inline; filename=\"\"");
 			response.setHeader("Pragma", "no-cache;");
@@ -248,7 +270,7 @@ public final class FileUtil {
 		if (file != null && file.isFile() && file.length() != 0) {
 			long fileLen = file.length();
 			response.reset();
-			response.setContentLength((int) fileLen);
+			response.setContentLengthLong(fileLen);
 			response.setContentType("application/octet-stream;");
 			response.setHeader("Content-Disposition", "attachment; filename=\"" + displayName + "\"");
 			response.setHeader("Pragma", "no-cache;");
@@ -263,34 +285,328 @@ public final class FileUtil {
 	 * @param file 파일
 	 */
 	public static void download(HttpServletResponse response, File file) {
-		BufferedInputStream bis = null;
-		BufferedOutputStream bos = null;
+		FileChannel channel = null;
+		OutputStream os = null;
 		try {
-			int readBytes = 0;
-			int available = 1024;
-			byte b[] = new byte[available];
-			bis = new BufferedInputStream(new FileInputStream(file));
-			bos = new BufferedOutputStream(response.getOutputStream());
-			while ((readBytes = bis.read(b, 0, available)) != -1) {
-				bos.write(b, 0, readBytes);
-			}
+			channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			os = response.getOutputStream();
+			transfer(channel, 0, channel.size(), os);
 		} catch (IOException e) {
 			logger.error("", e);
 		} finally {
-			if (bis != null) {
+			if (channel != null) {
 				try {
-					bis.close();
+					channel.close();
 				} catch (IOException e) {
 					logger.error("", e);
 				}
 			}
-			if (bos != null) {
+			if (os != null) {
 				try {
-					bos.close();
+					os.close();
 				} catch (IOException e) {
 					logger.error("", e);
 				}
 			}
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * 이미지 데이터를 Range 요청과 조건부 요청(ETag, Last-Modified)을 지원하여 전달하는 메소드
+	 * @param request 요청 객체
+	 * @param response 응답 객체
+	 * @param file 파일
+	 */
+	public static void displayImage(HttpServletRequest request, HttpServletResponse response, File file) {
+		displayWithContentType(request, response, file, "image/pjpeg");
+	}
+
+	/**
+	 * 비디오 데이터를 Range 요청과 조건부 요청(ETag, Last-Modified)을 지원하여 전달하는 메소드
+	 * 브라우저의 비디오 플레이어가 원하는 위치로 이동(seek)할 수 있다.
+	 * @param request 요청 객체
+	 * @param response 응답 객체
+	 * @param file 파일
+	 */
+	public static void displayVideo(HttpServletRequest request, HttpServletResponse response, File file) {
+		displayWithContentType(request, response, file, "video/x-ms-wmv");
+	}
+
+	/**
+	 * Pdf 데이터를 Range 요청과 조건부 요청(ETag, Last-Modified)을 지원하여 전달하는 메소드
+	 * @param request 요청 객체
+	 * @param response 응답 객체
+	 * @param file 파일
+	 */
+	public static void displayPdf(HttpServletRequest request, HttpServletResponse response, File file) {
+		displayWithContentType(request, response, file, "application/pdf");
+	}
+
+	/**
+	 * contentType 데이터를 Range 요청과 조건부 요청(ETag, Last-Modified)을 지원하여 전달하는 메소드
+	 * @param request 요청 객체
+	 * @param response 응답 객체
+	 * @param file 파일
+	 * @param contentType 컨텐트타입
+	 */
+	public static void displayWithContentType(HttpServletRequest request, HttpServletResponse response, File file, String contentType) {
+		serve(request, response, file, contentType, "inline; filename=\"\"");
+	}
+
+	/**
+	 * 파일을 Range 요청(이어받기)과 조건부 요청(ETag, Last-Modified)을 지원하여 전달하는 메소드
+	 * @param request 요청 객체
+	 * @param response 응답 객체
+	 * @param displayName 파일명
+	 * @param file 파일
+	 */
+	public static void download(HttpServletRequest request, HttpServletResponse response, String displayName, File file) {
+		serve(request, response, file, "application/octet-stream", "attachment; filename=\"" + displayName + "\"");
+	}
+
+	/**
+	 * 파일을 응답으로 전송하는 메소드
+	 * If-None-Match, If-Modified-Since 헤더가 일치하면 304, Range 헤더가 있으면 206 으로 요청한 구간만 전송하며, 여러 구간은 multipart/byteranges 로 전송한다.
+	 * 컨테이너가 sendfile 을 지원하면(Tomcat NIO/APR) 커널에서 바로 전송하고, 그렇지 않으면 64KB 버퍼를 재사용하여 전송한다.
+	 * @param request 요청 객체
+	 * @param response 응답 객체
+	 * @param file 파일
+	 * @param contentType 컨텐트타입
+	 * @param contentDisposition Content-Disposition 헤더값, null 이면 설정하지 않는다.
+	 */
+	public static void serve(HttpServletRequest request, HttpServletResponse response, File file, String contentType, String contentDisposition) {
+		try {
+			if (file == null || !file.isFile()) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			long length = file.length();
+			long lastModified = file.lastModified() / 1000 * 1000;
+			String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+			response.reset();
+			response.setHeader("Accept-Ranges", "bytes");
+			response.setHeader("ETag", etag);
+			response.setDateHeader("Last-Modified", lastModified);
+			response.setHeader("Cache-Control", "private, no-cache");
+			if (contentDisposition != null) {
+				response.setHeader("Content-Disposition", contentDisposition);
+			}
+			if (isNotModified(request, etag, lastModified)) {
+				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				return;
+			}
+			List<long[]> ranges = getRanges(request, etag, lastModified, length);
+			if (ranges == null) {
+				response.setHeader("Content-Range", "bytes */" + length);
+				response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			boolean head = "HEAD".equals(request.getMethod());
+			if (ranges.size() <= 1) {
+				long start = ranges.isEmpty() ? 0 : ranges.get(0)[0];
+				long end = ranges.isEmpty() ? length - 1 : ranges.get(0)[1];
+				if (!ranges.isEmpty()) {
+					response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+					response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+				}
+				response.setContentType(contentType);
+				response.setContentLengthLong(end - start + 1);
+				if (head || length == 0) {
+					return;
+				}
+				if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+					request.setAttribute("org.apache.tomcat.sendfile.filename", file.getCanonicalPath());
+					request.setAttribute("org.apache.tomcat.sendfile.start", Long.valueOf(start));
+					request.setAttribute("org.apache.tomcat.sendfile.end", Long.valueOf(end + 1));
+					return;
+				}
+				FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				try {
+					ServletOutputStream os = response.getOutputStream();
+					transfer(channel, start, end - start + 1, os);
+					os.flush();
+				} finally {
+					channel.close();
+				}
+				return;
+			}
+			String boundary = "FRAMEWORK_BYTERANGES_" + Long.toHexString(System.nanoTime());
+			List<byte[]> partHeaders = new ArrayList<byte[]>();
+			long contentLength = 0;
+			for (long[] range : ranges) {
+				String partHeader = "\r\n--" + boundary + "\r\nContent-Type: " + contentType + "\r\nContent-Range: bytes " + range[0] + "-" + range[1] + "/" + length + "\r\n\r\n";
+				byte[] bytes = partHeader.getBytes(StandardCharsets.ISO_8859_1);
+				partHeaders.add(bytes);
+				contentLength += bytes.length + (range[1] - range[0] + 1);
+			}
+			byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+			contentLength += closing.length;
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setContentType("multipart/byteranges; boundary=" + boundary);
+			response.setContentLengthLong(contentLength);
+			if (head) {
+				return;
+			}
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			try {
+				ServletOutputStream os = response.getOutputStream();
+				for (int i = 0; i < ranges.size(); i++) {
+					long[] range = ranges.get(i);
+					os.write(partHeaders.get(i));
+					transfer(channel, range[0], range[1] - range[0] + 1, os);
+				}
+				os.write(closing);
+				os.flush();
+			} finally {
+				channel.close();
+			}
+		} catch (IOException e) {
+			logger.error("", e);
+		}
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////Private 메소드
+
+	/*
+	 * 파일의 지정한 구간을 재사용 버퍼를 이용해 출력 stream 으로 복사
+	 */
+	private static void transfer(FileChannel channel, long start, long count, OutputStream os) throws IOException {
+		byte[] buffer = acquireBuffer();
+		try {
+			ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+			long position = start;
+			long remaining = count;
+			while (remaining > 0) {
+				byteBuffer.clear();
+				if (remaining < buffer.length) {
+					byteBuffer.limit((int) remaining);
+				}
+				int read = channel.read(byteBuffer, position);
+				if (read < 0) {
+					break;
+				}
+				os.write(buffer, 0, read);
+				position += read;
+				remaining -= read;
+			}
+		} finally {
+			releaseBuffer(buffer);
+		}
+	}
+
+	private static byte[] acquireBuffer() {
+		byte[] buffer = bufferPool.poll();
+		return buffer == null ? new byte[BUFFER_SIZE] : buffer;
+	}
+
+	private static void releaseBuffer(byte[] buffer) {
+		bufferPool.offer(buffer);
+	}
+
+	/*
+	 * If-None-Match 가 있으면 ETag 로, 없으면 If-Modified-Since 로 변경여부를 판단
+	 */
+	private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+		String ifNoneMatch = request.getHeader("If-None-Match");
+		if (ifNoneMatch != null) {
+			for (String tag : ifNoneMatch.split(",")) {
+				tag = tag.trim();
+				if (tag.startsWith("W/")) {
+					tag = tag.substring(2);
+				}
+				if ("*".equals(tag) || etag.equals(tag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		try {
+			long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+			return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+
+	/*
+	 * Range 헤더를 해석하여 정렬, 병합된 구간 목록을 리턴
+	 * 전체를 전송해야 하면 빈 목록, 만족할 수 있는 구간이 없으면 null 을 리턴한다.
+	 */
+	private static List<long[]> getRanges(HttpServletRequest request, String etag, long lastModified, long length) {
+		List<long[]> ranges = new ArrayList<long[]>();
+		String header = request.getHeader("Range");
+		if (header == null || !header.startsWith("bytes=")) {
+			return ranges;
+		}
+		String ifRange = request.getHeader("If-Range");
+		if (ifRange != null) {
+			if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+				if (!etag.equals(ifRange.trim())) {
+					return ranges;
+				}
+			} else {
+				try {
+					if (request.getDateHeader("If-Range") != lastModified) {
+						return ranges;
+					}
+				} catch (IllegalArgumentException e) {
+					return ranges;
+				}
+			}
+		}
+		for (String spec : header.substring(6).split(",")) {
+			spec = spec.trim();
+			int pos = spec.indexOf('-');
+			if (pos < 0) {
+				return new ArrayList<long[]>();
+			}
+			long start;
+			long end;
+			try {
+				if (pos == 0) {
+					long suffix = Long.parseLong(spec.substring(1));
+					if (suffix <= 0) {
+						continue;
+					}
+					start = Math.max(0, length - suffix);
+					end = length - 1;
+				} else {
+					start = Long.parseLong(spec.substring(0, pos));
+					end = (pos == spec.length() - 1) ? Long.MAX_VALUE : Long.parseLong(spec.substring(pos + 1));
+					if (end < start) {
+						return new ArrayList<long[]>();
+					}
+					end = Math.min(end, length - 1);
+				}
+			} catch (NumberFormatException e) {
+				return new ArrayList<long[]>();
+			}
+			if (start >= length) {
+				continue;
+			}
+			ranges.add(new long[] { start, end });
+		}
+		if (ranges.isEmpty()) {
+			return null;
+		}
+		Collections.sort(ranges, new Comparator<long[]>() {
+			@Override
+			public int compare(long[] r1, long[] r2) {
+				return Long.compare(r1[0], r2[0]);
+			}
+		});
+		List<long[]> merged = new ArrayList<long[]>();
+		for (long[] range : ranges) {
+			long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+			if (last != null && range[0] <= last[1] + 1) {
+				last[1] = Math.max(last[1], range[1]);
+			} else {
+				merged.add(range);
+			}
+		}
+		if (merged.size() > MAX_RANGES) {
+			return new ArrayList<long[]>();
+		}
+		return merged;
+	}
+}
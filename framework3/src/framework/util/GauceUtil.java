@@ -22,6 +22,7 @@ import com.gauce.io.GauceInputStream;
 import com.gauce.io.GauceOutputStream;
 
 import framework.action.Params;
+import framework.config.Config;
 import framework.db.RecordSet;
 
 /**
@@ -84,7 +85,7 @@ public final class GauceUtil {
 			GauceOutputStream gos = getGOS(response);
 			for (int i = 0, len = rsArray.length; i < len; i++) {
 				GauceDataSet dSet = new GauceDataSet(datasetNameArray[i]);
-				gos.fragment(dSet);
+				fragment(gos, dSet);
 				rowCount += appendDataSet(dSet, rsArray[i]);
 				gos.write(dSet);
 			}
@@ -130,7 +131,7 @@ public final class GauceUtil {
 			GauceOutputStream gos = getGOS(response);
 			for (int i = 0, len = rsArray.length; i < len; i++) {
 				GauceDataSet dSet = dSetArray[i];
-				gos.fragment(dSet);
+				fragment(gos, dSet);
 				rowCount += appendDataSet(dSet, rsArray[i]);
 				gos.write(dSet);
 			}
@@ -177,25 +178,7 @@ public final class GauceUtil {
 	 * @return 처리건수
 	 */
 	public static int render(HttpServletResponse response, String[] datasetNameArray, ResultSet[] rsArray) {
-		if (response == null || datasetNameArray == null || rsArray == null) {
-			return 0;
-		}
-		if (datasetNameArray.length != rsArray.length) {
-			throw new IllegalArgumentException("DataSet이름 갯수와 RecordSet갯수가 일치하지 않습니다.");
-		}
-		int rowCount = 0;
-		try {
-			GauceOutputStream gos = getGOS(response);
-			for (int i = 0, len = rsArray.length; i < len; i++) {
-				GauceDataSet dSet = new GauceDataSet(datasetNameArray[i]);
-				gos.fragment(dSet);
-				rowCount += appendDataSet(dSet, rsArray[i]);
-				gos.write(dSet);
-			}
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-		return rowCount;
+		return renderResultSets(response, datasetNameArray, rsArray, 0);
 	}
 
 	/**
@@ -227,14 +210,14 @@ public final class GauceUtil {
 			return 0;
 		}
 		if (dSetArray.length != rsArray.length) {
-			throw new IllegalArgumentException("DataSet 갯수와 RecordSet갯수가 일치하지 않습니다.");
+			throw new IllegalArgumentException("DataSet 갯수와 ResultSet갯수가 일치하지 않습니다.");
 		}
 		int rowCount = 0;
 		try {
 			GauceOutputStream gos = getGOS(response);
 			for (int i = 0, len = rsArray.length; i < len; i++) {
 				GauceDataSet dSet = dSetArray[i];
-				gos.fragment(dSet);
+				fragment(gos, dSet);
 				rowCount += appendDataSet(dSet, rsArray[i]);
 				gos.write(dSet);
 			}
@@ -244,6 +227,35 @@ public final class GauceUtil {
 		return rowCount;
 	}
 
+	/**
+	 * ResultSet을 가우스 데이타셋(명칭은 datasetName 인자 값)으로 변환하면서 일정 행수 단위(First Row)로 나누어 응답객체로 전송한다.
+	 * 한번에 전송하는 행수는 application.properties 의 gauceutil.partSize 값(기본값 1000)을 사용한다.
+	 * <br>
+	 * ex) rs를 가우스 데이터셋(명칭은 result)으로 변환하여 response로 나누어 전송하는 경우 : GauceUtil.renderStream(response, "result", rs)
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param datasetName 데이타셋 이름
+	 * @param rs 가우스 데이타셋으로 변환할 ResultSet 객체, ResultSet 객체는 자동으로 close 된다.
+	 * @return 처리건수
+	 */
+	public static int renderStream(HttpServletResponse response, String datasetName, ResultSet rs) {
+		return renderStream(response, new String[] { datasetName }, new ResultSet[] { rs }, Config.getInstance().getInt("gauceutil.partSize", 1000));
+	}
+
+	/**
+	 * ResultSet을 가우스 데이타셋(명칭은 datasetNameArray 인자 값)으로 변환하면서 partSize 행마다 나누어 응답객체로 전송한다.
+	 * 커서에서 읽은 행은 partSize 만큼 채워질 때마다 클라이언트로 전송되고 데이타셋에서 제거되므로, 대용량 조회에서도 메모리 사용량이 일정하고 첫 행이 빨리 표시된다.
+	 * <br>
+	 * ex) rs1과 rs2를 가우스 데이터셋으로 변환하여 response로 500행씩 전송하는 경우 : GauceUtil.renderStream(response, new String[] { "result1", "result2" }, new ResultSet[] { rs1, rs2 }, 500)
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param datasetNameArray 데이타셋 이름 배열
+	 * @param rsArray 가우스 데이타셋으로 변환할 ResultSet 객체 배열, ResultSet 객체는 자동으로 close 된다.
+	 * @param partSize 한번에 전송할 행수
+	 * @return 처리건수
+	 */
+	public static int renderStream(HttpServletResponse response, String[] datasetNameArray, ResultSet[] rsArray, int partSize) {
+		return renderResultSets(response, datasetNameArray, rsArray, partSize < 1 ? 1 : partSize);
+	}
+
 	/**
 	 * 해당 HttpServletRequest로 부터 GauceInputStream을 반환받는다
 	 * <br>
@@ -331,6 +343,49 @@ public final class GauceUtil {
 
 	//////////////////////////////////////////////////////////////////////////////////////// Private 메소드
 
+	/**
+	 * ResultSet 배열을 이름별 데이타셋으로 변환하여 전송한다.
+	 * partSize 가 0 보다 크면 해당 행수마다 전송하고, 아니면 fragment(gos, dSet) 의 설정에 따른다.
+	 */
+	private static int renderResultSets(HttpServletResponse response, String[] datasetNameArray, ResultSet[] rsArray, int partSize) {
+		if (response == null || datasetNameArray == null || rsArray == null) {
+			return 0;
+		}
+		if (datasetNameArray.length != rsArray.length) {
+			throw new IllegalArgumentException("DataSet이름 갯수와 ResultSet갯수가 일치하지 않습니다.");
+		}
+		int rowCount = 0;
+		try {
+			GauceOutputStream gos = getGOS(response);
+			for (int i = 0, len = rsArray.length; i < len; i++) {
+				GauceDataSet dSet = new GauceDataSet(datasetNameArray[i]);
+				if (partSize > 0) {
+					gos.fragment(dSet, partSize);
+				} else {
+					fragment(gos, dSet);
+				}
+				rowCount += appendDataSet(dSet, rsArray[i]);
+				gos.write(dSet);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return rowCount;
+	}
+
+	/**
+	 * 데이타셋을 분할 전송 모드로 설정한다.
+	 * gauceutil.partSize 가 설정되어 있으면 해당 행수마다, 아니면 서버의 First Row 설정에 따라 전송한다.
+	 */
+	private static void fragment(GauceOutputStream gos, GauceDataSet dSet) {
+		int partSize = Config.getInstance().getInt("gauceutil.partSize", 0);
+		if (partSize > 0) {
+			gos.fragment(dSet, partSize);
+		} else {
+			gos.fragment(dSet);
+		}
+	}
+
 	/**
 	 * RecordSet을 가우스 데이타셋으로 변환한다.
 	 */
@@ -1,11 +1,33 @@
 package framework.util;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
@@ -13,22 +35,43 @@ import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.client.params.CookiePolicy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.params.ConnManagerPNames;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.entity.mime.HttpMultipartMode;
 import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.ContentBody;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.params.BasicHttpParams;
 import org.apache.http.params.CoreConnectionPNames;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 
+import framework.config.Config;
+import framework.db.RecordMap;
+
 /**
  * HTTP 클라이언트의 기능을 이용할 수 있는 유틸리티 클래스
+ * 모든 요청은 커넥션 풀(httputil.maxTotal, httputil.maxPerRoute)을 공유하는 하나의 클라이언트로 실행되어 Keep-Alive 커넥션을 재사용한다.
+ * 공유 클라이언트는 응답의 쿠키를 저장하거나 다음 요청에 전송하지 않는다.
  */
 public final class HttpUtil {
+	private static final Log logger = LogFactory.getLog(HttpUtil.class);
 	private static final String DEFAULT_CONTENT_TYPE = "application/x-www-form-urlencoded";
+	private static final AtomicInteger active = new AtomicInteger();
+	private static final AtomicLong requests = new AtomicLong();
+	private static final AtomicLong failures = new AtomicLong();
+	private static final AtomicLong poolTimeouts = new AtomicLong();
 
 	/**
 	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
@@ -42,6 +85,7 @@ public final class HttpUtil {
 	public static class Result {
 		private int statusCode;
 		private String content;
+		private Throwable error;
 
 		public Result(int statusCode, String content) {
 			super();
@@ -49,6 +93,14 @@ public final class HttpUtil {
 			this.content = content;
 		}
 
+		/**
+		 * 동시 호출에서 실패하거나 시간 내에 끝나지 않은 요청의 결과, 상태코드는 0 이다.
+		 */
+		public Result(Throwable error) {
+			this(0, "");
+			this.error = error;
+		}
+
 		public int getStatusCode() {
 			return statusCode;
 		}
@@ -57,12 +109,147 @@ public final class HttpUtil {
 			return content;
 		}
 
+		/**
+		 * 호출에 실패한 원인을 리턴한다.
+		 * @return 실패 원인, 응답을 받았으면 null
+		 */
+		public Throwable getError() {
+			return error;
+		}
+
 		@Override
 		public String toString() {
 			return String.format("Result={ statusCode : %d, content : %s }", getStatusCode(), getContent());
 		}
 	}
 
+	/**
+	 * 동시 호출(executeAll)에 사용하는 요청 객체, 첨부파일 전송은 지원하지 않는다.
+	 */
+	public static class Request {
+		private final String url;
+		private final boolean post;
+		private final Map<String, String> paramMap;
+		private final String paramStr;
+		private final String contentType;
+		private final Map<String, String> headerMap;
+		private final int timeoutMilliseconds;
+
+		/**
+		 * url 을 Get 방식으로 호출하는 요청
+		 * @param url url 주소
+		 */
+		public Request(String url) {
+			this(url, (Map<String, String>) null, 0);
+		}
+
+		/**
+		 * url 을 Get 방식으로 호출하는 요청
+		 * @param url url 주소
+		 * @param headerMap 헤더 맵 객체
+		 * @param timeoutMilliseconds 소켓 타임아웃 시간(밀리세컨드)
+		 */
+		public Request(String url, Map<String, String> headerMap, int timeoutMilliseconds) {
+			this(url, false, null, null, null, headerMap, timeoutMilliseconds);
+		}
+
+		/**
+		 * url 을 Post 방식으로 호출하는 요청
+		 * @param url url 주소
+		 * @param paramMap 파라미터 맵 객체
+		 * @param headerMap 헤더 맵 객체
+		 * @param timeoutMilliseconds 소켓 타임아웃 시간(밀리세컨드)
+		 */
+		public Request(String url, Map<String, String> paramMap, Map<String, String> headerMap, int timeoutMilliseconds) {
+			this(url, true, paramMap, null, null, headerMap, timeoutMilliseconds);
+		}
+
+		/**
+		 * url 을 Post 방식으로 호출하는 요청
+		 * @param url url 주소
+		 * @param paramStr 파라미터 문자열
+		 * @param contentType 파라미터 컨텐트 타입(예: application/x-www-form-urlencoded, application/json)
+		 * @param headerMap 헤더 맵 객체
+		 * @param timeoutMilliseconds 소켓 타임아웃 시간(밀리세컨드)
+		 */
+		public Request(String url, String paramStr, String contentType, Map<String, String> headerMap, int timeoutMilliseconds) {
+			this(url, true, null, paramStr, contentType, headerMap, timeoutMilliseconds);
+		}
+
+		private Request(String url, boolean post, Map<String, String> paramMap, String paramStr, String contentType, Map<String, String> headerMap, int timeoutMilliseconds) {
+			this.url = url;
+			this.post = post;
+			this.paramMap = paramMap;
+			this.paramStr = paramStr;
+			this.contentType = contentType;
+			this.headerMap = headerMap;
+			this.timeoutMilliseconds = timeoutMilliseconds;
+		}
+
+		public String getUrl() {
+			return url;
+		}
+
+		public String getMethod() {
+			return post ? "POST" : "GET";
+		}
+
+		public int getTimeoutMilliseconds() {
+			return timeoutMilliseconds;
+		}
+
+		private String getHost() {
+			try {
+				String host = URI.create(url).getAuthority();
+				return host == null ? "" : host;
+			} catch (IllegalArgumentException e) {
+				return "";
+			}
+		}
+
+		private HttpRequestBase createHttpRequest() throws IOException {
+			HttpRequestBase request;
+			if (post) {
+				HttpPost httpPost = new HttpPost(url);
+				if (paramMap != null) {
+					List<NameValuePair> params = new ArrayList<NameValuePair>();
+					for (Entry<String, String> entry : paramMap.entrySet()) {
+						params.add(new BasicNameValuePair(entry.getKey(), entry.getValue()));
+					}
+					httpPost.setEntity(new UrlEncodedFormEntity(params, "UTF-8"));
+				} else if (paramStr != null) {
+					StringEntity ent = new StringEntity(paramStr, "UTF-8");
+					if (contentType != null) {
+						ent.setContentType(contentType);
+					}
+					httpPost.setEntity(ent);
+				}
+				request = httpPost;
+			} else {
+				request = new HttpGet(url);
+			}
+			if (headerMap != null) {
+				for (Entry<String, String> entry : headerMap.entrySet()) {
+					request.addHeader(entry.getKey(), entry.getValue());
+				}
+			}
+			return request;
+		}
+	}
+
+	/**
+	 * 동시 호출의 결과를 완료되는 순서대로 전달받는 리스너, executeAll 을 호출한 쓰레드에서 실행된다.
+	 */
+	public interface ResultListener {
+		/**
+		 * 요청 하나가 완료되었을 때 호출된다.
+		 * @param index 요청 목록에서의 위치
+		 * @param request 요청 객체
+		 * @param result 결과 객체, 실패하거나 시간이 초과되었으면 getError() 에 원인이 담겨있다.
+		 */
+		void onResult(int index, Request request, Result result);
+	}
+
 	/**
 	 * url 을 Get 방식으로 호출하고 결과를 리턴한다.
 	 * @param url url 주소
@@ -100,34 +287,17 @@ public final class HttpUtil {
 	 * @return Result 객체
 	 */
 	public static Result get(String url, Map<String, String> headerMap, int timeoutMilliseconds) {
-		int statusCode = 0;
-		String content = "";
-		HttpClient httpClient = null;
 		try {
-			httpClient = new DefaultHttpClient();
-			if (timeoutMilliseconds > 0) {
-				httpClient.getParams().setParameter(CoreConnectionPNames.SO_TIMEOUT, timeoutMilliseconds);
-			}
 			HttpGet httpGet = new HttpGet(url);
 			if (headerMap != null) {
 				for (Entry<String, String> entry : headerMap.entrySet()) {
 					httpGet.addHeader(entry.getKey(), entry.getValue());
 				}
 			}
-			HttpResponse response = httpClient.execute(httpGet);
-			statusCode = response.getStatusLine().getStatusCode();
-			HttpEntity resEntity = response.getEntity();
-			if (resEntity != null) {
-				content = EntityUtils.toString(resEntity);
-			}
-		} catch (Throwable e) {
+			return execute(httpGet, timeoutMilliseconds);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
-		} finally {
-			if (httpClient != null) {
-				httpClient.getConnectionManager().shutdown();
-			}
 		}
-		return new Result(statusCode, content);
 	}
 
 	/**
@@ -190,14 +360,7 @@ public final class HttpUtil {
 	 * @return Result 객체
 	 */
 	public static Result post(String url, Map<String, String> paramMap, Map<String, String> headerMap, int timeoutMilliseconds) {
-		int statusCode = 0;
-		String content = "";
-		HttpClient httpClient = null;
 		try {
-			httpClient = new DefaultHttpClient();
-			if (timeoutMilliseconds > 0) {
-				httpClient.getParams().setParameter(CoreConnectionPNames.SO_TIMEOUT, timeoutMilliseconds);
-			}
 			HttpPost httpPost = new HttpPost(url);
 			if (headerMap != null) {
 				for (Entry<String, String> entry : headerMap.entrySet()) {
@@ -212,20 +375,10 @@ public final class HttpUtil {
 				UrlEncodedFormEntity ent = new UrlEncodedFormEntity(params, "UTF-8");
 				httpPost.setEntity(ent);
 			}
-			HttpResponse response = httpClient.execute(httpPost);
-			statusCode = response.getStatusLine().getStatusCode();
-			HttpEntity resEntity = response.getEntity();
-			if (resEntity != null) {
-				content = EntityUtils.toString(resEntity);
-			}
-		} catch (Throwable e) {
+			return execute(httpPost, timeoutMilliseconds);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
-		} finally {
-			if (httpClient != null) {
-				httpClient.getConnectionManager().shutdown();
-			}
 		}
-		return new Result(statusCode, content);
 	}
 
 	/**
@@ -273,14 +426,7 @@ public final class HttpUtil {
 	 * @return Result 객체
 	 */
 	public static Result post(String url, Map<String, String> paramMap, List<File> fileList, Map<String, String> headerMap, int timeoutMilliseconds) {
-		int statusCode = 0;
-		String content = "";
-		HttpClient httpClient = null;
 		try {
-			httpClient = new DefaultHttpClient();
-			if (timeoutMilliseconds > 0) {
-				httpClient.getParams().setParameter(CoreConnectionPNames.SO_TIMEOUT, timeoutMilliseconds);
-			}
 			HttpPost httpPost = new HttpPost(url);
 			if (headerMap != null) {
 				for (Entry<String, String> entry : headerMap.entrySet()) {
@@ -300,20 +446,10 @@ public final class HttpUtil {
 				}
 			}
 			httpPost.setEntity(reqEntity);
-			HttpResponse response = httpClient.execute(httpPost);
-			statusCode = response.getStatusLine().getStatusCode();
-			HttpEntity resEntity = response.getEntity();
-			if (resEntity != null) {
-				content = EntityUtils.toString(resEntity);
-			}
-		} catch (Throwable e) {
+			return execute(httpPost, timeoutMilliseconds);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
-		} finally {
-			if (httpClient != null) {
-				httpClient.getConnectionManager().shutdown();
-			}
 		}
-		return new Result(statusCode, content);
 	}
 
 	/**
@@ -405,14 +541,7 @@ public final class HttpUtil {
 	 * @return Result 객체
 	 */
 	public static Result post(String url, String paramStr, String contentType, Map<String, String> headerMap, int timeoutMilliseconds) {
-		int statusCode = 0;
-		String content = "";
-		HttpClient httpClient = null;
 		try {
-			httpClient = new DefaultHttpClient();
-			if (timeoutMilliseconds > 0) {
-				httpClient.getParams().setParameter(CoreConnectionPNames.SO_TIMEOUT, timeoutMilliseconds);
-			}
 			HttpPost httpPost = new HttpPost(url);
 			if (headerMap != null) {
 				for (Entry<String, String> entry : headerMap.entrySet()) {
@@ -426,19 +555,402 @@ public final class HttpUtil {
 				}
 				httpPost.setEntity(ent);
 			}
-			HttpResponse response = httpClient.execute(httpPost);
-			statusCode = response.getStatusLine().getStatusCode();
+			return execute(httpPost, timeoutMilliseconds);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 여러 요청을 동시에 호출하고 요청 목록과 같은 순서로 결과를 리턴한다. 전체 소요시간은 가장 느린 요청의 응답시간이 된다.
+	 * <br>
+	 * ex) 세 곳의 API 를 동시에 호출하는 경우 : List&lt;Result&gt; resultList = HttpUtil.executeAll(Arrays.asList(new Request(url1), new Request(url2), new Request(url3)), 3000)
+	 * @param requestList 요청 객체 목록
+	 * @param timeoutMilliseconds 전체 타임아웃 시간(밀리세컨드), 0 이하이면 타임아웃 없음
+	 * @return Result 객체 목록, 실패하거나 시간 내에 끝나지 않은 요청은 상태코드가 0 이고 getError() 에 원인이 담겨있다.
+	 */
+	public static List<Result> executeAll(List<Request> requestList, int timeoutMilliseconds) {
+		return executeAll(requestList, timeoutMilliseconds, 0, null);
+	}
+
+	/**
+	 * 여러 요청을 동시에 호출하고 요청 목록과 같은 순서로 결과를 리턴한다.
+	 * Get 요청이 실행을 시작한 뒤 hedgeDelayMilliseconds 안에 응답하지 않거나 실패하면 같은 요청을 한번 더 보내고 먼저 도착한 응답을 사용한다.
+	 * @param requestList 요청 객체 목록
+	 * @param timeoutMilliseconds 전체 타임아웃 시간(밀리세컨드), 0 이하이면 타임아웃 없음
+	 * @param hedgeDelayMilliseconds 재요청 대기시간(밀리세컨드), 0 이하이면 재요청하지 않음
+	 * @return Result 객체 목록
+	 */
+	public static List<Result> executeAll(List<Request> requestList, int timeoutMilliseconds, int hedgeDelayMilliseconds) {
+		return executeAll(requestList, timeoutMilliseconds, hedgeDelayMilliseconds, null);
+	}
+
+	/**
+	 * 여러 요청을 동시에 호출하고 완료되는 순서대로 리스너에 전달한다. 결과는 요청 목록과 같은 순서로도 리턴한다.
+	 * 호스트별 동시 요청 수는 httputil.maxConcurrentPerHost(기본값 10)로 제한되며, 나머지 요청은 쓰레드를 점유하지 않고 호스트별 대기열에서 차례를 기다린다.
+	 * 재요청은 실행을 시작한 요청에 대해서만 하며, 대기열에 있는 요청은 재요청하지 않는다.
+	 * 전체 타임아웃은 현재 쓰레드의 처리 기한(DeadlineUtil)을 넘지 않으며, 시간이 초과되면 진행중인 요청을 중단한다.
+	 * @param requestList 요청 객체 목록
+	 * @param timeoutMilliseconds 전체 타임아웃 시간(밀리세컨드), 0 이하이면 타임아웃 없음
+	 * @param hedgeDelayMilliseconds Get 요청의 재요청 대기시간(밀리세컨드), 0 이하이면 재요청하지 않음
+	 * @param listener 결과 리스너, null 이면 전달하지 않음
+	 * @return Result 객체 목록
+	 */
+	public static List<Result> executeAll(List<Request> requestList, int timeoutMilliseconds, int hedgeDelayMilliseconds, ResultListener listener) {
+		int size = requestList.size();
+		Result[] results = new Result[size];
+		int timeout = DeadlineUtil.getTimeout(timeoutMilliseconds);
+		long startTime = System.currentTimeMillis();
+		long deadline = timeout > 0 ? startTime + timeout : Long.MAX_VALUE;
+		BlockingQueue<Attempt> doneQueue = new LinkedBlockingQueue<Attempt>();
+		Set<Attempt> attempts = new HashSet<Attempt>();
+		Attempt[] latest = new Attempt[size];
+		int[] running = new int[size];
+		boolean[] hedged = new boolean[size];
+		for (int i = 0; i < size; i++) {
+			latest[i] = submit(new Attempt(i, requestList.get(i), deadline, doneQueue), attempts, running);
+		}
+		int completed = 0;
+		try {
+			while (completed < size) {
+				long now = System.currentTimeMillis();
+				if (now >= deadline) {
+					break;
+				}
+				long hedgeTime = Long.MAX_VALUE;
+				if (hedgeDelayMilliseconds > 0) {
+					for (int i = 0; i < size; i++) {
+						if (results[i] != null || hedged[i] || requestList.get(i).post) {
+							continue;
+						}
+						long attemptStart = latest[i].startTime;
+						if (attemptStart == 0) {
+							// 대기열에 있는 요청은 실행을 시작할 때까지 재요청하지 않는다.
+							hedgeTime = Math.min(hedgeTime, now + hedgeDelayMilliseconds);
+						} else if (now >= attemptStart + hedgeDelayMilliseconds) {
+							hedged[i] = true;
+							latest[i] = submit(new Attempt(i, requestList.get(i), deadline, doneQueue), attempts, running);
+						} else {
+							hedgeTime = Math.min(hedgeTime, attemptStart + hedgeDelayMilliseconds);
+						}
+					}
+				}
+				Attempt attempt = doneQueue.poll(Math.min(deadline, hedgeTime) - now, TimeUnit.MILLISECONDS);
+				if (attempt == null) {
+					continue;
+				}
+				attempts.remove(attempt);
+				int index = attempt.index;
+				running[index]--;
+				if (results[index] != null) {
+					continue;
+				}
+				Result result;
+				try {
+					result = attempt.task.get();
+				} catch (ExecutionException e) {
+					if (hedgeDelayMilliseconds > 0 && !hedged[index] && !attempt.request.post) {
+						hedged[index] = true;
+						latest[index] = submit(new Attempt(index, attempt.request, deadline, doneQueue), attempts, running);
+						continue;
+					}
+					if (running[index] > 0) {
+						continue;
+					}
+					result = new Result(e.getCause());
+				}
+				results[index] = result;
+				completed++;
+				for (Attempt other : attempts) {
+					if (other.index == index) {
+						other.cancel();
+					}
+				}
+				if (listener != null) {
+					listener.onResult(index, attempt.request, result);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} finally {
+			for (Attempt attempt : attempts) {
+				attempt.cancel();
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			if (results[i] == null) {
+				results[i] = new Result(new TimeoutException("전체 타임아웃(" + timeout + "ms)이 초과되었습니다."));
+				if (listener != null) {
+					listener.onResult(i, requestList.get(i), results[i]);
+				}
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	/**
+	 * 공유 HTTP 클라이언트의 커넥션 풀 상태를 리턴한다.
+	 * <br>
+	 * ex) 커넥션 풀 상태를 JSON 으로 출력하는 경우 : JsonUtil.render(response, HttpUtil.getPoolStats())
+	 * @return 커넥션 풀 상태(maxTotal : 최대 커넥션 수, maxPerRoute : 호스트별 최대 커넥션 수, pooled : 풀에 있는 커넥션 수, active : 실행중인 요청 수, requests : 누적 요청 수, failures : 누적 실패 수, poolTimeouts : 커넥션 대기시간 초과 수)
+	 */
+	public static RecordMap getPoolStats() {
+		RecordMap stats = new RecordMap();
+		stats.put("maxTotal", Integer.valueOf(ClientHolder.connManager.getMaxTotal()));
+		stats.put("maxPerRoute", Integer.valueOf(ClientHolder.connManager.getDefaultMaxPerRoute()));
+		stats.put("pooled", Integer.valueOf(ClientHolder.connManager.getConnectionsInPool()));
+		stats.put("active", Integer.valueOf(active.get()));
+		stats.put("requests", Long.valueOf(requests.get()));
+		stats.put("failures", Long.valueOf(failures.get()));
+		stats.put("poolTimeouts", Long.valueOf(poolTimeouts.get()));
+		return stats;
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////// Private 메소드
+
+	/**
+	 * 커넥션 풀을 공유하는 HTTP 클라이언트를 리턴한다. 응답 본문을 끝까지 읽거나 요청을 abort 해야 커넥션이 풀로 반환된다.
+	 */
+	static HttpClient getClient() {
+		return ClientHolder.client;
+	}
+
+	/**
+	 * 공유 HTTP 클라이언트로 요청을 실행하고 응답 본문을 모두 읽어서 커넥션을 풀로 반환한다.
+	 * 타임아웃은 요청 단위로 설정하며, 처리 기한이 설정되어 있으면 커넥션 연결과 풀 대기시간도 남은 시간으로 제한한다.
+	 */
+	private static Result execute(HttpRequestBase request, int timeoutMilliseconds) throws IOException {
+		int timeout = DeadlineUtil.getTimeout(timeoutMilliseconds);
+		if (timeout > 0) {
+			request.getParams().setIntParameter(CoreConnectionPNames.SO_TIMEOUT, timeout);
+			if (DeadlineUtil.isActive()) {
+				request.getParams().setIntParameter(CoreConnectionPNames.CONNECTION_TIMEOUT, Math.min(timeout, ClientHolder.connectTimeout));
+				request.getParams().setLongParameter(ConnManagerPNames.TIMEOUT, Math.min(timeout, ClientHolder.poolTimeout));
+			}
+		}
+		requests.incrementAndGet();
+		active.incrementAndGet();
+		try {
+			HttpResponse response = ClientHolder.client.execute(request);
+			int statusCode = response.getStatusLine().getStatusCode();
+			String content = "";
 			HttpEntity resEntity = response.getEntity();
 			if (resEntity != null) {
 				content = EntityUtils.toString(resEntity);
 			}
-		} catch (Throwable e) {
-			throw new RuntimeException(e);
+			return new Result(statusCode, content);
+		} catch (ConnectionPoolTimeoutException e) {
+			poolTimeouts.incrementAndGet();
+			failures.incrementAndGet();
+			throw e;
+		} catch (IOException e) {
+			failures.incrementAndGet();
+			request.abort();
+			throw e;
+		} catch (RuntimeException e) {
+			failures.incrementAndGet();
+			request.abort();
+			throw e;
 		} finally {
-			if (httpClient != null) {
-				httpClient.getConnectionManager().shutdown();
+			active.decrementAndGet();
+		}
+	}
+
+	/**
+	 * 요청을 호스트별 대기열에 넣고 실행중인 요청 목록에 추가한다.
+	 */
+	private static Attempt submit(Attempt attempt, Set<Attempt> attempts, int[] running) {
+		attempts.add(attempt);
+		running[attempt.index]++;
+		FanoutExecutorHolder.getHostQueue(attempt.request.getHost()).submit(attempt.task);
+		return attempt;
+	}
+
+	/*
+	 * 동시 호출에서 요청 하나를 실행하는 작업, 완료되면 doneQueue 에 추가된다.
+	 */
+	private static final class Attempt implements Callable<Result> {
+		private final int index;
+		private final Request request;
+		private final long deadline;
+		private final FutureTask<Result> task;
+		private volatile long startTime;
+		private volatile HttpRequestBase httpRequest;
+		private volatile boolean aborted;
+
+		Attempt(int index, Request request, long deadline, final BlockingQueue<Attempt> doneQueue) {
+			this.index = index;
+			this.request = request;
+			this.deadline = deadline;
+			this.task = new FutureTask<Result>(this) {
+				@Override
+				protected void done() {
+					doneQueue.add(Attempt.this);
+				}
+			};
+		}
+
+		@Override
+		public Result call() throws Exception {
+			startTime = System.currentTimeMillis();
+			HttpRequestBase httpRequest = request.createHttpRequest();
+			int timeout = request.timeoutMilliseconds;
+			if (deadline != Long.MAX_VALUE) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					throw new TimeoutException("전체 타임아웃이 초과되었습니다.");
+				}
+				if (timeout <= 0 || timeout > remaining) {
+					timeout = (int) Math.min(remaining, Integer.MAX_VALUE);
+				}
+				httpRequest.getParams().setIntParameter(CoreConnectionPNames.CONNECTION_TIMEOUT, Math.min(timeout, ClientHolder.connectTimeout));
+				httpRequest.getParams().setLongParameter(ConnManagerPNames.TIMEOUT, Math.min(timeout, ClientHolder.poolTimeout));
+			}
+			this.httpRequest = httpRequest;
+			if (aborted) {
+				throw new IOException("요청이 중단되었습니다.");
+			}
+			return execute(httpRequest, timeout);
+		}
+
+		void cancel() {
+			task.cancel(false);
+			aborted = true;
+			HttpRequestBase httpRequest = this.httpRequest;
+			if (httpRequest != null) {
+				httpRequest.abort();
+			}
+		}
+	}
+
+	/*
+	 * 동시 호출을 실행하는 쓰레드 풀과 호스트별 대기열
+	 */
+	private static final class FanoutExecutorHolder {
+		private static final int maxConcurrentPerHost = DaemonExecutors.getInt("httputil.maxConcurrentPerHost", 10);
+		private static final ConcurrentMap<String, HostQueue> hostQueueMap = new ConcurrentHashMap<String, HostQueue>();
+		private static final ThreadPoolExecutor executor = DaemonExecutors.create("framework-http", "httputil.threads", 64);
+
+		private static HostQueue getHostQueue(String host) {
+			HostQueue hostQueue = hostQueueMap.get(host);
+			if (hostQueue == null) {
+				hostQueue = new HostQueue(maxConcurrentPerHost);
+				HostQueue old = hostQueueMap.putIfAbsent(host, hostQueue);
+				if (old != null) {
+					hostQueue = old;
+				}
+			}
+			return hostQueue;
+		}
+	}
+
+	/*
+	 * 호스트별 대기열, 허용 수만큼만 쓰레드 풀에 넘기고 나머지는 앞선 요청이 끝날 때 차례로 넘긴다.
+	 */
+	private static final class HostQueue {
+		private final LinkedList<FutureTask<Result>> pending = new LinkedList<FutureTask<Result>>();
+		private int available;
+
+		HostQueue(int permits) {
+			this.available = permits;
+		}
+
+		void submit(FutureTask<Result> task) {
+			synchronized (this) {
+				if (available <= 0) {
+					pending.add(task);
+					return;
+				}
+				available--;
+			}
+			start(task);
+		}
+
+		private void start(final FutureTask<Result> task) {
+			FanoutExecutorHolder.executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						task.run();
+					} finally {
+						release();
+					}
+				}
+			});
+		}
+
+		private void release() {
+			FutureTask<Result> next;
+			synchronized (this) {
+				do {
+					next = pending.poll();
+				} while (next != null && next.isDone());
+				if (next == null) {
+					available++;
+					return;
+				}
 			}
+			start(next);
+		}
+	}
+
+	/*
+	 * 커넥션 풀을 공유하는 HTTP 클라이언트, 유휴 커넥션은 백그라운드 쓰레드에서 주기적으로 정리한다.
+	 */
+	private static final class ClientHolder {
+		private static final int connectTimeout = Config.getInstance().getInt("httputil.connectTimeout", 10000);
+		private static final int poolTimeout = Config.getInstance().getInt("httputil.poolTimeout", 10000);
+		private static final ThreadSafeClientConnManager connManager = createConnManager();
+		private static final HttpClient client = createClient();
+
+		private static ThreadSafeClientConnManager createConnManager() {
+			ThreadSafeClientConnManager connManager = new ThreadSafeClientConnManager();
+			connManager.setMaxTotal(Config.getInstance().getInt("httputil.maxTotal", 200));
+			connManager.setDefaultMaxPerRoute(Config.getInstance().getInt("httputil.maxPerRoute", 20));
+			final long idleTimeout = Config.getInstance().getInt("httputil.idleTimeout", 60000);
+			ScheduledThreadPoolExecutor evictor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "framework-http-evictor");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			final ThreadSafeClientConnManager manager = connManager;
+			evictor.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						manager.closeExpiredConnections();
+						manager.closeIdleConnections(idleTimeout, TimeUnit.MILLISECONDS);
+					} catch (Throwable e) {
+						logger.error("", e);
+					}
+				}
+			}, 5, 5, TimeUnit.SECONDS);
+			return connManager;
+		}
+
+		private static HttpClient createClient() {
+			HttpParams params = new BasicHttpParams();
+			DefaultHttpClient.setDefaultHttpParams(params);
+			HttpConnectionParams.setConnectionTimeout(params, connectTimeout);
+			HttpConnectionParams.setSoTimeout(params, Config.getInstance().getInt("httputil.readTimeout", 0));
+			HttpConnectionParams.setStaleCheckingEnabled(params, Config.getInstance().getBoolean("httputil.staleCheck", false));
+			params.setLongParameter(ConnManagerPNames.TIMEOUT, poolTimeout);
+			// 여러 사용자의 요청이 클라이언트를 공유하므로 응답의 쿠키를 저장하지 않는다.
+			params.setParameter(ClientPNames.COOKIE_POLICY, CookiePolicy.IGNORE_COOKIES);
+			DefaultHttpClient client = new DefaultHttpClient(connManager, params);
+			final long keepAlive = Config.getInstance().getInt("httputil.keepAlive", 30000);
+			client.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+				@Override
+				public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+					long duration = super.getKeepAliveDuration(response, context);
+					return duration > 0 && duration < keepAlive ? duration : keepAlive;
+				}
+			});
+			return client;
 		}
-		return new Result(statusCode, content);
 	}
 }
\ No newline at end of file
@@ -1,16 +1,45 @@
 package framework.util;
 
+import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.Image;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
-
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.MultiFormatWriter;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
@@ -21,10 +50,18 @@ import nl.captcha.Captcha;
 import nl.captcha.gimpy.RippleGimpyRenderer;
 import nl.captcha.servlet.CaptchaServletUtil;
 
+import framework.config.Config;
+
 /**
  * 이미지 포맷 변경, 크기 변경시 이용할 수 있는 유틸리티 클래스
  */
 public final class ImageUtil {
+	private static final Log logger = LogFactory.getLog(ImageUtil.class);
+	private static final int FIT_BOTH = 0;
+	private static final int FIT_WIDTH = 1;
+	private static final int FIT_HEIGHT = 2;
+	private static final int MAX_DIGEST_ENTRIES = 10000;
+	private static final Map<String, String> digestMap = new ConcurrentHashMap<String, String>();
 
 	/**
 	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
@@ -55,29 +92,7 @@ public final class ImageUtil {
 	 * @param height 리사이즈할 세로 사이즈
 	 */
 	public static void resize(File srcFile, File destFile, int width, int height) {
-		Image resizedImg = null;
-		BufferedImage bufImg = null;
-		try {
-			BufferedImage image = ImageIO.read(srcFile);
-			double scale = getScale(width, height, image.getWidth(), image.getHeight());
-			int scaleWidth = (int) (scale * image.getWidth());
-			int scaleHeight = (int) (scale * image.getHeight());
-			resizedImg = image.getScaledInstance(scaleWidth, scaleHeight, Image.SCALE_SMOOTH);
-			bufImg = new BufferedImage(resizedImg.getWidth(null), resizedImg.getHeight(null), image.getType());
-			Graphics2D g2d = bufImg.createGraphics();
-			g2d.drawImage(resizedImg, 0, 0, null);
-			g2d.dispose();
-			ImageIO.write(bufImg, "jpg", destFile);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		} finally {
-			if (resizedImg != null) {
-				resizedImg.flush();
-			}
-			if (bufImg != null) {
-				bufImg.flush();
-			}
-		}
+		resize(srcFile, destFile, width, height, "jpg", -1);
 	}
 
 	/**
@@ -101,29 +116,7 @@ public final class ImageUtil {
 	 * @param width 리사이즈할 가로 사이즈
 	 */
 	public static void resizeWidth(File srcFile, File destFile, int width) {
-		Image resizedImg = null;
-		BufferedImage bufImg = null;
-		try {
-			BufferedImage image = ImageIO.read(srcFile);
-			double scale = getScale(width, image.getWidth());
-			int scaleWidth = (int) (scale * image.getWidth());
-			int scaleHeight = (int) (scale * image.getHeight());
-			resizedImg = image.getScaledInstance(scaleWidth, scaleHeight, Image.SCALE_SMOOTH);
-			bufImg = new BufferedImage(resizedImg.getWidth(null), resizedImg.getHeight(null), image.getType());
-			Graphics2D g2d = bufImg.createGraphics();
-			g2d.drawImage(resizedImg, 0, 0, null);
-			g2d.dispose();
-			ImageIO.write(bufImg, "jpg", destFile);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		} finally {
-			if (resizedImg != null) {
-				resizedImg.flush();
-			}
-			if (bufImg != null) {
-				bufImg.flush();
-			}
-		}
+		resize(srcFile, destFile, width, 0, FIT_WIDTH, "jpg", -1);
 	}
 
 	/**
@@ -147,29 +140,174 @@ public final class ImageUtil {
 	 * @param height 리사이즈할 세로 사이즈
 	 */
 	public static void resizeHeight(File srcFile, File destFile, int height) {
-		Image resizedImg = null;
-		BufferedImage bufImg = null;
+		resize(srcFile, destFile, 0, height, FIT_HEIGHT, "jpg", -1);
+	}
+
+	/**
+	 * 이미지를 지정한 포맷과 품질로 리사이즈 한다.
+	 * 소스 이미지 파일의 width, height 중 크기가 큰 쪽을 기준으로 하여 비율을 유지한채 이미지를 생성한다.
+	 * 큰 이미지는 필요한 해상도만큼만 건너뛰며(subsampling) 읽고, 절반씩 단계적으로 줄여(bilinear, 마지막 단계는 bicubic) 품질을 유지한다.
+	 * @param srcFile 소스 이미지 파일
+	 * @param destFile 대상 이미지 파일
+	 * @param width 리사이즈할 가로 사이즈
+	 * @param height 리사이즈할 세로 사이즈
+	 * @param format 이미지 포맷(jpg, png, gif, bmp)
+	 * @param quality 압축 품질(0.0 ~ 1.0), 0 보다 작으면 포맷의 기본값을 사용한다.
+	 */
+	public static void resize(File srcFile, File destFile, int width, int height, String format, float quality) {
+		resize(srcFile, destFile, width, height, FIT_BOTH, format, quality);
+	}
+
+	/**
+	 * 이미지를 지정한 포맷과 품질로 리사이즈 하여 출력 스트림에 쓴다.
+	 * 소스 이미지 파일의 width, height 중 크기가 큰 쪽을 기준으로 하여 비율을 유지한채 이미지를 생성한다.
+	 * @param srcFile 소스 이미지 파일
+	 * @param os 출력 스트림
+	 * @param width 리사이즈할 가로 사이즈
+	 * @param height 리사이즈할 세로 사이즈
+	 * @param format 이미지 포맷(jpg, png, gif, bmp)
+	 * @param quality 압축 품질(0.0 ~ 1.0), 0 보다 작으면 포맷의 기본값을 사용한다.
+	 */
+	public static void resize(File srcFile, OutputStream os, int width, int height, String format, float quality) {
 		try {
-			BufferedImage image = ImageIO.read(srcFile);
-			double scale = getScale(height, image.getHeight());
-			int scaleWidth = (int) (scale * image.getWidth());
-			int scaleHeight = (int) (scale * image.getHeight());
-			resizedImg = image.getScaledInstance(scaleWidth, scaleHeight, Image.SCALE_SMOOTH);
-			bufImg = new BufferedImage(resizedImg.getWidth(null), resizedImg.getHeight(null), image.getType());
-			Graphics2D g2d = bufImg.createGraphics();
-			g2d.drawImage(resizedImg, 0, 0, null);
-			g2d.dispose();
-			ImageIO.write(bufImg, "jpg", destFile);
+			BufferedImage image = readScaled(srcFile, width, height, FIT_BOTH, format);
+			try {
+				write(image, os, format, quality);
+			} finally {
+				image.flush();
+			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
-		} finally {
-			if (resizedImg != null) {
-				resizedImg.flush();
+		}
+	}
+
+	/**
+	 * 썸네일 이미지 파일을 리턴한다.
+	 * 소스 이미지의 내용(SHA-1)과 크기, 포맷, 품질로 만든 이름으로 캐시 디렉토리에 저장해 두고, 같은 요청에는 다시 만들지 않는다.
+	 * 캐시 디렉토리는 application.properties 의 imageutil.thumbnail.dir 로 설정하며, 기본값은 임시 디렉토리의 framework-thumbnails 이다.
+	 * @param srcFile 소스 이미지 파일
+	 * @param width 썸네일 가로 사이즈
+	 * @param height 썸네일 세로 사이즈
+	 * @param format 이미지 포맷(jpg, png, gif, bmp)
+	 * @param quality 압축 품질(0.0 ~ 1.0), 0 보다 작으면 포맷의 기본값을 사용한다.
+	 * @return 썸네일 이미지 파일
+	 */
+	public static File thumbnail(File srcFile, int width, int height, String format, float quality) {
+		try {
+			String digest = digest(srcFile);
+			String name = digest + "-" + width + "x" + height + (quality < 0 ? "" : "-q" + Math.round(quality * 100)) + "." + format.toLowerCase(Locale.ENGLISH);
+			File dir = new File(getThumbnailDir(), digest.substring(0, 2));
+			File thumbFile = new File(dir, name);
+			if (thumbFile.isFile()) {
+				return thumbFile;
+			}
+			if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+				throw new IOException("썸네일 디렉토리를 생성할 수 없습니다. : " + dir);
 			}
-			if (bufImg != null) {
-				bufImg.flush();
+			File tempFile = File.createTempFile(digest, ".tmp", dir);
+			try {
+				resize(srcFile, tempFile, width, height, FIT_BOTH, format, quality);
+				Files.move(tempFile.toPath(), thumbFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				if (tempFile.exists()) {
+					tempFile.delete();
+				}
+			}
+			return thumbFile;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 썸네일 이미지를 응답객체로 전송한다.
+	 * 캐시된 썸네일 파일을 ETag, Last-Modified 와 함께 전송하므로 브라우저 캐시가 유효하면 304 로 응답한다.
+	 * @param request 요청 객체
+	 * @param response 응답 객체
+	 * @param srcFile 소스 이미지 파일
+	 * @param width 썸네일 가로 사이즈
+	 * @param height 썸네일 세로 사이즈
+	 * @param format 이미지 포맷(jpg, png, gif, bmp)
+	 * @param quality 압축 품질(0.0 ~ 1.0), 0 보다 작으면 포맷의 기본값을 사용한다.
+	 */
+	public static void thumbnail(HttpServletRequest request, HttpServletResponse response, File srcFile, int width, int height, String format, float quality) {
+		File thumbFile = thumbnail(srcFile, width, height, format, quality);
+		String type = format.toLowerCase(Locale.ENGLISH);
+		FileUtil.serve(request, response, thumbFile, "image/" + ("jpg".equals(type) ? "jpeg" : type), null);
+	}
+
+	/**
+	 * 디렉토리의 이미지 파일을 CPU 코어 수 만큼 병렬로 리사이즈 한다.
+	 * 대상 디렉토리에 같은 이름(확장자는 포맷)으로 저장하며, 실패한 파일은 로그를 남기고 건너뛴다.
+	 * 쓰레드 수는 application.properties 의 imageutil.threads 로 설정하며, 기본값은 CPU 코어 수이다.
+	 * @param srcDir 소스 이미지 디렉토리
+	 * @param destDir 대상 디렉토리
+	 * @param width 리사이즈할 가로 사이즈
+	 * @param height 리사이즈할 세로 사이즈
+	 * @param format 이미지 포맷(jpg, png, gif, bmp)
+	 * @param quality 압축 품질(0.0 ~ 1.0), 0 보다 작으면 포맷의 기본값을 사용한다.
+	 * @return 리사이즈에 성공한 파일 수
+	 */
+	public static int resizeAll(File srcDir, File destDir, int width, int height, String format, float quality) {
+		List<File> srcFiles = new ArrayList<File>();
+		File[] files = srcDir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.isFile() && isImageFile(file)) {
+					srcFiles.add(file);
+				}
 			}
 		}
+		return resizeAll(srcFiles, destDir, width, height, format, quality);
+	}
+
+	/**
+	 * 이미지 파일 목록을 CPU 코어 수 만큼 병렬로 리사이즈 한다.
+	 * 대상 디렉토리에 같은 이름(확장자는 포맷)으로 저장하며, 실패한 파일은 로그를 남기고 건너뛴다.
+	 * @param srcFiles 소스 이미지 파일 목록
+	 * @param destDir 대상 디렉토리
+	 * @param width 리사이즈할 가로 사이즈
+	 * @param height 리사이즈할 세로 사이즈
+	 * @param format 이미지 포맷(jpg, png, gif, bmp)
+	 * @param quality 압축 품질(0.0 ~ 1.0), 0 보다 작으면 포맷의 기본값을 사용한다.
+	 * @return 리사이즈에 성공한 파일 수
+	 */
+	public static int resizeAll(List<File> srcFiles, final File destDir, final int width, final int height, final String format, final float quality) {
+		if (!destDir.isDirectory()) {
+			destDir.mkdirs();
+		}
+		List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+		for (final File srcFile : srcFiles) {
+			futures.add(ResizeExecutorHolder.executor.submit(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					String name = srcFile.getName();
+					int pos = name.lastIndexOf('.');
+					File destFile = new File(destDir, (pos < 0 ? name : name.substring(0, pos)) + "." + format.toLowerCase(Locale.ENGLISH));
+					try {
+						resize(srcFile, destFile, width, height, FIT_BOTH, format, quality);
+						return Boolean.TRUE;
+					} catch (Throwable e) {
+						logger.error("이미지를 리사이즈 하지 못했습니다. : " + srcFile, e);
+						return Boolean.FALSE;
+					}
+				}
+			}));
+		}
+		int count = 0;
+		for (Future<Boolean> future : futures) {
+			try {
+				if (future.get().booleanValue()) {
+					count++;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				logger.error("", e);
+			}
+		}
+		return count;
 	}
 
 	/**
@@ -402,6 +540,182 @@ public final class ImageUtil {
 
 	//////////////////////////////////////////////////////////////////////////////////////////Private 메소드
 
+	/*
+	 * resizeAll 에서 사용하는 쓰레드풀
+	 */
+	private static final class ResizeExecutorHolder {
+		private static final ExecutorService executor = DaemonExecutors.create("framework-image", "imageutil.threads", Runtime.getRuntime().availableProcessors());
+	}
+
+	private static void resize(File srcFile, File destFile, int width, int height, int fit, String format, float quality) {
+		try {
+			BufferedImage image = readScaled(srcFile, width, height, fit, format);
+			OutputStream os = new FileOutputStream(destFile);
+			try {
+				write(image, os, format, quality);
+			} finally {
+				os.close();
+				image.flush();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/*
+	 * 이미지 헤더로 원본 크기를 먼저 구한 후, 목표 크기의 2배 이상이 유지되는 만큼 건너뛰며 읽고 단계적으로 축소한다.
+	 */
+	private static BufferedImage readScaled(File srcFile, int width, int height, int fit, String format) throws IOException {
+		ImageInputStream iis = ImageIO.createImageInputStream(srcFile);
+		if (iis == null) {
+			throw new IOException("이미지 파일을 읽을 수 없습니다. : " + srcFile);
+		}
+		try {
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+			if (!readers.hasNext()) {
+				throw new IOException("지원하지 않는 이미지 포맷입니다. : " + srcFile);
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(iis, true, true);
+				int imageWidth = reader.getWidth(0);
+				int imageHeight = reader.getHeight(0);
+				double scale;
+				if (fit == FIT_WIDTH) {
+					scale = getScale(width, imageWidth);
+				} else if (fit == FIT_HEIGHT) {
+					scale = getScale(height, imageHeight);
+				} else {
+					scale = getScale(width, height, imageWidth, imageHeight);
+				}
+				int scaleWidth = Math.max(1, (int) (scale * imageWidth));
+				int scaleHeight = Math.max(1, (int) (scale * imageHeight));
+				ImageReadParam param = reader.getDefaultReadParam();
+				int subsampling = (int) Math.min(imageWidth / (scaleWidth * 2L), imageHeight / (scaleHeight * 2L));
+				if (subsampling > 1) {
+					param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				}
+				BufferedImage image = reader.read(0, param);
+				boolean alpha = image.getColorModel().hasAlpha() && !isJpeg(format);
+				return scale(image, scaleWidth, scaleHeight, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+			} finally {
+				reader.dispose();
+			}
+		} finally {
+			iis.close();
+		}
+	}
+
+	/*
+	 * 목표 크기가 될 때까지 절반씩 축소하며, 마지막 단계에서만 bicubic 보간을 사용한다.
+	 */
+	private static BufferedImage scale(BufferedImage image, int width, int height, int type) {
+		BufferedImage current = image;
+		int currentWidth = image.getWidth();
+		int currentHeight = image.getHeight();
+		do {
+			currentWidth = (currentWidth > width) ? Math.max(width, currentWidth / 2) : width;
+			currentHeight = (currentHeight > height) ? Math.max(height, currentHeight / 2) : height;
+			boolean last = (currentWidth == width && currentHeight == height);
+			BufferedImage scaled = new BufferedImage(currentWidth, currentHeight, type);
+			Graphics2D g2d = scaled.createGraphics();
+			g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, last ? RenderingHints.VALUE_INTERPOLATION_BICUBIC : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			if (type == BufferedImage.TYPE_INT_RGB) {
+				g2d.setColor(Color.WHITE);
+				g2d.fillRect(0, 0, currentWidth, currentHeight);
+			}
+			g2d.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+			g2d.dispose();
+			if (current != image) {
+				current.flush();
+			}
+			current = scaled;
+		} while (currentWidth != width || currentHeight != height);
+		image.flush();
+		return current;
+	}
+
+	private static void write(BufferedImage image, OutputStream os, String format, float quality) throws IOException {
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+		if (!writers.hasNext()) {
+			throw new IOException("지원하지 않는 이미지 포맷입니다. : " + format);
+		}
+		ImageWriter writer = writers.next();
+		ImageOutputStream ios = ImageIO.createImageOutputStream(os);
+		try {
+			writer.setOutput(ios);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if (quality >= 0 && param.canWriteCompressed()) {
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				if (param.getCompressionType() == null && param.getCompressionTypes() != null && param.getCompressionTypes().length > 0) {
+					param.setCompressionType(param.getCompressionTypes()[0]);
+				}
+				param.setCompressionQuality(Math.min(1f, quality));
+			}
+			writer.write(null, new IIOImage(image, null, null), param);
+			ios.flush();
+		} finally {
+			writer.dispose();
+			ios.close();
+		}
+	}
+
+	/*
+	 * 소스 이미지 내용의 SHA-1 값, 같은 파일(경로, 크기, 수정시각)은 다시 계산하지 않는다.
+	 */
+	private static String digest(File srcFile) throws IOException {
+		String fileKey = srcFile.getCanonicalPath() + "|" + srcFile.length() + "|" + srcFile.lastModified();
+		String digest = digestMap.get(fileKey);
+		if (digest != null) {
+			return digest;
+		}
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-1");
+			InputStream is = new FileInputStream(srcFile);
+			try {
+				byte[] buffer = new byte[64 * 1024];
+				int read;
+				while ((read = is.read(buffer)) > 0) {
+					md.update(buffer, 0, read);
+				}
+			} finally {
+				is.close();
+			}
+			digest = Hex.encodeHexString(md.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		if (digestMap.size() >= MAX_DIGEST_ENTRIES) {
+			digestMap.clear();
+		}
+		digestMap.put(fileKey, digest);
+		return digest;
+	}
+
+	private static File getThumbnailDir() {
+		String dir = null;
+		try {
+			dir = Config.getInstance().getString("imageutil.thumbnail.dir", null);
+		} catch (Throwable e) {
+			logger.error("", e);
+		}
+		if (dir == null || "".equals(dir.trim())) {
+			return new File(System.getProperty("java.io.tmpdir"), "framework-thumbnails");
+		}
+		return new File(dir.trim());
+	}
+
+	private static boolean isImageFile(File file) {
+		String ext = FileUtil.getFileExtension(file).toLowerCase(Locale.ENGLISH);
+		return ImageIO.getImageReadersBySuffix(ext).hasNext();
+	}
+
+	private static boolean isJpeg(String format) {
+		String type = format.toLowerCase(Locale.ENGLISH);
+		return "jpg".equals(type) || "jpeg".equals(type);
+	}
+
 	/**
 	 * 이미지를 회전한다.
 	 * 소스 이미지 파일의 크기는 유지한채 이미지를 회전한다.
@@ -1,14 +1,19 @@
 package framework.util;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -19,6 +24,7 @@ import org.stringtree.json.JSONWriter;
 
 import framework.db.RecordMap;
 import framework.db.RecordSet;
+import framework.db.RecordWriter;
 
 /**
  * JSON(JavaScript Object Notation)를 이용하여 개발할 때 이용할 수 있는 유틸리티 클래스
@@ -45,23 +51,9 @@ public final class JsonUtil {
 		if (response == null || rs == null) {
 			return 0;
 		}
-		PrintWriter pw;
-		try {
-			pw = response.getWriter();
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-		String[] colNms = rs.getColumns();
-		rs.moveRow(0);
-		pw.print("[");
-		int rowCount = 0;
-		while (rs.nextRow()) {
-			if (rowCount++ > 0) {
-				pw.print(",");
-			}
-			pw.print(jsonRowStr(rs, colNms));
-		}
-		pw.print("]");
+		JsonGenerator gen = new JsonGenerator(getWriter(response));
+		int rowCount = writeRecordSet(gen, rs);
+		gen.flush();
 		return rowCount;
 	}
 
@@ -76,19 +68,11 @@ public final class JsonUtil {
 		if (rs == null) {
 			return "";
 		}
-		String[] colNms = rs.getColumns();
-		rs.moveRow(0);
-		StringBuilder buf = new StringBuilder();
-		buf.append("[");
-		int rowCount = 0;
-		while (rs.nextRow()) {
-			if (rowCount++ > 0) {
-				buf.append(",");
-			}
-			buf.append(jsonRowStr(rs, colNms));
-		}
-		buf.append("]");
-		return buf.toString();
+		StringWriter sw = new StringWriter();
+		JsonGenerator gen = new JsonGenerator(sw);
+		writeRecordSet(gen, rs);
+		gen.flush();
+		return sw.toString();
 	}
 
 	/**
@@ -103,50 +87,10 @@ public final class JsonUtil {
 		if (response == null || rs == null) {
 			return 0;
 		}
-		try {
-			PrintWriter pw = response.getWriter();
-			try {
-				ResultSetMetaData rsmd = rs.getMetaData();
-				int cnt = rsmd.getColumnCount();
-				String[] colNms = new String[cnt];
-				for (int i = 1; i <= cnt; i++) {
-					colNms[i - 1] = rsmd.getColumnName(i).toLowerCase();
-				}
-				pw.print("[");
-				int rowCount = 0;
-				while (rs.next()) {
-					if (rowCount++ > 0) {
-						pw.print(",");
-					}
-					pw.print(jsonRowStr(rs, colNms));
-				}
-				pw.print("]");
-				return rowCount;
-			} finally {
-				Statement stmt = null;
-				try {
-					stmt = rs.getStatement();
-				} catch (SQLException e) {
-					logger.error("", e);
-				}
-				if (rs != null) {
-					try {
-						rs.close();
-					} catch (SQLException e) {
-						logger.error("", e);
-					}
-				}
-				if (stmt != null) {
-					try {
-						stmt.close();
-					} catch (SQLException e) {
-						logger.error("", e);
-					}
-				}
-			}
-		} catch (Throwable e) {
-			throw new RuntimeException(e);
-		}
+		JsonGenerator gen = new JsonGenerator(getWriter(response));
+		int rowCount = writeResultSet(gen, rs);
+		gen.flush();
+		return rowCount;
 	}
 
 	/**
@@ -160,50 +104,11 @@ public final class JsonUtil {
 		if (rs == null) {
 			return "";
 		}
-		StringBuilder buffer = new StringBuilder();
-		try {
-			try {
-				ResultSetMetaData rsmd = rs.getMetaData();
-				int cnt = rsmd.getColumnCount();
-				String[] colNms = new String[cnt];
-				for (int i = 1; i <= cnt; i++) {
-					colNms[i - 1] = rsmd.getColumnName(i).toLowerCase();
-				}
-				buffer.append("[");
-				int rowCount = 0;
-				while (rs.next()) {
-					if (rowCount++ > 0) {
-						buffer.append(",");
-					}
-					buffer.append(jsonRowStr(rs, colNms));
-				}
-				buffer.append("]");
-			} finally {
-				Statement stmt = null;
-				try {
-					stmt = rs.getStatement();
-				} catch (SQLException e) {
-					logger.error("", e);
-				}
-				if (rs != null) {
-					try {
-						rs.close();
-					} catch (SQLException e) {
-						logger.error("", e);
-					}
-				}
-				if (stmt != null) {
-					try {
-						stmt.close();
-					} catch (SQLException e) {
-						logger.error("", e);
-					}
-				}
-			}
-		} catch (Throwable e) {
-			throw new RuntimeException(e);
-		}
-		return buffer.toString();
+		StringWriter sw = new StringWriter();
+		JsonGenerator gen = new JsonGenerator(sw);
+		writeResultSet(gen, rs);
+		gen.flush();
+		return sw.toString();
 	}
 
 	/**
@@ -218,22 +123,10 @@ public final class JsonUtil {
 		if (response == null || mapList == null) {
 			return 0;
 		}
-		PrintWriter pw;
-		try {
-			pw = response.getWriter();
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-		pw.print("[");
-		int rowCount = 0;
-		for (RecordMap map : mapList) {
-			if (rowCount++ > 0) {
-				pw.print(",");
-			}
-			pw.print(jsonRowStr(map));
-		}
-		pw.print("]");
-		return rowCount;
+		JsonGenerator gen = new JsonGenerator(getWriter(response));
+		gen.writeList(mapList);
+		gen.flush();
+		return mapList.size();
 	}
 
 	/**
@@ -247,19 +140,11 @@ public final class JsonUtil {
 		if (mapList == null) {
 			return "";
 		}
-		StringBuilder buffer = new StringBuilder();
-		if (mapList.size() > 0) {
-			buffer.append("[");
-			for (RecordMap map : mapList) {
-				buffer.append(jsonRowStr(map));
-				buffer.append(",");
-			}
-			buffer.delete(buffer.length() - 1, buffer.length());
-			buffer.append("]");
-		} else {
-			buffer.append("[]");
-		}
-		return buffer.toString();
+		StringWriter sw = new StringWriter();
+		JsonGenerator gen = new JsonGenerator(sw);
+		gen.writeList(mapList);
+		gen.flush();
+		return sw.toString();
 	}
 
 	/**
@@ -274,13 +159,9 @@ public final class JsonUtil {
 		if (response == null || map == null) {
 			return 0;
 		}
-		PrintWriter pw;
-		try {
-			pw = response.getWriter();
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-		pw.print(jsonRowStr(map));
+		JsonGenerator gen = new JsonGenerator(getWriter(response));
+		gen.writeMap(map);
+		gen.flush();
 		return 1;
 	}
 
@@ -295,9 +176,40 @@ public final class JsonUtil {
 		if (map == null) {
 			return "";
 		}
-		StringBuilder buffer = new StringBuilder();
-		buffer.append(jsonRowStr(map));
-		return buffer.toString();
+		StringWriter sw = new StringWriter();
+		JsonGenerator gen = new JsonGenerator(sw);
+		gen.writeMap(map);
+		gen.flush();
+		return sw.toString();
+	}
+
+	/**
+	 * 행을 전달받는 즉시 JSON 배열 형식으로 출력하는 RecordWriter 를 생성한다.
+	 * <br>
+	 * ex) Mybatis 조회 결과를 JSON 형식으로 스트리밍 출력하는 경우 : RecordWriter writer = JsonUtil.openWriter(response); dao.selectStream("statement", param, writer); writer.close();
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @return RecordWriter 객체, 출력이 끝나면 close 를 호출해야 한다.
+	 */
+	public static RecordWriter openWriter(HttpServletResponse response) {
+		try {
+			return new JsonRecordWriter(response.getWriter(), false);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 행을 전달받는 즉시 JSON 배열 형식으로 파일(UTF-8)에 기록하는 RecordWriter 를 생성한다.
+	 * 디스크 공간 부족 등으로 기록에 실패했으면 close 에서 RuntimeException 이 발생한다.
+	 * @param file 파일
+	 * @return RecordWriter 객체, 출력이 끝나면 close 를 호출해야 한다.
+	 */
+	public static RecordWriter openWriter(File file) {
+		try {
+			return new JsonRecordWriter(new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8")), true);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
 	}
 
 	/**
@@ -376,120 +288,365 @@ public final class JsonUtil {
 
 	////////////////////////////////////////////////////////////////////////////////////////// Private 메소드
 
-	/**
-	 * 자바스크립트상에 특수하게 인식되는 문자들을 JSON등에 사용하기 위해 변환하여준다.
-	 * @param str 변환할 문자열
-	 */
-	private static String escape(String str) {
-		if (str == null) {
-			return "";
+	private static PrintWriter getWriter(HttpServletResponse response) {
+		try {
+			return response.getWriter();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
 		}
-		return str.replaceAll("\\\\", "\\\\\\\\").replaceAll("\"", "\\\\\"").replaceAll("\r\n", "\\\\n").replaceAll("\r", "\\\\n").replaceAll("\n", "\\\\n").replaceAll("\t", "\\\\t");
 	}
 
-	/**
-	 * JSON 용 Row 문자열 생성
-	 */
-	private static String jsonRowStr(RecordMap map) {
-		if (map == null) {
-			return "";
+	private static int writeRecordSet(JsonGenerator gen, RecordSet rs) {
+		String[] colNms = rs.getColumns();
+		char[][] keys = JsonGenerator.toKeys(colNms);
+		rs.moveRow(0);
+		gen.write('[');
+		int rowCount = 0;
+		while (rs.nextRow()) {
+			if (rowCount++ > 0) {
+				gen.write(',');
+			}
+			gen.write('{');
+			for (int c = 0; c < colNms.length; c++) {
+				if (c > 0) {
+					gen.write(',');
+				}
+				gen.write(keys[c]);
+				gen.writeValue(rs.get(colNms[c]));
+			}
+			gen.write('}');
 		}
-		StringBuilder buf = new StringBuilder();
-		if (map.entrySet().size() > 0) {
-			buf.append("{");
-			for (Entry<String, Object> entry : map.entrySet()) {
-				String key = "\"" + escape(entry.getKey()) + "\"";
-				Object value = entry.getValue();
-				if (value == null) {
-					buf.append(key + ":" + "\"\"");
-				} else {
-					if (value instanceof Number || value instanceof Boolean) {
-						buf.append(key + ":" + value.toString());
-					} else if (value instanceof Map) {
-						buf.append(key + ":" + render((RecordMap) value));
-					} else if (value instanceof List) {
-						@SuppressWarnings("unchecked")
-						List<RecordMap> list = (List<RecordMap>) value;
-						buf.append(key + ":" + render(list));
-					} else {
-						buf.append(key + ":" + "\"" + escape(value.toString()) + "\"");
+		gen.write(']');
+		return rowCount;
+	}
+
+	private static int writeResultSet(JsonGenerator gen, ResultSet rs) {
+		try {
+			try {
+				ResultSetMetaData rsmd = rs.getMetaData();
+				int cnt = rsmd.getColumnCount();
+				String[] colNms = new String[cnt];
+				for (int i = 1; i <= cnt; i++) {
+					colNms[i - 1] = rsmd.getColumnName(i).toLowerCase();
+				}
+				char[][] keys = JsonGenerator.toKeys(colNms);
+				gen.write('[');
+				int rowCount = 0;
+				while (rs.next()) {
+					if (rowCount++ > 0) {
+						gen.write(',');
+					}
+					gen.write('{');
+					for (int c = 0; c < cnt; c++) {
+						if (c > 0) {
+							gen.write(',');
+						}
+						gen.write(keys[c]);
+						gen.writeValue(rs.getObject(c + 1));
+					}
+					gen.write('}');
+				}
+				gen.write(']');
+				return rowCount;
+			} finally {
+				Statement stmt = null;
+				try {
+					stmt = rs.getStatement();
+				} catch (SQLException e) {
+					logger.error("", e);
+				}
+				if (rs != null) {
+					try {
+						rs.close();
+					} catch (SQLException e) {
+						logger.error("", e);
+					}
+				}
+				if (stmt != null) {
+					try {
+						stmt.close();
+					} catch (SQLException e) {
+						logger.error("", e);
 					}
 				}
-				buf.append(",");
 			}
-			buf.delete(buf.length() - 1, buf.length());
-			buf.append("}");
-		} else {
-			buf.append("{}");
+		} catch (Throwable e) {
+			throw new RuntimeException(e);
 		}
-		return buf.toString();
 	}
 
-	/**
-	 * JSON 용 Row 문자열 생성
+	/*
+	 * 재사용 버퍼에 JSON 을 쓰고 버퍼가 차면 Writer 로 한번에 내보내는 생성기
+	 * 컬럼명(키)은 한번만 이스케이프하여 재사용하고, 이스케이프할 문자가 없는 문자열은 복사 없이 그대로 쓴다.
+	 * Controller 가 응답객체의 Writer 를 먼저 얻으므로 OutputStream 대신 응답 Writer(응답 문자셋)로 출력한다.
 	 */
-	private static String jsonRowStr(RecordSet rs, String[] colNms) {
-		if (rs == null || colNms == null) {
-			return "";
+	private static final class JsonGenerator {
+		private static final char[] HEX = "0123456789abcdef".toCharArray();
+		private static final int MAX_KEY_CACHE = 1024;
+		private final Writer writer;
+		private final char[] buf = new char[8192];
+		private final Map<String, char[]> keyCache = new HashMap<String, char[]>();
+		private int pos = 0;
+
+		JsonGenerator(Writer writer) {
+			this.writer = writer;
 		}
-		StringBuilder buf = new StringBuilder();
-		if (colNms.length > 0) {
-			buf.append("{");
+
+		static char[][] toKeys(String[] colNms) {
+			char[][] keys = new char[colNms.length][];
 			for (int c = 0; c < colNms.length; c++) {
-				Object value = rs.get(colNms[c]);
-				String key = "\"" + escape(colNms[c]) + "\"";
+				keys[c] = toKey(colNms[c]);
+			}
+			return keys;
+		}
 
-				if (value == null) {
-					buf.append(key + ":" + "\"\"");
-				} else {
-					if (value instanceof Number || value instanceof Boolean) {
-						buf.append(key + ":" + value.toString());
-					} else {
-						buf.append(key + ":" + "\"" + escape(value.toString()) + "\"");
-					}
+		static char[] toKey(String name) {
+			StringBuilder key = new StringBuilder(name.length() + 3);
+			key.append('"');
+			appendEscaped(key, name);
+			key.append("\":");
+			char[] chars = new char[key.length()];
+			key.getChars(0, key.length(), chars, 0);
+			return chars;
+		}
+
+		void write(char c) {
+			if (pos == buf.length) {
+				flushBuffer();
+			}
+			buf[pos++] = c;
+		}
+
+		void write(char[] chars) {
+			if (chars.length > buf.length - pos) {
+				flushBuffer();
+				if (chars.length > buf.length) {
+					writeDirect(chars, 0, chars.length);
+					return;
 				}
-				buf.append(",");
 			}
-			buf.delete(buf.length() - 1, buf.length());
-			buf.append("}");
-		} else {
-			buf.append("{}");
+			System.arraycopy(chars, 0, buf, pos, chars.length);
+			pos += chars.length;
 		}
-		return buf.toString();
-	}
 
-	private static String jsonRowStr(ResultSet rs, String[] colNms) {
-		if (rs == null || colNms == null) {
-			return "";
+		void write(String str) {
+			write(str, 0, str.length());
 		}
-		StringBuilder buf = new StringBuilder();
-		if (colNms.length > 0) {
-			buf.append("{");
-			for (int c = 0; c < colNms.length; c++) {
-				Object value;
-				try {
-					value = rs.getObject(colNms[c]);
-				} catch (SQLException e) {
-					throw new RuntimeException(e);
+
+		void writeKey(String key) {
+			char[] chars = keyCache.get(key);
+			if (chars == null) {
+				chars = toKey(key);
+				if (keyCache.size() < MAX_KEY_CACHE) {
+					keyCache.put(key, chars);
 				}
-				String key = "\"" + escape(colNms[c]) + "\"";
+			}
+			write(chars);
+		}
 
-				if (value == null) {
-					buf.append(key + ":" + "\"\"");
-				} else {
-					if (value instanceof Number || value instanceof Boolean) {
-						buf.append(key + ":" + value.toString());
-					} else {
-						buf.append(key + ":" + "\"" + escape(value.toString()) + "\"");
+		/*
+		 * null 은 빈문자열, 숫자와 불린은 그대로, Map 은 객체, List 는 배열, 그 외는 문자열로 쓴다.
+		 */
+		void writeValue(Object value) {
+			if (value == null) {
+				write('"');
+				write('"');
+			} else if (value instanceof Number || value instanceof Boolean) {
+				write(value.toString());
+			} else if (value instanceof Map) {
+				writeMap((Map<?, ?>) value);
+			} else if (value instanceof List) {
+				writeList((List<?>) value);
+			} else {
+				writeString(value.toString());
+			}
+		}
+
+		void writeMap(Map<?, ?> map) {
+			write('{');
+			boolean first = true;
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				if (!first) {
+					write(',');
+				}
+				first = false;
+				writeKey(String.valueOf(entry.getKey()));
+				writeValue(entry.getValue());
+			}
+			write('}');
+		}
+
+		void writeList(List<?> list) {
+			write('[');
+			boolean first = true;
+			for (Object item : list) {
+				if (!first) {
+					write(',');
+				}
+				first = false;
+				writeValue(item);
+			}
+			write(']');
+		}
+
+		void writeString(String str) {
+			write('"');
+			int len = str.length();
+			int start = 0;
+			for (int i = 0; i < len; i++) {
+				char c = str.charAt(i);
+				if (c >= 0x20 && c != '"' && c != '\\') {
+					continue;
+				}
+				if (i > start) {
+					write(str, start, i);
+				}
+				if (c == '\r' && i + 1 < len && str.charAt(i + 1) == '\n') {
+					i++;
+				}
+				writeEscape(c);
+				start = i + 1;
+			}
+			if (start < len) {
+				write(str, start, len);
+			}
+			write('"');
+		}
+
+		void flush() {
+			flushBuffer();
+			if (writer instanceof PrintWriter) {
+				return;
+			}
+			try {
+				writer.flush();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		private void write(String str, int start, int end) {
+			int len = end - start;
+			if (len > buf.length - pos) {
+				flushBuffer();
+				if (len > buf.length) {
+					try {
+						writer.write(str, start, len);
+					} catch (IOException e) {
+						throw new RuntimeException(e);
 					}
+					return;
 				}
-				buf.append(",");
 			}
-			buf.delete(buf.length() - 1, buf.length());
-			buf.append("}");
-		} else {
-			buf.append("{}");
+			str.getChars(start, end, buf, pos);
+			pos += len;
+		}
+
+		private void writeEscape(char c) {
+			switch (c) {
+			case '"':
+				write('\\');
+				write('"');
+				break;
+			case '\\':
+				write('\\');
+				write('\\');
+				break;
+			case '\r':
+			case '\n':
+				write('\\');
+				write('n');
+				break;
+			case '\t':
+				write('\\');
+				write('t');
+				break;
+			default:
+				write('\\');
+				write('u');
+				write('0');
+				write('0');
+				write(HEX[(c >> 4) & 0xF]);
+				write(HEX[c & 0xF]);
+			}
+		}
+
+		private static void appendEscaped(StringBuilder sb, String str) {
+			for (int i = 0; i < str.length(); i++) {
+				char c = str.charAt(i);
+				if (c == '"' || c == '\\') {
+					sb.append('\\').append(c);
+				} else if (c == '\r' || c == '\n') {
+					if (c == '\r' && i + 1 < str.length() && str.charAt(i + 1) == '\n') {
+						i++;
+					}
+					sb.append("\\n");
+				} else if (c == '\t') {
+					sb.append("\\t");
+				} else if (c < 0x20) {
+					sb.append("\\u00").append(HEX[(c >> 4) & 0xF]).append(HEX[c & 0xF]);
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+
+		private void writeDirect(char[] chars, int off, int len) {
+			try {
+				writer.write(chars, off, len);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		private void flushBuffer() {
+			if (pos > 0) {
+				writeDirect(buf, 0, pos);
+				pos = 0;
+			}
+		}
+	}
+
+	/*
+	 * JSON 배열 스트리밍 출력
+	 */
+	private static final class JsonRecordWriter implements RecordWriter {
+		private final PrintWriter pw;
+		private final boolean closeStream;
+		private final JsonGenerator gen;
+		private int rowCount = 0;
+
+		JsonRecordWriter(PrintWriter pw, boolean closeStream) {
+			this.pw = pw;
+			this.closeStream = closeStream;
+			this.gen = new JsonGenerator(pw);
+			gen.write('[');
+		}
+
+		@Override
+		public void handleRecord(RecordMap record) {
+			if (rowCount++ > 0) {
+				gen.write(',');
+			}
+			gen.writeMap(record);
+		}
+
+		@Override
+		public void close() {
+			gen.write(']');
+			gen.flush();
+			pw.flush();
+			if (closeStream) {
+				pw.close();
+				if (pw.checkError()) {
+					throw new RuntimeException(new IOException("파일을 기록하는 중 오류가 발생하였습니다."));
+				}
+			}
+		}
+
+		@Override
+		public int getRowCount() {
+			return rowCount;
 		}
-		return buf.toString();
 	}
-}
\ No newline at end of file
+}
@@ -17,6 +17,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import com.tobesoft.platform.PlatformFRResponse;
 import com.tobesoft.platform.PlatformRequest;
 import com.tobesoft.platform.PlatformResponse;
 import com.tobesoft.platform.data.ColumnInfo;
@@ -25,6 +26,7 @@ import com.tobesoft.platform.data.DatasetList;
 import com.tobesoft.platform.data.VariableList;
 
 import framework.action.Params;
+import framework.config.Config;
 import framework.db.RecordSet;
 
 /**
@@ -148,6 +150,69 @@ public final class MiPlatformUtil {
 		return rowCount;
 	}
 
+	/**
+	 * ResultSet을 마이플랫폼 데이타셋(명칭은 datasetName 인자 값)으로 변환하면서 First Row 방식으로 나누어 응답객체로 전송한다.
+	 * 한번에 전송하는 행수는 application.properties 의 miplatformutil.partSize 값(기본값 1000)을 사용한다.
+	 * <br>
+	 * ex) rs를 마이플랫폼 데이터셋(명칭은 result)으로 변환하여 response로 나누어 전송하는 경우 : MiPlatformUtil.renderStream(response, "result", rs)
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param datasetName 데이타셋 이름
+	 * @param rs 마이플랫폼 데이타셋으로 변환할 ResultSet 객체, ResultSet 객체는 자동으로 close 된다.
+	 * @return 처리건수
+	 */
+	public static int renderStream(HttpServletResponse response, String datasetName, ResultSet rs) {
+		return renderStream(response, datasetName, rs, Config.getInstance().getInt("miplatformutil.partSize", 1000));
+	}
+
+	/**
+	 * ResultSet을 마이플랫폼 데이타셋(명칭은 datasetName 인자 값)으로 변환하면서 First Row 방식으로 partSize 행마다 나누어 응답객체로 전송한다.
+	 * 첫번째 묶음은 VariableList 와 함께 전송되어 클라이언트가 바로 화면에 표시할 수 있고, 이후 묶음은 전송 후 데이타셋에서 제거되므로 행수와 관계없이 메모리 사용량이 일정하다.
+	 * First Row 방식은 바이너리 형식으로만 전송된다.
+	 * <br>
+	 * ex) rs를 마이플랫폼 데이터셋(명칭은 result)으로 변환하여 response로 500행씩 전송하는 경우 : MiPlatformUtil.renderStream(response, "result", rs, 500)
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param datasetName 데이타셋 이름
+	 * @param rs 마이플랫폼 데이타셋으로 변환할 ResultSet 객체, ResultSet 객체는 자동으로 close 된다.
+	 * @param partSize 한번에 전송할 행수
+	 * @return 처리건수
+	 */
+	public static int renderStream(HttpServletResponse response, String datasetName, ResultSet rs, int partSize) {
+		if (response == null || datasetName == null || rs == null) {
+			return 0;
+		}
+		int size = partSize < 1 ? 1 : partSize;
+		try {
+			try {
+				Dataset dSet = new Dataset(datasetName, "utf-8", false, false);
+				String[] colNms = addColumns(dSet, rs);
+				boolean hasMore = fillDataset(dSet, rs, colNms, size);
+				int rowCount = dSet.getRowCount();
+				VariableList vl = new VariableList();
+				vl.addStr("ErrorCode", "0");
+				vl.addStr("ErrorMsg", "SUCC");
+				DatasetList dl = new DatasetList();
+				dl.addDataset(dSet);
+				response.reset();
+				PlatformFRResponse pResponse = new PlatformFRResponse(response, "utf-8");
+				pResponse.sendFirstData(vl, dl);
+				dSet.deleteAll();
+				do {
+					hasMore = hasMore && fillDataset(dSet, rs, colNms, size);
+					rowCount += dSet.getRowCount();
+					pResponse.sendNextData(dSet, 0, dSet.getRowCount(), !hasMore);
+					dSet.deleteAll();
+				} while (hasMore);
+				return rowCount;
+			} finally {
+				close(rs);
+			}
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	/**
 	 * 해당 HttpServletRequest로 부터 PlatformRequest 반환받는다
 	 * <br>
@@ -438,35 +503,7 @@ public final class MiPlatformUtil {
 		}
 		try {
 			try {
-				ResultSetMetaData rsmd = rs.getMetaData();
-				int cnt = rsmd.getColumnCount();
-				String[] colNms = new String[cnt];
-				int[] colSize = new int[cnt];
-				int[] colType = new int[cnt];
-				for (int i = 1; i <= cnt; i++) {
-					colNms[i - 1] = rsmd.getColumnName(i).toLowerCase();
-					colSize[i - 1] = rsmd.getColumnDisplaySize(i);
-					colType[i - 1] = rsmd.getColumnType(i);
-				}
-				// 컬럼 레이아웃 셋팅
-				for (int c = 0; c < colNms.length; c++) {
-					switch (colType[c]) {
-					case Types.BIGINT:
-					case Types.DECIMAL:
-					case Types.DOUBLE:
-					case Types.FLOAT:
-					case Types.INTEGER:
-					case Types.NUMERIC:
-					case Types.REAL:
-					case Types.SMALLINT:
-					case Types.TINYINT:
-						dSet.addColumn(colNms[c], ColumnInfo.COLUMN_TYPE_DECIMAL, colSize[c]);
-						break;
-					default:
-						dSet.addColumn(colNms[c], ColumnInfo.COLUMN_TYPE_STRING, colSize[c]);
-						break;
-					}
-				}
+				String[] colNms = addColumns(dSet, rs);
 				int rowCount = 0;
 				while (rs.next()) {
 					rowCount++;
@@ -474,32 +511,79 @@ public final class MiPlatformUtil {
 				}
 				return rowCount;
 			} finally {
-				Statement stmt = null;
-				try {
-					stmt = rs.getStatement();
-				} catch (SQLException e) {
-					logger.error("", e);
-				}
-				if (rs != null) {
-					try {
-						rs.close();
-					} catch (SQLException e) {
-						logger.error("", e);
-					}
-				}
-				if (stmt != null) {
-					try {
-						stmt.close();
-					} catch (SQLException e) {
-						logger.error("", e);
-					}
-				}
+				close(rs);
 			}
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	/**
+	 * ResultSet의 컬럼 레이아웃을 마이플랫폼 데이타셋에 셋팅하고 컬럼명 배열을 리턴한다.
+	 */
+	private static String[] addColumns(Dataset dSet, ResultSet rs) throws SQLException {
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int cnt = rsmd.getColumnCount();
+		String[] colNms = new String[cnt];
+		for (int i = 1; i <= cnt; i++) {
+			colNms[i - 1] = rsmd.getColumnName(i).toLowerCase();
+			switch (rsmd.getColumnType(i)) {
+			case Types.BIGINT:
+			case Types.DECIMAL:
+			case Types.DOUBLE:
+			case Types.FLOAT:
+			case Types.INTEGER:
+			case Types.NUMERIC:
+			case Types.REAL:
+			case Types.SMALLINT:
+			case Types.TINYINT:
+				dSet.addColumn(colNms[i - 1], ColumnInfo.COLUMN_TYPE_DECIMAL, rsmd.getColumnDisplaySize(i));
+				break;
+			default:
+				dSet.addColumn(colNms[i - 1], ColumnInfo.COLUMN_TYPE_STRING, rsmd.getColumnDisplaySize(i));
+				break;
+			}
+		}
+		return colNms;
+	}
+
+	/**
+	 * ResultSet에서 최대 size 행을 읽어 데이타셋에 추가하고, 읽을 행이 남아있는지 여부를 리턴한다.
+	 */
+	private static boolean fillDataset(Dataset dSet, ResultSet rs, String[] colNms, int size) throws SQLException {
+		while (dSet.getRowCount() < size) {
+			if (!rs.next()) {
+				return false;
+			}
+			appendRow(dSet, rs, colNms);
+		}
+		return true;
+	}
+
+	/**
+	 * ResultSet과 Statement를 close 한다.
+	 */
+	private static void close(ResultSet rs) {
+		Statement stmt = null;
+		try {
+			stmt = rs.getStatement();
+		} catch (SQLException e) {
+			logger.error("", e);
+		}
+		try {
+			rs.close();
+		} catch (SQLException e) {
+			logger.error("", e);
+		}
+		if (stmt != null) {
+			try {
+				stmt.close();
+			} catch (SQLException e) {
+				logger.error("", e);
+			}
+		}
+	}
+
 	/**
 	 * 마이플랫폼 데이타셋에 RecordSet 한행 추가
 	 */
@@ -10,12 +10,25 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.Template;
 
 /**
  * Mustache를 이용한 템플릿 처리 유틸리티 클래스
  */
 public class MustacheUtil {
 	private static final Log logger = LogFactory.getLog(MustacheUtil.class);
+	private static final Mustache.Compiler compiler = Mustache.compiler();
+	private static final TemplateCache<Template> cache = new TemplateCache<Template>() {
+		@Override
+		protected Template compile(File file, String encoding) throws Exception {
+			Reader reader = new FileReader(file);
+			try {
+				return compiler.compile(reader);
+			} finally {
+				reader.close();
+			}
+		}
+	};
 
 	/**
 	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
@@ -31,7 +44,7 @@ public class MustacheUtil {
 	 */
 	public static String render(Reader templateReader, Object param) {
 		try {
-			return Mustache.compiler().compile(templateReader).execute(param);
+			return compiler.compile(templateReader).execute(param);
 		} catch (Exception e) {
 			logger.error("", e);
 			return "";
@@ -40,13 +53,14 @@ public class MustacheUtil {
 
 	/**
 	 * 템플릿 파일에 param 객체를 적용해서 문자열을 만든다.
+	 * 컴파일된 템플릿은 파일별로 보관하여 재사용하며, 파일이 수정되면 다시 컴파일한다.
 	 * @param templateFile 템플릿 파일 객체
 	 * @param param 파라미터 객체
 	 * @return 템플릿이 적용된 문자열
 	 */
 	public static String render(File templateFile, Object param) {
 		try {
-			return render(new FileReader(templateFile), param);
+			return cache.get(templateFile, null).execute(param);
 		} catch (Exception e) {
 			logger.error("", e);
 			return "";
@@ -62,4 +76,13 @@ public class MustacheUtil {
 	public static String render(InputStream inputStream, Object param) {
 		return render(new InputStreamReader(inputStream), param);
 	}
+
+	/**
+	 * 컴파일하여 보관중인 템플릿을 모두 삭제한다.
+	 * <br>
+	 * ex) MustacheUtil.clearCache()
+	 */
+	public static void clearCache() {
+		cache.clear();
+	}
 }
\ No newline at end of file
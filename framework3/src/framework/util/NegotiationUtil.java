@@ -0,0 +1,630 @@
+package framework.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+
+import framework.db.RecordSet;
+
+/**
+ * 요청의 Accept 헤더에 따라 조회 결과를 JSON, CBOR, MessagePack, 컬럼 우선 바이너리 형식 중 하나로 출력하는 유틸리티 클래스
+ * 대량의 행을 조회하는 그리드 화면에서 바이너리 형식을 사용하면 전송량과 클라이언트의 해석 비용을 줄일 수 있다.
+ * <br>
+ * 형식별 Content-Type 과 출력 구조는 다음과 같다.
+ * <br>
+ * application/json : JsonUtil.render 와 같은 객체 배열
+ * <br>
+ * application/cbor : 객체의 배열(길이 미정 배열), null 은 CBOR null, 소수는 decimal fraction(tag 4), 바이너리는 byte string 으로 출력
+ * <br>
+ * application/msgpack : 행마다 하나의 맵을 이어서 출력하는 MessagePack 스트림, 소수와 long 범위를 넘는 정수는 정밀도를 잃지 않도록 문자열로 출력
+ * <br>
+ * application/x-columnar : "FWC1", 컬럼수(uint16), 컬럼명(uint16 길이 + UTF-8) 다음에 최대 1024행 단위 블록(행수 uint32, 0 이면 끝)이 이어지며,
+ * 블록 안에서는 컬럼마다 타입(1:long, 2:double, 3:string, 4:boolean, 5:binary, 1바이트), null 비트맵, null 이 아닌 값들을 순서대로 기록한다.
+ * 숫자는 빅엔디안, 문자열과 바이너리는 varint 길이 + 바이트(문자열은 UTF-8)이다. 소수와 long 범위를 넘는 정수는 문자열로 기록한다.
+ */
+public final class NegotiationUtil {
+	private static final Log logger = LogFactory.getLog(NegotiationUtil.class);
+	private static final String JSON = "application/json";
+	private static final String CBOR = "application/cbor";
+	private static final String MSGPACK = "application/msgpack";
+	private static final String COLUMNAR = "application/x-columnar";
+	private static final CBORFactory cborFactory = new CBORFactory();
+
+	static {
+		cborFactory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	/**
+	 * 생성자, 외부에서 객체를 인스턴스화 할 수 없도록 설정
+	 */
+	private NegotiationUtil() {
+	}
+
+	/**
+	 * RecordSet을 Accept 헤더에 맞는 형식으로 출력한다.
+	 * <br>
+	 * ex) 그리드 데이터를 출력하는 경우 : NegotiationUtil.render(request, response, rs)
+	 * @param request 클라이언트 요청객체
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param rs 출력할 RecordSet 객체
+	 * @return 처리건수
+	 */
+	public static int render(HttpServletRequest request, HttpServletResponse response, RecordSet rs) {
+		if (request == null || response == null || rs == null) {
+			return 0;
+		}
+		String contentType = getContentType(request.getHeader("Accept"));
+		if (JSON.equals(contentType)) {
+			response.setHeader("Vary", "Accept");
+			return JsonUtil.render(response, rs);
+		}
+		return render(response, new RecordSetSource(rs), contentType);
+	}
+
+	/**
+	 * ResultSet을 Accept 헤더에 맞는 형식으로 출력한다.
+	 * <br>
+	 * ex) 그리드 데이터를 출력하는 경우 : NegotiationUtil.render(request, response, rs)
+	 * @param request 클라이언트 요청객체
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param rs 출력할 ResultSet 객체, ResultSet 객체는 자동으로 close 된다.
+	 * @return 처리건수
+	 */
+	public static int render(HttpServletRequest request, HttpServletResponse response, ResultSet rs) {
+		if (request == null || response == null || rs == null) {
+			return 0;
+		}
+		String contentType = getContentType(request.getHeader("Accept"));
+		if (JSON.equals(contentType)) {
+			response.setHeader("Vary", "Accept");
+			return JsonUtil.render(response, rs);
+		}
+		// JSON 은 JsonUtil.render 가 close 하며, 그 외 형식은 ResultSetSource 대신 여기서 ResultSet 과 Statement 를 close 한다.
+		try {
+			return render(response, new ResultSetSource(rs), contentType);
+		} finally {
+			Statement stmt = null;
+			try {
+				stmt = rs.getStatement();
+			} catch (SQLException e) {
+				logger.error("", e);
+			}
+			try {
+				rs.close();
+			} catch (SQLException e) {
+				logger.error("", e);
+			}
+			if (stmt != null) {
+				try {
+					stmt.close();
+				} catch (SQLException e) {
+					logger.error("", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Accept 헤더에서 지원하는 형식 중 품질값(q)이 가장 높은 Content-Type 을 리턴한다.
+	 * 지원하는 형식이 없거나 헤더가 없으면 application/json 을 리턴한다.
+	 * @param accept Accept 헤더값
+	 * @return Content-Type
+	 */
+	public static String getContentType(String accept) {
+		if (accept == null) {
+			return JSON;
+		}
+		String contentType = JSON;
+		double best = -1;
+		for (String item : accept.split(",")) {
+			String[] parts = item.split(";");
+			String type = parts[0].trim().toLowerCase(Locale.ENGLISH);
+			double q = 1;
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if (param.startsWith("q=")) {
+					try {
+						q = Double.parseDouble(param.substring(2).trim());
+					} catch (NumberFormatException e) {
+						q = 0;
+					}
+				}
+			}
+			String supported = null;
+			if (JSON.equals(type) || "*/*".equals(type) || "application/*".equals(type)) {
+				supported = JSON;
+			} else if (CBOR.equals(type)) {
+				supported = CBOR;
+			} else if (MSGPACK.equals(type) || "application/x-msgpack".equals(type)) {
+				supported = MSGPACK;
+			} else if (COLUMNAR.equals(type)) {
+				supported = COLUMNAR;
+			}
+			if (supported != null && q > 0 && q > best) {
+				best = q;
+				contentType = supported;
+			}
+		}
+		return contentType;
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////////Private 메소드
+
+	private static int render(HttpServletResponse response, RowSource source, String contentType) {
+		try {
+			response.reset();
+			response.setContentType(contentType);
+			response.setHeader("Vary", "Accept");
+			OutputStream os = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+			RowEncoder encoder;
+			if (CBOR.equals(contentType)) {
+				encoder = new CborEncoder(os);
+			} else if (MSGPACK.equals(contentType)) {
+				encoder = new MsgpackEncoder(os);
+			} else {
+				encoder = new ColumnarEncoder(os);
+			}
+			String[] colNms = source.getColumns();
+			Object[] values = new Object[colNms.length];
+			encoder.begin(colNms);
+			int rowCount = 0;
+			while (source.next(values)) {
+				encoder.row(values);
+				rowCount++;
+			}
+			encoder.end();
+			os.flush();
+			return rowCount;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/*
+	 * BigDecimal, BigInteger 는 long 으로 정확히 표현할 수 있으면 long 으로 바꾸고, 아니면 정밀도를 잃지 않도록 그대로 둔다.
+	 */
+	private static Object normalize(Object value) {
+		if (value instanceof BigDecimal) {
+			BigDecimal decimal = (BigDecimal) value;
+			if (decimal.scale() <= 0 || decimal.stripTrailingZeros().scale() <= 0) {
+				try {
+					return Long.valueOf(decimal.longValueExact());
+				} catch (ArithmeticException e) {
+					return decimal;
+				}
+			}
+			return decimal;
+		}
+		if (value instanceof BigInteger) {
+			BigInteger integer = (BigInteger) value;
+			return integer.bitLength() < 64 ? (Object) Long.valueOf(integer.longValue()) : (Object) integer;
+		}
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return Long.valueOf(((Number) value).longValue());
+		}
+		if (value instanceof Float) {
+			return Double.valueOf(((Float) value).doubleValue());
+		}
+		return value;
+	}
+
+	/*
+	 * RecordSet 과 ResultSet 을 같은 방식으로 읽기 위한 행 공급자
+	 */
+	private interface RowSource {
+		String[] getColumns() throws SQLException;
+
+		boolean next(Object[] values) throws SQLException;
+	}
+
+	private static final class RecordSetSource implements RowSource {
+		private final RecordSet rs;
+		private String[] colNms = null;
+
+		RecordSetSource(RecordSet rs) {
+			this.rs = rs;
+		}
+
+		@Override
+		public String[] getColumns() {
+			colNms = rs.getColumns();
+			rs.moveRow(0);
+			return colNms;
+		}
+
+		@Override
+		public boolean next(Object[] values) {
+			if (!rs.nextRow()) {
+				return false;
+			}
+			for (int c = 0; c < colNms.length; c++) {
+				values[c] = normalize(rs.get(colNms[c]));
+			}
+			return true;
+		}
+	}
+
+	private static final class ResultSetSource implements RowSource {
+		private final ResultSet rs;
+
+		ResultSetSource(ResultSet rs) {
+			this.rs = rs;
+		}
+
+		@Override
+		public String[] getColumns() throws SQLException {
+			ResultSetMetaData rsmd = rs.getMetaData();
+			String[] colNms = new String[rsmd.getColumnCount()];
+			for (int i = 1; i <= colNms.length; i++) {
+				colNms[i - 1] = rsmd.getColumnName(i).toLowerCase();
+			}
+			return colNms;
+		}
+
+		@Override
+		public boolean next(Object[] values) throws SQLException {
+			if (!rs.next()) {
+				return false;
+			}
+			for (int c = 0; c < values.length; c++) {
+				values[c] = normalize(rs.getObject(c + 1));
+			}
+			return true;
+		}
+	}
+
+	/*
+	 * 행 단위 인코더
+	 */
+	private interface RowEncoder {
+		void begin(String[] colNms) throws IOException;
+
+		void row(Object[] values) throws IOException;
+
+		void end() throws IOException;
+	}
+
+	private static final class CborEncoder implements RowEncoder {
+		private static final int TAG_DECIMAL_FRACTION = 4;
+		private final CBORGenerator gen;
+		private SerializableString[] names = null;
+
+		CborEncoder(OutputStream os) throws IOException {
+			this.gen = cborFactory.createGenerator(os);
+		}
+
+		@Override
+		public void begin(String[] colNms) throws IOException {
+			names = new SerializableString[colNms.length];
+			for (int c = 0; c < colNms.length; c++) {
+				names[c] = new SerializedString(colNms[c]);
+			}
+			gen.writeStartArray();
+		}
+
+		@Override
+		public void row(Object[] values) throws IOException {
+			gen.writeStartObject();
+			for (int c = 0; c < values.length; c++) {
+				gen.writeFieldName(names[c]);
+				Object value = values[c];
+				if (value == null) {
+					gen.writeNull();
+				} else if (value instanceof Long) {
+					gen.writeNumber(((Long) value).longValue());
+				} else if (value instanceof Double) {
+					gen.writeNumber(((Double) value).doubleValue());
+				} else if (value instanceof BigDecimal) {
+					writeDecimal((BigDecimal) value);
+				} else if (value instanceof BigInteger) {
+					gen.writeNumber((BigInteger) value);
+				} else if (value instanceof Boolean) {
+					gen.writeBoolean(((Boolean) value).booleanValue());
+				} else if (value instanceof byte[]) {
+					gen.writeBinary((byte[]) value);
+				} else {
+					gen.writeString(value.toString());
+				}
+			}
+			gen.writeEndObject();
+		}
+
+		@Override
+		public void end() throws IOException {
+			gen.writeEndArray();
+			gen.close();
+		}
+
+		/*
+		 * decimal fraction(tag 4) : [10진 지수, 가수], 값 = 가수 * 10^지수
+		 */
+		private void writeDecimal(BigDecimal value) throws IOException {
+			BigInteger mantissa = value.unscaledValue();
+			gen.writeTag(TAG_DECIMAL_FRACTION);
+			gen.writeStartArray(2);
+			gen.writeNumber(-value.scale());
+			if (mantissa.bitLength() < 64) {
+				gen.writeNumber(mantissa.longValue());
+			} else {
+				gen.writeNumber(mantissa);
+			}
+			gen.writeEndArray();
+		}
+	}
+
+	private static final class MsgpackEncoder implements RowEncoder {
+		private final OutputStream os;
+		private byte[][] names = null;
+
+		MsgpackEncoder(OutputStream os) {
+			this.os = os;
+		}
+
+		@Override
+		public void begin(String[] colNms) throws IOException {
+			names = new byte[colNms.length][];
+			for (int c = 0; c < colNms.length; c++) {
+				ByteArrayOutputStream bos = new ByteArrayOutputStream();
+				writeString(bos, colNms[c]);
+				names[c] = bos.toByteArray();
+			}
+		}
+
+		@Override
+		public void row(Object[] values) throws IOException {
+			writeHeader(os, values.length, 0x80, 16, 0xde, 0xdf);
+			for (int c = 0; c < values.length; c++) {
+				os.write(names[c]);
+				Object value = values[c];
+				if (value == null) {
+					os.write(0xc0);
+				} else if (value instanceof Long) {
+					writeLong(((Long) value).longValue());
+				} else if (value instanceof Double) {
+					os.write(0xcb);
+					writeLongBytes(os, Double.doubleToLongBits(((Double) value).doubleValue()), 8);
+				} else if (value instanceof Boolean) {
+					os.write(((Boolean) value).booleanValue() ? 0xc3 : 0xc2);
+				} else if (value instanceof byte[]) {
+					byte[] bytes = (byte[]) value;
+					if (bytes.length < 0x100) {
+						os.write(0xc4);
+						os.write(bytes.length);
+					} else if (bytes.length < 0x10000) {
+						os.write(0xc5);
+						writeLongBytes(os, bytes.length, 2);
+					} else {
+						os.write(0xc6);
+						writeLongBytes(os, bytes.length, 4);
+					}
+					os.write(bytes);
+				} else {
+					writeString(os, toText(value));
+				}
+			}
+		}
+
+		@Override
+		public void end() {
+		}
+
+		private void writeLong(long v) throws IOException {
+			if (v >= 0 && v < 128) {
+				os.write((int) v);
+			} else if (v < 0 && v >= -32) {
+				os.write((int) (v & 0xff));
+			} else if (v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE) {
+				os.write(0xd0);
+				os.write((int) (v & 0xff));
+			} else if (v >= Short.MIN_VALUE && v <= Short.MAX_VALUE) {
+				os.write(0xd1);
+				writeLongBytes(os, v, 2);
+			} else if (v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE) {
+				os.write(0xd2);
+				writeLongBytes(os, v, 4);
+			} else {
+				os.write(0xd3);
+				writeLongBytes(os, v, 8);
+			}
+		}
+
+		private static void writeString(OutputStream out, String str) throws IOException {
+			byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+			if (bytes.length < 32) {
+				out.write(0xa0 | bytes.length);
+			} else if (bytes.length < 0x100) {
+				out.write(0xd9);
+				out.write(bytes.length);
+			} else if (bytes.length < 0x10000) {
+				out.write(0xda);
+				writeLongBytes(out, bytes.length, 2);
+			} else {
+				out.write(0xdb);
+				writeLongBytes(out, bytes.length, 4);
+			}
+			out.write(bytes);
+		}
+
+		private static void writeHeader(OutputStream out, int size, int fixPrefix, int fixLimit, int prefix16, int prefix32) throws IOException {
+			if (size < fixLimit) {
+				out.write(fixPrefix | size);
+			} else if (size < 0x10000) {
+				out.write(prefix16);
+				writeLongBytes(out, size, 2);
+			} else {
+				out.write(prefix32);
+				writeLongBytes(out, size, 4);
+			}
+		}
+	}
+
+	/*
+	 * 컬럼 우선(column-major) 블록 인코더
+	 */
+	private static final class ColumnarEncoder implements RowEncoder {
+		private static final int BLOCK_ROWS = 1024;
+		private static final int TYPE_LONG = 1;
+		private static final int TYPE_DOUBLE = 2;
+		private static final int TYPE_STRING = 3;
+		private static final int TYPE_BOOLEAN = 4;
+		private static final int TYPE_BINARY = 5;
+		private final OutputStream os;
+		private Object[][] block = null;
+		private int rows = 0;
+
+		ColumnarEncoder(OutputStream os) {
+			this.os = os;
+		}
+
+		@Override
+		public void begin(String[] colNms) throws IOException {
+			os.write(new byte[] { 'F', 'W', 'C', '1' });
+			writeLongBytes(os, colNms.length, 2);
+			for (String colNm : colNms) {
+				byte[] bytes = colNm.getBytes(StandardCharsets.UTF_8);
+				writeLongBytes(os, bytes.length, 2);
+				os.write(bytes);
+			}
+			block = new Object[colNms.length][BLOCK_ROWS];
+		}
+
+		@Override
+		public void row(Object[] values) throws IOException {
+			for (int c = 0; c < values.length; c++) {
+				block[c][rows] = values[c];
+			}
+			if (++rows == BLOCK_ROWS) {
+				flushBlock();
+			}
+		}
+
+		@Override
+		public void end() throws IOException {
+			if (rows > 0) {
+				flushBlock();
+			}
+			writeLongBytes(os, 0, 4);
+		}
+
+		private void flushBlock() throws IOException {
+			writeLongBytes(os, rows, 4);
+			byte[] nulls = new byte[(rows + 7) / 8];
+			for (Object[] column : block) {
+				int type = getType(column);
+				os.write(type);
+				Arrays.fill(nulls, (byte) 0);
+				for (int r = 0; r < rows; r++) {
+					if (column[r] == null) {
+						nulls[r >> 3] |= (byte) (1 << (r & 7));
+					}
+				}
+				os.write(nulls);
+				for (int r = 0; r < rows; r++) {
+					Object value = column[r];
+					if (value == null) {
+						continue;
+					}
+					switch (type) {
+					case TYPE_LONG:
+						writeLongBytes(os, ((Number) value).longValue(), 8);
+						break;
+					case TYPE_DOUBLE:
+						writeLongBytes(os, Double.doubleToLongBits(((Number) value).doubleValue()), 8);
+						break;
+					case TYPE_BOOLEAN:
+						os.write(((Boolean) value).booleanValue() ? 1 : 0);
+						break;
+					default:
+						byte[] bytes = type == TYPE_BINARY ? (byte[]) value : toText(value).getBytes(StandardCharsets.UTF_8);
+						int len = bytes.length;
+						while ((len & ~0x7f) != 0) {
+							os.write((len & 0x7f) | 0x80);
+							len >>>= 7;
+						}
+						os.write(len);
+						os.write(bytes);
+					}
+					column[r] = null;
+				}
+			}
+			rows = 0;
+		}
+
+		/*
+		 * 블록 안의 값이 모두 정수이면 long, 모두 long 또는 double 이면 double, 모두 불린이면 boolean, 모두 바이너리이면 binary, 그 외에는 문자열
+		 */
+		private int getType(Object[] column) {
+			boolean allLong = true;
+			boolean allNumber = true;
+			boolean allBoolean = true;
+			boolean allBinary = true;
+			for (int r = 0; r < rows; r++) {
+				Object value = column[r];
+				if (value == null) {
+					continue;
+				}
+				allLong &= (value instanceof Long);
+				allNumber &= (value instanceof Long || value instanceof Double);
+				allBoolean &= (value instanceof Boolean);
+				allBinary &= (value instanceof byte[]);
+			}
+			if (allBoolean && !allNumber) {
+				return TYPE_BOOLEAN;
+			}
+			if (allBinary && !allNumber) {
+				return TYPE_BINARY;
+			}
+			if (allLong) {
+				return TYPE_LONG;
+			}
+			if (allNumber) {
+				return TYPE_DOUBLE;
+			}
+			return TYPE_STRING;
+		}
+	}
+
+	/*
+	 * 문자열로 출력할 값, BigDecimal 은 지수 표기 없이, 바이너리는 Base64 로 바꾼다.
+	 */
+	private static String toText(Object value) {
+		if (value instanceof BigDecimal) {
+			return ((BigDecimal) value).toPlainString();
+		}
+		if (value instanceof byte[]) {
+			return Base64.encodeBase64String((byte[]) value);
+		}
+		return value.toString();
+	}
+
+	private static void writeLongBytes(OutputStream out, long v, int size) throws IOException {
+		for (int i = size - 1; i >= 0; i--) {
+			out.write((int) (v >>> (i * 8)) & 0xff);
+		}
+	}
+}
@@ -24,14 +24,17 @@ import com.nexacro.xapi.data.DataSetList;
 import com.nexacro.xapi.data.DataTypes;
 import com.nexacro.xapi.data.PlatformData;
 import com.nexacro.xapi.data.VariableList;
+import com.nexacro.xapi.tx.HttpPartPlatformResponse;
 import com.nexacro.xapi.tx.HttpPlatformRequest;
 import com.nexacro.xapi.tx.HttpPlatformResponse;
+import com.nexacro.xapi.tx.PartPlatformResponse;
 import com.nexacro.xapi.tx.PlatformException;
 import com.nexacro.xapi.tx.PlatformRequest;
 import com.nexacro.xapi.tx.PlatformResponse;
 import com.nexacro.xapi.tx.PlatformType;
 
 import framework.action.Params;
+import framework.config.Config;
 import framework.db.RecordMap;
 import framework.db.RecordSet;
 
@@ -238,6 +241,79 @@ public final class NexacroUtil {
 		return rowCount;
 	}
 
+	/**
+	 * ResultSet을 넥사크로플랫폼 데이타셋(명칭은 datasetName 인자 값)으로 변환하면서 나누어 응답객체로 전송한다.
+	 * 한번에 전송하는 행수는 application.properties 의 nexacroutil.partSize 값(기본값 1000)을 사용한다.
+	 * <br>
+	 * ex) rs를 넥사크로플랫폼 데이터셋(명칭은 result)으로 변환하여 response로 SSV 형식으로 나누어 전송하는 경우 : NexacroUtil.renderStream(response, "result", rs, NexacroUtil.SSV)
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param datasetName 데이타셋 이름
+	 * @param rs 넥사크로플랫폼 데이타셋으로 변환할 ResultSet 객체, ResultSet 객체는 자동으로 close 된다.
+	 * @param platformType 송수신 형식 (NexacroUtil.BIN, NexacroUtil.XML, NexacroUtil.SSV)
+	 * @return 처리건수
+	 */
+	public static int renderStream(HttpServletResponse response, String datasetName, ResultSet rs, String platformType) {
+		VariableList vl = new VariableList();
+		vl.add("ErrorCode", "0");
+		vl.add("ErrorMsg", "SUCC");
+		return renderStream(response, vl, datasetName, rs, platformType, Config.getInstance().getInt("nexacroutil.partSize", 1000));
+	}
+
+	/**
+	 * ResultSet을 넥사크로플랫폼 데이타셋(명칭은 datasetName 인자 값)으로 변환하면서 partSize 행마다 나누어 응답객체로 전송한다.
+	 * 데이타셋에는 전송하지 않은 행만 남기 때문에 행수와 관계없이 메모리 사용량이 일정하고, 클라이언트는 첫번째 묶음을 받는 즉시 화면에 표시할 수 있다.
+	 * 전송을 시작한 후에는 응답을 되돌릴 수 없으므로, 도중에 오류가 발생하면 클라이언트는 일부 행만 받게 된다.
+	 * <br>
+	 * ex) rs를 넥사크로플랫폼 데이터셋(명칭은 result)으로 변환하여 response로 500행씩 BIN 형식으로 전송하는 경우 : NexacroUtil.renderStream(response, vl, "result", rs, NexacroUtil.BIN, 500)
+	 * @param response 클라이언트로 응답할 Response 객체
+	 * @param vl 넥사크로플랫폼 VariableList 객체, 데이타셋보다 먼저 전송된다.
+	 * @param datasetName 데이타셋 이름
+	 * @param rs 넥사크로플랫폼 데이타셋으로 변환할 ResultSet 객체, ResultSet 객체는 자동으로 close 된다.
+	 * @param platformType 송수신 형식 (NexacroUtil.BIN, NexacroUtil.XML, NexacroUtil.SSV)
+	 * @param partSize 한번에 전송할 행수
+	 * @return 처리건수
+	 */
+	public static int renderStream(HttpServletResponse response, VariableList vl, String datasetName, ResultSet rs, String platformType, int partSize) {
+		if (response == null || datasetName == null || rs == null) {
+			return 0;
+		}
+		int size = partSize < 1 ? 1 : partSize;
+		try {
+			try {
+				DataSet dSet = new DataSet(datasetName);
+				String[] colNms = addColumns(dSet, rs);
+				response.reset();
+				PartPlatformResponse pResponse = new HttpPartPlatformResponse(response, platformType, "utf-8");
+				pResponse.setAutoDataClear(true);
+				pResponse.start();
+				if (vl != null) {
+					for (int i = 0, len = vl.size(); i < len; i++) {
+						pResponse.sendVariable(vl.get(i));
+					}
+				}
+				int rowCount = 0;
+				while (rs.next()) {
+					rowCount++;
+					appendRow(dSet, rs, colNms);
+					if (dSet.getRowCount() >= size) {
+						pResponse.sendDataSet(dSet);
+					}
+				}
+				if (rowCount == 0 || dSet.getRowCount() > 0) {
+					pResponse.sendDataSet(dSet);
+				}
+				pResponse.end();
+				return rowCount;
+			} finally {
+				close(rs);
+			}
+		} catch (SQLException e) {
+			throw new RuntimeException(e);
+		} catch (PlatformException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	/**
 	 * Map객체를 넥사크로플랫폼 데이타셋(명칭은 datasetName 인자 값)으로 변환하여 응답객체로 전송한다.
 	 * <br>
@@ -661,35 +737,7 @@ public final class NexacroUtil {
 		}
 		try {
 			try {
-				ResultSetMetaData rsmd = rs.getMetaData();
-				int cnt = rsmd.getColumnCount();
-				String[] colNms = new String[cnt];
-				int[] colSize = new int[cnt];
-				int[] colType = new int[cnt];
-				for (int i = 1; i <= cnt; i++) {
-					colNms[i - 1] = rsmd.getColumnName(i).toLowerCase();
-					colSize[i - 1] = rsmd.getColumnDisplaySize(i);
-					colType[i - 1] = rsmd.getColumnType(i);
-				}
-				// 컬럼 레이아웃 셋팅
-				for (int c = 0; c < colNms.length; c++) {
-					switch (colType[c]) {
-					case Types.BIGINT:
-					case Types.DECIMAL:
-					case Types.DOUBLE:
-					case Types.FLOAT:
-					case Types.INTEGER:
-					case Types.NUMERIC:
-					case Types.REAL:
-					case Types.SMALLINT:
-					case Types.TINYINT:
-						dSet.addColumn(colNms[c], DataTypes.DOUBLE, colSize[c]);
-						break;
-					default:
-						dSet.addColumn(colNms[c], DataTypes.STRING, colSize[c]);
-						break;
-					}
-				}
+				String[] colNms = addColumns(dSet, rs);
 				int rowCount = 0;
 				while (rs.next()) {
 					rowCount++;
@@ -697,32 +745,66 @@ public final class NexacroUtil {
 				}
 				return rowCount;
 			} finally {
-				Statement stmt = null;
-				try {
-					stmt = rs.getStatement();
-				} catch (SQLException e) {
-					logger.error("", e);
-				}
-				if (rs != null) {
-					try {
-						rs.close();
-					} catch (SQLException e) {
-						logger.error("", e);
-					}
-				}
-				if (stmt != null) {
-					try {
-						stmt.close();
-					} catch (SQLException e) {
-						logger.error("", e);
-					}
-				}
+				close(rs);
 			}
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	/**
+	 * ResultSet의 컬럼 레이아웃을 넥사크로플랫폼 데이타셋에 셋팅하고 컬럼명 배열을 리턴한다.
+	 */
+	private static String[] addColumns(DataSet dSet, ResultSet rs) throws SQLException {
+		ResultSetMetaData rsmd = rs.getMetaData();
+		int cnt = rsmd.getColumnCount();
+		String[] colNms = new String[cnt];
+		for (int i = 1; i <= cnt; i++) {
+			colNms[i - 1] = rsmd.getColumnName(i).toLowerCase();
+			switch (rsmd.getColumnType(i)) {
+			case Types.BIGINT:
+			case Types.DECIMAL:
+			case Types.DOUBLE:
+			case Types.FLOAT:
+			case Types.INTEGER:
+			case Types.NUMERIC:
+			case Types.REAL:
+			case Types.SMALLINT:
+			case Types.TINYINT:
+				dSet.addColumn(colNms[i - 1], DataTypes.DOUBLE, rsmd.getColumnDisplaySize(i));
+				break;
+			default:
+				dSet.addColumn(colNms[i - 1], DataTypes.STRING, rsmd.getColumnDisplaySize(i));
+				break;
+			}
+		}
+		return colNms;
+	}
+
+	/**
+	 * ResultSet과 Statement를 close 한다.
+	 */
+	private static void close(ResultSet rs) {
+		Statement stmt = null;
+		try {
+			stmt = rs.getStatement();
+		} catch (SQLException e) {
+			logger.error("", e);
+		}
+		try {
+			rs.close();
+		} catch (SQLException e) {
+			logger.error("", e);
+		}
+		if (stmt != null) {
+			try {
+				stmt.close();
+			} catch (SQLException e) {
+				logger.error("", e);
+			}
+		}
+	}
+
 	/**
 	 * 넥사크로플랫폼 데이타셋에 RecordMap 한행 추가
 	 */
@@ -18,7 +18,6 @@ import org.apache.http.entity.mime.MultipartEntity;
 import org.apache.http.entity.mime.content.ContentBody;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.StringBody;
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 
@@ -178,9 +177,9 @@ public final class OAuth10aUtil {
 	public static Result get(Consumer consumer, String url, Map<String, String> headerMap) {
 		int statusCode = 0;
 		String content = "";
+		HttpGet httpGet = new HttpGet(url);
 		try {
-			HttpClient httpClient = new DefaultHttpClient();
-			HttpGet httpGet = new HttpGet(url);
+			HttpClient httpClient = HttpUtil.getClient();
 			if (headerMap != null) {
 				for (Entry<String, String> entry : headerMap.entrySet()) {
 					httpGet.addHeader(entry.getKey(), entry.getValue());
@@ -194,6 +193,7 @@ public final class OAuth10aUtil {
 				content = EntityUtils.toString(resEntityGet);
 			}
 		} catch (Throwable e) {
+			httpGet.abort();
 			throw new RuntimeException(e);
 		}
 		return new Result(statusCode, content);
@@ -231,9 +231,9 @@ public final class OAuth10aUtil {
 	public static Result post(Consumer consumer, String url, Map<String, String> paramMap, Map<String, String> headerMap) {
 		int statusCode = 0;
 		String content = "";
+		HttpPost httpPost = new HttpPost(url);
 		try {
-			HttpClient httpClient = new DefaultHttpClient();
-			HttpPost httpPost = new HttpPost(url);
+			HttpClient httpClient = HttpUtil.getClient();
 			if (headerMap != null) {
 				for (Entry<String, String> entry : headerMap.entrySet()) {
 					httpPost.addHeader(entry.getKey(), entry.getValue());
@@ -255,6 +255,7 @@ public final class OAuth10aUtil {
 				content = EntityUtils.toString(resEntity);
 			}
 		} catch (Throwable e) {
+			httpPost.abort();
 			throw new RuntimeException(e);
 		}
 		return new Result(statusCode, content);
@@ -284,9 +285,9 @@ public final class OAuth10aUtil {
 	public static Result post(Consumer consumer, String url, Map<String, String> paramMap, List<File> fileList, Map<String, String> headerMap) {
 		int statusCode = 0;
 		String content = "";
+		HttpPost httpPost = new HttpPost(url);
 		try {
-			HttpClient httpClient = new DefaultHttpClient();
-			HttpPost httpPost = new HttpPost(url);
+			HttpClient httpClient = HttpUtil.getClient();
 			if (headerMap != null) {
 				for (Entry<String, String> entry : headerMap.entrySet()) {
 					httpPost.addHeader(entry.getKey(), entry.getValue());
@@ -313,6 +314,7 @@ public final class OAuth10aUtil {
 				content = EntityUtils.toString(resEntity);
 			}
 		} catch (Throwable e) {
+			httpPost.abort();
 			throw new RuntimeException(e);
 		}
 		return new Result(statusCode, content);
@@ -1,12 +1,29 @@
 package framework.util;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -19,8 +36,13 @@ import com.itextpdf.text.Rectangle;
 import com.itextpdf.text.pdf.PdfWriter;
 import com.itextpdf.tool.xml.XMLWorker;
 import com.itextpdf.tool.xml.XMLWorkerFontProvider;
+import com.itextpdf.tool.xml.XMLWorkerHelper;
+import com.itextpdf.tool.xml.css.CssFile;
+import com.itextpdf.tool.xml.css.CssFilesImpl;
 import com.itextpdf.tool.xml.css.StyleAttrCSSResolver;
+import com.itextpdf.tool.xml.html.CssAppliers;
 import com.itextpdf.tool.xml.html.CssAppliersImpl;
+import com.itextpdf.tool.xml.html.TagProcessorFactory;
 import com.itextpdf.tool.xml.html.Tags;
 import com.itextpdf.tool.xml.parser.XMLParser;
 import com.itextpdf.tool.xml.pipeline.css.CSSResolver;
@@ -29,11 +51,15 @@ import com.itextpdf.tool.xml.pipeline.end.PdfWriterPipeline;
 import com.itextpdf.tool.xml.pipeline.html.HtmlPipeline;
 import com.itextpdf.tool.xml.pipeline.html.HtmlPipelineContext;
 
+import framework.config.Config;
+import framework.db.RecordMap;
+
 /**
  * PDF 변환시 이용할 수 있는 유틸리티 클래스
  */
 public final class PdfUtil {
 	private static final Log logger = LogFactory.getLog(PdfUtil.class);
+	private static final ConcurrentMap<String, CssAppliers> cssAppliersCache = new ConcurrentHashMap<String, CssAppliers>();
 
 	public enum Orientation {
 		PORTRAIT, LANDSCAPE
@@ -167,19 +193,14 @@ public final class PdfUtil {
 			} else {
 				pageSize = PageSize.A4.rotate();
 			}
-			doc = new Document(pageSize, marginLeft, marginRight, marginRight, marginBottom);
+			doc = new Document(pageSize, marginLeft, marginRight, marginTop, marginBottom);
 			pdfWriter = PdfWriter.getInstance(doc, os);
 			pdfWriter.setInitialLeading(12.5f);
 			doc.open();
-			XMLWorkerFontProvider fontProvider = new XMLWorkerFontProvider(XMLWorkerFontProvider.DONTLOOKFORFONTS);
-			if (fontDir != null && !"".equals(fontDir)) {
-				fontProvider.registerDirectory(fontDir);
-			}
-			fontProvider.setUseUnicode(true);
-			HtmlPipelineContext context = new HtmlPipelineContext(new CssAppliersImpl(fontProvider));
-			context.setTagFactory(Tags.getHtmlTagProcessorFactory());
+			HtmlPipelineContext context = new HtmlPipelineContext(getCssAppliers(fontDir));
+			context.setTagFactory(TagFactoryHolder.tagFactory);
 			context.charSet(Charset.forName("UTF-8"));
-			CSSResolver cssResolver = new StyleAttrCSSResolver();
+			CSSResolver cssResolver = CssHolder.cssFile == null ? new StyleAttrCSSResolver() : new StyleAttrCSSResolver(new CssFilesImpl(CssHolder.cssFile));
 			CssResolverPipeline pipeline = new CssResolverPipeline(cssResolver, new HtmlPipeline(context, new PdfWriterPipeline(doc, pdfWriter)));
 			XMLWorker worker = new XMLWorker(pipeline, true);
 			XMLParser parser = new XMLParser(worker, Charset.forName("UTF-8"));
@@ -196,4 +217,246 @@ public final class PdfUtil {
 			}
 		}
 	}
+
+	/**
+	 * 여러개의 HTML 문자열을 PDF 형식(A4사이즈)으로 병렬 변환하여 디렉토리에 파일로 저장한다.
+	 * 동시에 변환하는 문서 수는 application.properties 의 pdfutil.threads 값(기본값은 CPU 코어 수)으로 제한되며, 실패한 문서는 로그를 남기고 건너뛴다.
+	 * <br>
+	 * ex) 청구서 HTML 목록을 /data/invoice 디렉토리에 저장하는 경우 : List&lt;RecordMap&gt; result = PdfUtil.htmlToPdfAll(htmlMap, new File("/data/invoice"), 20, 20, 20, 20, Orientation.PORTRAIT, fontDir)
+	 * @param htmlMap 저장할 파일명을 키로, HTML 문자열(CSS 포함)을 값으로 갖는 Map 객체
+	 * @param destDir 저장할 디렉토리
+	 * @param marginLeft 좌측 여백
+	 * @param marginRight 우측 여백
+	 * @param marginTop 상단 여백
+	 * @param marginBottom 하단 여백
+	 * @param orientation 용지 방향
+	 * @param fontDir 폰트파일(ttf)이 저장되어 있는 디렉토리 경로
+	 * @return 문서별 처리결과(name : 파일명, success : 성공여부, elapsed : 변환시간(ms), size : 파일크기, error : 오류 메시지) 목록
+	 */
+	public static List<RecordMap> htmlToPdfAll(Map<String, String> htmlMap, File destDir, float marginLeft, float marginRight, float marginTop, float marginBottom, Orientation orientation, String fontDir) {
+		if (!destDir.isDirectory()) {
+			destDir.mkdirs();
+		}
+		return renderAll(htmlMap, destDir, null, new float[] { marginLeft, marginRight, marginTop, marginBottom }, orientation, fontDir);
+	}
+
+	/**
+	 * 여러개의 HTML 문자열을 PDF 형식(A4사이즈)으로 병렬 변환하여 하나의 zip 파일로 다운로드 한다.
+	 * <br>
+	 * ex) 청구서 HTML 목록을 invoice.zip 으로 다운로드 하는 경우 : PdfUtil.htmlToPdfZip(htmlMap, response, "invoice.zip", 20, 20, 20, 20, Orientation.PORTRAIT, fontDir)
+	 * @param htmlMap zip 파일 안의 파일명을 키로, HTML 문자열(CSS 포함)을 값으로 갖는 Map 객체
+	 * @param response zip 파일을 전송할 응답객체
+	 * @param fileName 다운로드할 파일명
+	 * @param marginLeft 좌측 여백
+	 * @param marginRight 우측 여백
+	 * @param marginTop 상단 여백
+	 * @param marginBottom 하단 여백
+	 * @param orientation 용지 방향
+	 * @param fontDir 폰트파일(ttf)이 저장되어 있는 디렉토리 경로
+	 * @return 문서별 처리결과 목록
+	 */
+	public static List<RecordMap> htmlToPdfZip(Map<String, String> htmlMap, HttpServletResponse response, String fileName, float marginLeft, float marginRight, float marginTop, float marginBottom, Orientation orientation, String fontDir) {
+		try {
+			response.reset();
+			response.setContentType("application/octet-stream;");
+			response.setHeader("Content-Disposition", (new StringBuilder("attachment; filename=\"")).append(new String(fileName.getBytes(), "ISO-8859-1")).append("\"").toString());
+			response.setHeader("Pragma", "no-cache;");
+			response.setHeader("Expires", "-1;");
+			return htmlToPdfZip(htmlMap, response.getOutputStream(), marginLeft, marginRight, marginTop, marginBottom, orientation, fontDir);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * 여러개의 HTML 문자열을 PDF 형식(A4사이즈)으로 병렬 변환하여 zip 형식으로 출력 스트림에 쓴다.
+	 * 변환이 끝난 문서부터 Map 의 순서대로 zip 에 추가되며, 변환중인 문서만 메모리에 유지된다. 출력 스트림은 닫지 않는다.
+	 * @param htmlMap zip 파일 안의 파일명을 키로, HTML 문자열(CSS 포함)을 값으로 갖는 Map 객체
+	 * @param os 출력 스트림
+	 * @param marginLeft 좌측 여백
+	 * @param marginRight 우측 여백
+	 * @param marginTop 상단 여백
+	 * @param marginBottom 하단 여백
+	 * @param orientation 용지 방향
+	 * @param fontDir 폰트파일(ttf)이 저장되어 있는 디렉토리 경로
+	 * @return 문서별 처리결과 목록
+	 */
+	public static List<RecordMap> htmlToPdfZip(Map<String, String> htmlMap, OutputStream os, float marginLeft, float marginRight, float marginTop, float marginBottom, Orientation orientation, String fontDir) {
+		ZipOutputStream zos = new ZipOutputStream(os);
+		List<RecordMap> result = renderAll(htmlMap, null, zos, new float[] { marginLeft, marginRight, marginTop, marginBottom }, orientation, fontDir);
+		try {
+			zos.finish();
+			zos.flush();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return result;
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////// Private 메소드
+
+	/**
+	 * 폰트 디렉토리별로 폰트를 한번만 등록하고, 등록된 폰트를 사용하는 CSS 적용기를 재사용한다.
+	 */
+	private static CssAppliers getCssAppliers(String fontDir) {
+		String key = fontDir == null ? "" : fontDir;
+		CssAppliers cssAppliers = cssAppliersCache.get(key);
+		if (cssAppliers == null) {
+			XMLWorkerFontProvider fontProvider = new XMLWorkerFontProvider(XMLWorkerFontProvider.DONTLOOKFORFONTS);
+			if (!"".equals(key)) {
+				fontProvider.registerDirectory(key);
+			}
+			fontProvider.setUseUnicode(true);
+			CssAppliers created = new CssAppliersImpl(fontProvider);
+			cssAppliers = cssAppliersCache.putIfAbsent(key, created);
+			if (cssAppliers == null) {
+				cssAppliers = created;
+			}
+		}
+		return cssAppliers;
+	}
+
+	/**
+	 * 문서를 작업 쓰레드 풀에서 변환한다. 동시에 대기하는 문서는 쓰레드 수의 2배로 제한하며, 결과는 Map 의 순서대로 처리한다.
+	 */
+	private static List<RecordMap> renderAll(Map<String, String> htmlMap, File destDir, ZipOutputStream zos, float[] margins, Orientation orientation, String fontDir) {
+		List<RecordMap> result = new ArrayList<RecordMap>(htmlMap.size());
+		int window = PdfExecutorHolder.threads * 2;
+		LinkedList<PdfTask> running = new LinkedList<PdfTask>();
+		Iterator<Entry<String, String>> it = htmlMap.entrySet().iterator();
+		long start = System.currentTimeMillis();
+		int success = 0;
+		try {
+			while (it.hasNext() || !running.isEmpty()) {
+				while (it.hasNext() && running.size() < window) {
+					Entry<String, String> entry = it.next();
+					PdfTask task = new PdfTask(entry.getKey(), entry.getValue(), destDir == null ? null : new File(destDir, entry.getKey()), margins, orientation, fontDir);
+					task.future = PdfExecutorHolder.executor.submit(task);
+					running.add(task);
+				}
+				PdfTask task = running.removeFirst();
+				RecordMap map;
+				try {
+					map = task.future.get();
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+				if (zos != null && task.data != null) {
+					zos.putNextEntry(new ZipEntry(task.name));
+					zos.write(task.data);
+					zos.closeEntry();
+				}
+				if (Boolean.TRUE.equals(map.get("success"))) {
+					success++;
+				}
+				result.add(map);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			for (PdfTask task : running) {
+				task.future.cancel(true);
+			}
+		}
+		if (logger.isInfoEnabled()) {
+			logger.info("PDF " + htmlMap.size() + "건 중 " + success + "건 변환 (" + (System.currentTimeMillis() - start) + "ms)");
+		}
+		return result;
+	}
+
+	/*
+	 * 문서 한건의 변환 작업, 파일이 지정되지 않으면 변환 결과를 data 에 보관한다.
+	 */
+	private static final class PdfTask implements Callable<RecordMap> {
+		private final String name;
+		private final String html;
+		private final File destFile;
+		private final float[] margins;
+		private final Orientation orientation;
+		private final String fontDir;
+		private Future<RecordMap> future;
+		private volatile byte[] data;
+
+		PdfTask(String name, String html, File destFile, float[] margins, Orientation orientation, String fontDir) {
+			this.name = name;
+			this.html = html;
+			this.destFile = destFile;
+			this.margins = margins;
+			this.orientation = orientation;
+			this.fontDir = fontDir;
+		}
+
+		@Override
+		public RecordMap call() {
+			RecordMap map = new RecordMap();
+			map.put("name", name);
+			long start = System.currentTimeMillis();
+			try {
+				if (destFile == null) {
+					ByteArrayOutputStream bos = new ByteArrayOutputStream();
+					htmlToPdf(html, bos, margins[0], margins[1], margins[2], margins[3], orientation, fontDir);
+					data = bos.toByteArray();
+					map.put("size", Long.valueOf(data.length));
+				} else {
+					htmlToPdf(html, destFile, margins[0], margins[1], margins[2], margins[3], orientation, fontDir);
+					map.put("size", Long.valueOf(destFile.length()));
+				}
+				map.put("success", Boolean.TRUE);
+			} catch (Throwable e) {
+				logger.error("PDF 를 변환하지 못했습니다. : " + name, e);
+				if (destFile != null) {
+					FileUtil.deleteFile(destFile);
+				}
+				map.put("success", Boolean.FALSE);
+				map.put("error", e.getCause() == null ? e.toString() : e.getCause().toString());
+			}
+			map.put("elapsed", Long.valueOf(System.currentTimeMillis() - start));
+			return map;
+		}
+	}
+
+	/*
+	 * 모든 문서에 공통으로 적용할 스타일시트(pdfutil.cssFile)를 한번만 읽어서 보관한다.
+	 */
+	private static final class CssHolder {
+		private static final CssFile cssFile = loadCss();
+
+		private static CssFile loadCss() {
+			String path = Config.getInstance().getString("pdfutil.cssFile", "");
+			if ("".equals(path)) {
+				return null;
+			}
+			InputStream is = null;
+			try {
+				is = new FileInputStream(path);
+				return XMLWorkerHelper.getCSS(is);
+			} catch (IOException e) {
+				logger.error("", e);
+				return null;
+			} finally {
+				if (is != null) {
+					try {
+						is.close();
+					} catch (IOException e) {
+						logger.error("", e);
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * HTML 태그 처리기는 상태가 없으므로 하나를 만들어 모든 변환에서 공유한다.
+	 */
+	private static final class TagFactoryHolder {
+		private static final TagProcessorFactory tagFactory = Tags.getHtmlTagProcessorFactory();
+	}
+
+	private static final class PdfExecutorHolder {
+		private static final ThreadPoolExecutor executor = DaemonExecutors.create("framework-pdf", "pdfutil.threads", Runtime.getRuntime().availableProcessors());
+		private static final int threads = executor.getMaximumPoolSize();
+	}
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package framework.util;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import framework.config.Config;
+
+/**
+ * 컴파일된 템플릿을 파일 경로별로 보관하는 LRU 캐시
+ * 보관중인 템플릿은 templatecache.checkInterval 초(기본값 2)마다 파일의 수정시각과 크기를 비교하여 바뀌었으면 다시 컴파일한다.
+ * checkInterval 이 0 이면 매번 비교하고, 음수이면 비교하지 않는다.
+ * 보관하는 템플릿 수는 templatecache.maxEntries(기본값 256)를 넘지 않는다.
+ */
+abstract class TemplateCache<T> {
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<String, CachedTemplate<T>> map;
+	private final long checkInterval;
+
+	TemplateCache() {
+		final int maxEntries = Config.getInstance().getInt("templatecache.maxEntries", 256);
+		this.checkInterval = Config.getInstance().getInt("templatecache.checkInterval", 2) * 1000L;
+		this.map = new LinkedHashMap<String, CachedTemplate<T>>(16, 0.75f, true) {
+			private static final long serialVersionUID = -6046523905472117281L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedTemplate<T>> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * 템플릿 파일을 컴파일한다.
+	 */
+	protected abstract T compile(File file, String encoding) throws Exception;
+
+	/**
+	 * 파일의 컴파일된 템플릿을 리턴한다. 보관중이 아니거나 파일이 바뀌었으면 컴파일해서 보관한다.
+	 */
+	T get(File file, String encoding) throws Exception {
+		String key = file.getAbsolutePath() + "|" + encoding;
+		long now = System.currentTimeMillis();
+		CachedTemplate<T> entry;
+		lock.lock();
+		try {
+			entry = map.get(key);
+			if (entry != null && (checkInterval < 0 || now - entry.checkedAt < checkInterval)) {
+				return entry.template;
+			}
+		} finally {
+			lock.unlock();
+		}
+		long lastModified = file.lastModified();
+		long length = file.length();
+		if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+			entry.checkedAt = now;
+			return entry.template;
+		}
+		T template = compile(file, encoding);
+		lock.lock();
+		try {
+			map.put(key, new CachedTemplate<T>(template, lastModified, length, now));
+		} finally {
+			lock.unlock();
+		}
+		return template;
+	}
+
+	/**
+	 * 보관중인 템플릿을 모두 삭제한다.
+	 */
+	void clear() {
+		lock.lock();
+		try {
+			map.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static final class CachedTemplate<T> {
+		final T template;
+		final long lastModified;
+		final long length;
+		volatile long checkedAt;
+
+		CachedTemplate(T template, long lastModified, long length, long checkedAt) {
+			this.template = template;
+			this.lastModified = lastModified;
+			this.length = length;
+			this.checkedAt = checkedAt;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package framework.util;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -12,8 +13,11 @@ import javax.servlet.ServletContext;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.Velocity;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.RuntimeSingleton;
 
 /**
  * Velocity를 이용한 템플릿 처리 유틸리티 클래스
@@ -57,16 +61,14 @@ public final class VelocityUtil {
 	public static String render(ServletContext sc, String key, String statement, Object param, String fileEncoding) {
 		StringWriter writer = new StringWriter();
 		try {
-			Velocity.init();
 			VelocityContext context = new VelocityContext();
 			context.put("COMMAND", statement);
 			context.put("PARAM", param);
 			context.put("UTIL", StringUtil.class);
 			ResourceBundle viewsBundle = (ResourceBundle) sc.getAttribute("views-mapping");
 			String fileName = ((String) viewsBundle.getObject(key)).trim();
-			String template = readTemplate(sc, fileName, fileEncoding);
-			StringReader reader = new StringReader(template);
-			Velocity.evaluate(context, writer, "framework.util.VelocityUtil", reader);
+			Template template = TemplateHolder.cache.get(new File(sc.getRealPath(fileName)), fileEncoding);
+			template.merge(context, writer);
 		} catch (Throwable e) {
 			throw new RuntimeException(e);
 		}
@@ -74,11 +76,43 @@ public final class VelocityUtil {
 	}
 
 	/**
-	 * 템플릿파일을 읽어들인다.
+	 * 컴파일하여 보관중인 템플릿을 모두 삭제한다.
+	 * 보관중인 템플릿은 파일이 수정되면 자동으로 다시 컴파일되므로, 파일 수정 확인 주기를 기다리지 않고 바로 반영할 때 사용한다.
+	 * <br>
+	 * ex) VelocityUtil.clearCache()
+	 */
+	public static void clearCache() {
+		TemplateHolder.cache.clear();
+	}
+
+	//////////////////////////////////////////////////////////////////////////////////////// Private 메소드
+
+	/*
+	 * Velocity 를 한번만 초기화하고, 템플릿 파일을 파싱한 결과를 보관한다.
 	 */
-	private static String readTemplate(ServletContext sc, String fileName, String fileEncoding) {
-		String pathFile = sc.getRealPath(fileName);
-		return read(pathFile, fileEncoding);
+	private static final class TemplateHolder {
+		static final TemplateCache<Template> cache;
+
+		static {
+			try {
+				Velocity.init();
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+			cache = new TemplateCache<Template>() {
+				@Override
+				protected Template compile(File file, String encoding) throws Exception {
+					RuntimeServices runtimeServices = RuntimeSingleton.getRuntimeServices();
+					Template template = new Template();
+					template.setRuntimeServices(runtimeServices);
+					template.setName(file.getPath());
+					template.setEncoding(encoding);
+					template.setData(RuntimeSingleton.parse(new StringReader(read(file.getPath(), encoding)), "framework.util.VelocityUtil"));
+					template.initDocument();
+					return template;
+				}
+			};
+		}
 	}
 
 	/**